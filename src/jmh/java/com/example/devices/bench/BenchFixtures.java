@@ -0,0 +1,116 @@
+package com.example.devices.bench;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.devices.DevicesApiApplication;
+import com.example.devices.config.CacheConfig;
+import com.example.devices.config.DevicesProperties;
+import com.example.devices.entity.Device;
+import com.example.devices.mapper.DeviceMapper;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.repository.DeviceRepo;
+import com.example.devices.service.impl.DeviceCache;
+import com.example.devices.service.impl.DeviceSearchIndex;
+import com.example.devices.service.impl.DeviceServiceImpl;
+import com.example.devices.service.impl.DeviceStats;
+import com.example.devices.support.DeviceUuidFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/** Shared fixtures for the JMH suites. */
+final class BenchFixtures {
+
+  private BenchFixtures() {}
+
+  static Device device(DeviceState state) {
+    return Device.builder()
+        .id(42L)
+        .uuid(UUID.randomUUID())
+        .name("iPhone 15 Pro")
+        .brand("Apple")
+        .state(state)
+        .creationTime(LocalDateTime.of(2024, 7, 22, 10, 30))
+        .build();
+  }
+
+  /** Same builder Spring Boot uses for its auto-configured {@link ObjectMapper}. */
+  static ObjectMapper objectMapper() {
+    return Jackson2ObjectMapperBuilder.json().build();
+  }
+
+  /** A service wired with {@code deviceRepo}; collaborators unused by single-device calls are null. */
+  static DeviceServiceImpl deviceService(DeviceRepo deviceRepo, ObjectMapper objectMapper) {
+    return new DeviceServiceImpl(
+        deviceRepo,
+        DeviceMapper.INSTANCE,
+        objectMapper,
+        null,
+        null,
+        new DeviceCache(new CaffeineCacheManager(CacheConfig.DEVICES_CACHE)),
+        new DeviceSearchIndex(),
+        new DeviceStats(),
+        uuidFilter(),
+        event -> {});
+  }
+
+  /** A filter that was never built, so every uuid still goes to the repository. */
+  static DeviceUuidFilter uuidFilter() {
+    DevicesProperties properties =
+        new DevicesProperties(
+            null, null, null, null, null, null, null, null, null, null,
+            new DevicesProperties.UuidFilter(1_000_000, 0.01, Duration.ofHours(1)), null);
+    return new DeviceUuidFilter(properties, new SimpleMeterRegistry());
+  }
+
+  /**
+   * A {@link DeviceRepo} that always resolves to {@code device} and echoes saves back, so the
+   * benchmarks measure our code instead of a mocking framework.
+   */
+  static DeviceRepo stubRepo(Device device) {
+    return (DeviceRepo)
+        Proxy.newProxyInstance(
+            DeviceRepo.class.getClassLoader(),
+            new Class<?>[] {DeviceRepo.class},
+            (proxy, method, args) ->
+                switch (method.getName()) {
+                  case "findDeviceByUuid" -> Optional.of(device);
+                  case "save" -> args[0];
+                  case "flush" -> null;
+                  case "hashCode" -> System.identityHashCode(proxy);
+                  case "equals" -> proxy == args[0];
+                  case "toString" -> "StubDeviceRepo";
+                  default -> throw new UnsupportedOperationException(method.getName());
+                });
+  }
+
+  /** Starts the application on the test profile's in-memory H2 database, without a web server. */
+  static ConfigurableApplicationContext startTestApplication() {
+    return new SpringApplicationBuilder(DevicesApiApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(
+            "--spring.profiles.active=test",
+            "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_ON_EXIT=FALSE",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example=WARN");
+  }
+
+  /**
+   * Without Spring Boot, logback falls back to its default configuration, which prints DEBUG to the
+   * console, and the service logs at DEBUG on every call; keep the console out of the measurements.
+   */
+  static void quietLogging() {
+    ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.devices.bench;
+
+import com.example.devices.config.CacheConfig;
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.service.DeviceService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Resolves {@code DEVICES} uuids with a cold device cache against the in-memory H2 database of the
+ * test profile:
+ *
+ * <ul>
+ *   <li>{@code INDIVIDUAL}: one {@code getDeviceByUuid} per uuid, as a client calling {@code GET
+ *       /{uuid}} for each does;
+ *   <li>{@code BATCH}: one {@code getDevicesByUuids}, behind {@code POST /batch-get}.
+ * </ul>
+ *
+ * H2 runs in process, so this only counts the per-query cost on our side of the driver; against a
+ * remote database every query also pays a network round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceBatchGetBenchmark {
+
+  private static final int DEVICES = 1000;
+
+  @Param({"INDIVIDUAL", "BATCH"})
+  public String lookup;
+
+  private ConfigurableApplicationContext context;
+  private DeviceService deviceService;
+  private Cache cache;
+  private List<UUID> uuids;
+
+  @Setup
+  public void setUp() {
+    context = BenchFixtures.startTestApplication();
+    deviceService = context.getBean(DeviceService.class);
+    cache = context.getBean(CacheManager.class).getCache(CacheConfig.DEVICES_CACHE);
+    List<CreateDeviceDTO> devices = new ArrayList<>(DEVICES);
+    for (int i = 0; i < DEVICES; i++) {
+      devices.add(new CreateDeviceDTO("Device " + i, "Brand " + (i % 20), "AVAILABLE"));
+    }
+    uuids = new ArrayList<>(DEVICES);
+    deviceService.createDevices(devices).items().forEach(item -> uuids.add(UUID.fromString(item.uuid())));
+  }
+
+  @Setup(Level.Invocation)
+  public void clearCache() {
+    cache.clear();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int resolve() {
+    if ("BATCH".equals(lookup)) {
+      return deviceService.getDevicesByUuids(uuids).devices().size();
+    }
+    int found = 0;
+    for (UUID uuid : uuids) {
+      DeviceDTO device = deviceService.getDeviceByUuid(uuid);
+      found += device != null ? 1 : 0;
+    }
+    return found;
+  }
+}
@@ -0,0 +1,71 @@
+package com.example.devices.bench;
+
+import com.example.devices.dto.BulkCreateResultDTO;
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.service.DeviceService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Per-device cost of {@code createDevice} called in a loop versus one {@code createDevices} call,
+ * against the in-memory H2 database of the test profile. Network round trips to MySQL widen the gap
+ * further, since the loop pays one per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceBulkCreateBenchmark {
+
+  private static final int DEVICES = 1000;
+
+  private ConfigurableApplicationContext context;
+  private DeviceService deviceService;
+  private List<CreateDeviceDTO> devices;
+
+  @Setup
+  public void setUp() {
+    context = BenchFixtures.startTestApplication();
+    deviceService = context.getBean(DeviceService.class);
+    devices = new ArrayList<>(DEVICES);
+    for (int i = 0; i < DEVICES; i++) {
+      devices.add(new CreateDeviceDTO("Device " + i, "Brand " + (i % 20), "AVAILABLE"));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DEVICES)
+  public void singleItem(Blackhole blackhole) {
+    for (CreateDeviceDTO device : devices) {
+      blackhole.consume(deviceService.createDevice(device));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DEVICES)
+  public BulkCreateResultDTO bulk() {
+    return deviceService.createDevices(devices);
+  }
+}
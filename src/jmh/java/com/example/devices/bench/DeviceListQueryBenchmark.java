@@ -0,0 +1,110 @@
+package com.example.devices.bench;
+
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.mapper.DeviceMapper;
+import com.example.devices.repository.DeviceRepo;
+import com.example.devices.service.DeviceService;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One keyset page of {@code PAGE_SIZE} devices turned into {@link DeviceDTO}s, against the in-memory
+ * H2 database of the test profile, so the difference is what happens on our side of the driver:
+ *
+ * <ul>
+ *   <li>{@code ENTITY}: managed {@code Device}s in a read-write session, as the list endpoints used to
+ *       load them, with a dirty-checking snapshot per row and a flush check at commit.
+ *   <li>{@code ENTITY_READ_ONLY}: the same entities in a read-only transaction, which drops the
+ *       snapshots but still registers every row in the persistence context.
+ *   <li>{@code ROW}: the {@code DeviceRowDTO} projection the list endpoints use now.
+ * </ul>
+ *
+ * Read {@code gc.alloc.rate.norm} (bytes per page) next to the time per page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceListQueryBenchmark {
+
+  private static final int PAGE_SIZE = 1000;
+
+  @Param({"ENTITY", "ENTITY_READ_ONLY", "ROW"})
+  public String read;
+
+  private ConfigurableApplicationContext context;
+  private DeviceRepo deviceRepo;
+  private EntityManager entityManager;
+  private TransactionTemplate readWrite;
+  private TransactionTemplate readOnly;
+
+  @Setup
+  public void setUp() {
+    context = BenchFixtures.startTestApplication();
+    deviceRepo = context.getBean(DeviceRepo.class);
+    // The shared, transaction-bound proxy: each call joins the template's transaction.
+    entityManager = context.getBean(EntityManager.class);
+    PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    List<CreateDeviceDTO> devices = new ArrayList<>(PAGE_SIZE);
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      devices.add(new CreateDeviceDTO("Device " + i, "Brand " + (i % 20), "AVAILABLE"));
+    }
+    context.getBean(DeviceService.class).createDevices(devices);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<DeviceDTO> page() {
+    return switch (read) {
+      case "ENTITY" -> readWrite.execute(status -> entities());
+      case "ENTITY_READ_ONLY" -> readOnly.execute(status -> entities());
+      case "ROW" ->
+          readOnly.execute(
+              status ->
+                  deviceRepo.findRowsAfter(0L, Limit.of(PAGE_SIZE)).stream()
+                      .map(DeviceMapper.INSTANCE::toDto)
+                      .toList());
+      default -> throw new IllegalStateException(read);
+    };
+  }
+
+  /** The keyset query the list endpoints ran before they moved to rows; no repository method left. */
+  private List<DeviceDTO> entities() {
+    return entityManager
+        .createQuery("select d from Device d where d.id > :id order by d.id", Device.class)
+        .setParameter("id", 0L)
+        .setMaxResults(PAGE_SIZE)
+        .getResultStream()
+        .map(DeviceMapper.INSTANCE::toDto)
+        .toList();
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.devices.bench;
+
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.mapper.DeviceMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceMapperBenchmark {
+
+  private final DeviceMapper deviceMapper = DeviceMapper.INSTANCE;
+  private Device device;
+
+  @Setup
+  public void setUp() {
+    device = BenchFixtures.device(DeviceState.AVAILABLE);
+  }
+
+  @Benchmark
+  public DeviceDTO toDto() {
+    return deviceMapper.toDto(device);
+  }
+}
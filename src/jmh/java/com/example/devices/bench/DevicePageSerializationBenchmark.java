@@ -0,0 +1,55 @@
+package com.example.devices.bench;
+
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.mapper.DeviceMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+/** Jackson serialization of the {@code Page<DeviceDTO>} returned by the list endpoints. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DevicePageSerializationBenchmark {
+
+  @Param({"20", "100", "1000"})
+  public int pageSize;
+
+  private ObjectMapper objectMapper;
+  private Page<DeviceDTO> page;
+
+  @Setup
+  public void setUp() {
+    objectMapper = BenchFixtures.objectMapper();
+    List<DeviceDTO> content = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      content.add(DeviceMapper.INSTANCE.toDto(BenchFixtures.device(DeviceState.AVAILABLE)));
+    }
+    page = new PageImpl<>(content, PageRequest.of(3, pageSize), 1_000_000L);
+  }
+
+  @Benchmark
+  public byte[] writePage() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(page);
+  }
+}
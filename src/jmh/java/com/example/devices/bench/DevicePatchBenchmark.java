@@ -0,0 +1,65 @@
+package com.example.devices.bench;
+
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.service.impl.DeviceServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DeviceServiceImpl#patchDevice}: {@code replaceName} takes the in-place fast path, {@code
+ * testAndReplaceName} needs the generic engine and its entity -> JsonNode -> entity round trip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DevicePatchBenchmark {
+
+  private DeviceServiceImpl deviceService;
+  private UUID uuid;
+  private JsonNode replaceName;
+  private JsonNode testAndReplaceName;
+
+  @Setup
+  public void setUp() throws IOException {
+    BenchFixtures.quietLogging();
+    Device device = BenchFixtures.device(DeviceState.AVAILABLE);
+    ObjectMapper objectMapper = BenchFixtures.objectMapper();
+    deviceService = BenchFixtures.deviceService(BenchFixtures.stubRepo(device), objectMapper);
+    uuid = device.getUuid();
+    replaceName =
+        objectMapper.readTree(
+            "[{ \"op\": \"replace\", \"path\": \"/name\", \"value\": \"Patched Device Name\" }]");
+    testAndReplaceName =
+        objectMapper.readTree(
+            "[{ \"op\": \"test\", \"path\": \"/brand\", \"value\": \"Apple\" },"
+                + " { \"op\": \"replace\", \"path\": \"/name\", \"value\": \"Patched Device Name\" }]");
+  }
+
+  @Benchmark
+  public DeviceDTO replaceName() {
+    return deviceService.patchDevice(uuid, replaceName, null);
+  }
+
+  @Benchmark
+  public DeviceDTO testAndReplaceName() {
+    return deviceService.patchDevice(uuid, testAndReplaceName, null);
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.devices.bench;
+
+import com.example.devices.dto.DeviceSearchHitDTO;
+import com.example.devices.service.impl.DeviceSearchIndex;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of one {@code DeviceSearchIndex} lookup over {@code devices} synthetic devices: 40
+ * brands, 60 model words and model numbers up to 999. The queries go from selective ({@code
+ * "pixel 731"}, a few hundred candidates) to broad ({@code "pro"}, matched by every device with a
+ * "pro" word, all of which are scored). Broad queries are the ones to watch as the index grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class DeviceSearchBenchmark {
+
+  private static final String[] BRANDS = new String[40];
+  private static final String[] WORDS = {
+    "iPhone", "Galaxy", "Pixel", "ThinkPad", "MacBook", "Surface", "Xperia", "Zenbook", "Kindle",
+    "Watch", "Tab", "Note", "Book", "Router", "Switch", "Camera", "Sensor", "Speaker", "Display",
+    "Dock", "Hub", "Drive", "Phone", "Tablet", "Laptop", "Monitor", "Printer", "Scanner", "Headset",
+    "Keyboard", "Mouse", "Controller", "Console", "Projector", "Gateway", "Beacon", "Tracker",
+    "Reader", "Terminal", "Station", "Pad", "Stick", "Box", "Cam", "Band", "Ring", "Buds", "Air",
+    "Max", "Mini", "Ultra", "Lite", "Plus", "Edge", "Fold", "Flip", "Neo", "One", "Go", "Pro"
+  };
+
+  @Param({"1000000"})
+  public int devices;
+
+  @Param({"pixel 731", "iphone pro", "pro"})
+  public String query;
+
+  private DeviceSearchIndex index;
+
+  static {
+    for (int i = 0; i < BRANDS.length; i++) {
+      BRANDS[i] = "Brand" + (char) ('A' + i % 26) + i;
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    index = new DeviceSearchIndex();
+    Random random = new Random(42);
+    for (int i = 0; i < devices; i++) {
+      String name =
+          WORDS[random.nextInt(WORDS.length)] + " " + (1 + random.nextInt(999)) + " " + WORDS[random.nextInt(WORDS.length)];
+      index.upsert(new UUID(random.nextLong(), random.nextLong()), name, BRANDS[random.nextInt(BRANDS.length)], 0L);
+    }
+  }
+
+  @Benchmark
+  public List<DeviceSearchHitDTO> search() {
+    return index.search(query, 20);
+  }
+}
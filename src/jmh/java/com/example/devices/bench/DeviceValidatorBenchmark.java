@@ -0,0 +1,62 @@
+package com.example.devices.bench;
+
+import com.example.devices.dto.UpdateDeviceDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.repository.DeviceRepo;
+import com.example.devices.validator.DeviceExistsValidator;
+import com.example.devices.validator.NameAndBrandNotUpdatableIfInUseValidator;
+import com.example.devices.validator.NotDeleteIfInUseValidator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The three custom constraints with the repository stubbed out, i.e. their CPU-side cost only. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceValidatorBenchmark {
+
+  private DeviceExistsValidator deviceExistsValidator;
+  private NotDeleteIfInUseValidator notDeleteIfInUseValidator;
+  private NameAndBrandNotUpdatableIfInUseValidator nameAndBrandValidator;
+  private String uuid;
+  private UpdateDeviceDTO update;
+
+  @Setup
+  public void setUp() {
+    Device device = BenchFixtures.device(DeviceState.IN_USE);
+    DeviceRepo deviceRepo = BenchFixtures.stubRepo(device);
+    deviceExistsValidator = new DeviceExistsValidator(deviceRepo, BenchFixtures.uuidFilter());
+    notDeleteIfInUseValidator = new NotDeleteIfInUseValidator(deviceRepo);
+    nameAndBrandValidator = new NameAndBrandNotUpdatableIfInUseValidator(deviceRepo);
+    uuid = device.getUuid().toString();
+    update = new UpdateDeviceDTO(uuid, device.getName(), device.getBrand(), "IN_USE");
+  }
+
+  @Benchmark
+  public boolean deviceExists() {
+    return deviceExistsValidator.isValid(uuid, null);
+  }
+
+  @Benchmark
+  public boolean notDeleteIfInUse() {
+    return notDeleteIfInUseValidator.isValid(uuid, null);
+  }
+
+  @Benchmark
+  public boolean nameAndBrandNotUpdatableIfInUse() {
+    return nameAndBrandValidator.isValid(update, null);
+  }
+}
@@ -0,0 +1,188 @@
+package com.example.devices.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load against a running instance, for comparing platform and virtual threads at
+ * 1k-10k concurrent clients. Not a JMH benchmark: JMH measures code in-process, while this has to
+ * measure the whole server, connection pool and database included.
+ *
+ * <p>Each client is a virtual thread that sends one request, waits for the answer and sends the
+ * next. Reads list a brand with keyset pagination and writes create a device, so both go to the
+ * database. Start the application against MySQL once with {@code DEVICES_VIRTUAL_THREADS=false} and
+ * once with {@code true}, and run after {@code mvn -Pbench -DskipTests test-compile}:
+ *
+ * <pre>
+ * java -cp target/test-classes com.example.devices.bench.HttpLoadGenerator \
+ *   --url=http://localhost:8080 --clients=1000,2500,5000,10000 --duration=60 --warmup=15
+ * </pre>
+ *
+ * The client machine needs {@code ulimit -n} above the largest client count. Closed-loop load
+ * under-reports latency once the server saturates (clients slow down with it), so compare p99 at
+ * equal client counts rather than reading it as an absolute figure.
+ */
+public final class HttpLoadGenerator {
+
+  private static final String BRAND = "Load";
+
+  private final HttpClient client;
+  private final URI devices;
+  private final URI brandPage;
+  private final double writeRatio;
+
+  private HttpLoadGenerator(String url, double writeRatio) {
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    this.devices = URI.create(url + "/api/v1/devices");
+    this.brandPage = URI.create(url + "/api/v1/devices/brand/" + BRAND + "?limit=20");
+    this.writeRatio = writeRatio;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      String[] option = arg.replaceFirst("^--", "").split("=", 2);
+      options.put(option[0], option.length > 1 ? option[1] : "true");
+    }
+    HttpLoadGenerator generator =
+        new HttpLoadGenerator(
+            options.getOrDefault("url", "http://localhost:8080"),
+            Double.parseDouble(options.getOrDefault("write-ratio", "0.1")));
+    Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+    Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+
+    generator.seed(200);
+    System.out.printf("%8s %10s %10s %9s %9s %9s %9s%n", "clients", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+    for (String clients : options.getOrDefault("clients", "1000,2500,5000,10000").split(",")) {
+      Result result = generator.run(Integer.parseInt(clients.trim()), warmup, duration);
+      System.out.printf(
+          Locale.ROOT,
+          "%8d %10d %10d %9.0f %9.1f %9.1f %9.1f%n",
+          result.clients,
+          result.latenciesMicros.length,
+          result.errors,
+          result.latenciesMicros.length / (double) duration.toSeconds(),
+          result.percentile(0.50) / 1000.0,
+          result.percentile(0.99) / 1000.0,
+          result.percentile(1.0) / 1000.0);
+    }
+  }
+
+  /** Gives the reads a non-empty page to return. */
+  private void seed(int devicesToCreate) throws Exception {
+    for (int i = 0; i < devicesToCreate; i++) {
+      send(create());
+    }
+  }
+
+  private Result run(int clients, Duration warmup, Duration duration) throws Exception {
+    long measureFrom = System.nanoTime() + warmup.toNanos();
+    long measureUntil = measureFrom + duration.toNanos();
+    List<Future<Client>> running = new ArrayList<>(clients);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < clients; i++) {
+        running.add(executor.submit(() -> loop(measureFrom, measureUntil)));
+      }
+    }
+    long errors = 0;
+    int total = 0;
+    List<Client> finished = new ArrayList<>(clients);
+    for (Future<Client> future : running) {
+      Client client = future.get();
+      finished.add(client);
+      errors += client.errors;
+      total += client.count;
+    }
+    int[] latencies = new int[total];
+    int offset = 0;
+    for (Client client : finished) {
+      System.arraycopy(client.latenciesMicros, 0, latencies, offset, client.count);
+      offset += client.count;
+    }
+    Arrays.sort(latencies);
+    return new Result(clients, latencies, errors);
+  }
+
+  private Client loop(long measureFrom, long measureUntil) {
+    Client client = new Client();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long now;
+    while ((now = System.nanoTime()) < measureUntil) {
+      HttpRequest request = random.nextDouble() < writeRatio ? create() : read();
+      boolean ok;
+      try {
+        ok = send(request) / 100 == 2;
+      } catch (Exception e) {
+        ok = false;
+      }
+      long end = System.nanoTime();
+      if (now >= measureFrom && end <= measureUntil) {
+        client.record((end - now) / 1000, ok);
+      }
+    }
+    return client;
+  }
+
+  private int send(HttpRequest request) throws Exception {
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  private HttpRequest create() {
+    String body =
+        "{\"name\":\"Load " + ThreadLocalRandom.current().nextInt() + "\",\"brand\":\"" + BRAND + "\"}";
+    return HttpRequest.newBuilder(devices)
+        .timeout(Duration.ofSeconds(30))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private HttpRequest read() {
+    return HttpRequest.newBuilder(brandPage).timeout(Duration.ofSeconds(30)).GET().build();
+  }
+
+  /** Latencies of one client; errors (non-2xx, including 503 from the bulkhead) are timed too. */
+  private static final class Client {
+    private int[] latenciesMicros = new int[1024];
+    private int count;
+    private long errors;
+
+    void record(long micros, boolean ok) {
+      if (count == latenciesMicros.length) {
+        latenciesMicros = Arrays.copyOf(latenciesMicros, count * 2);
+      }
+      latenciesMicros[count++] = (int) Math.min(micros, Integer.MAX_VALUE);
+      if (!ok) {
+        errors++;
+      }
+    }
+  }
+
+  private record Result(int clients, int[] latenciesMicros, long errors) {
+    double percentile(double quantile) {
+      if (latenciesMicros.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(quantile * latenciesMicros.length) - 1;
+      return latenciesMicros[Math.max(0, Math.min(index, latenciesMicros.length - 1))];
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.example.devices.bench;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.mapper.DeviceMapper;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+/**
+ * Logging cost of one request as seen by the request thread, with the prod encoder writing to
+ * {@code /dev/null} from several threads at once.
+ *
+ * <ul>
+ *   <li>{@code PER_LAYER}: the four INFO lines, with DTO {@code toString()}s, that the controller and
+ *       service used to write per request.
+ *   <li>{@code SUMMARY}: the single line written by {@code RequestLoggingFilter} in {@code ALL} mode.
+ *   <li>{@code SAMPLED}: the same line for 1% of requests, as in prod.
+ * </ul>
+ *
+ * With the {@code ASYNC} appender a full queue drops events instead of waiting, so at saturation
+ * its throughput is bought with lost lines. Compare it to {@code SYNC} at the same line count to
+ * see what the hand-off saves, and compare line counts to see what logging less saves.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RequestLoggingBenchmark {
+
+  @Param({"SYNC", "ASYNC"})
+  public String appender;
+
+  @Param({"PER_LAYER", "SUMMARY", "SAMPLED"})
+  public String lines;
+
+  private LoggerContext context;
+  private Logger log;
+  private CreateDeviceDTO request;
+  private DeviceDTO device;
+
+  @Setup
+  public void setUp() throws FileNotFoundException {
+    context = new LoggerContext();
+    context.setMDCAdapter(MDC.getMDCAdapter());
+    LogstashEncoder encoder = new LogstashEncoder();
+    encoder.setContext(context);
+    encoder.start();
+    OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+    console.setContext(context);
+    console.setEncoder(encoder);
+    console.setOutputStream(devNull());
+    console.start();
+    log = context.getLogger("com.example.devices.bench");
+    log.setLevel(Level.INFO);
+    log.setAdditive(false);
+    log.addAppender("ASYNC".equals(appender) ? async(console) : console);
+
+    request = new CreateDeviceDTO("iPhone 15 Pro", "Apple", "AVAILABLE");
+    device = DeviceMapper.INSTANCE.toDto(BenchFixtures.device(DeviceState.AVAILABLE));
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.stop();
+  }
+
+  @State(Scope.Thread)
+  public static class RequestContext {
+    @Setup
+    public void setUp() {
+      MDC.put("requestId", Long.toHexString(ThreadLocalRandom.current().nextLong()));
+    }
+  }
+
+  @Benchmark
+  public void request(RequestContext requestContext) {
+    switch (lines) {
+      case "PER_LAYER" -> {
+        log.info("Request to create device: {}", request);
+        log.info("Device created successfully with UUID: {}", device.uuid());
+        log.info("Device created: {}", device);
+        log.info("Found {} devices", 1);
+      }
+      case "SUMMARY" -> summary();
+      case "SAMPLED" -> {
+        if (ThreadLocalRandom.current().nextDouble() < 0.01) {
+          summary();
+        }
+      }
+      default -> throw new IllegalStateException(lines);
+    }
+  }
+
+  private void summary() {
+    log.info(
+        "{} {} {} {}",
+        kv("method", "POST"),
+        kv("uri", "/api/v1/devices"),
+        kv("status", 201),
+        kv("durationMs", 3));
+  }
+
+  /** The prod settings from {@code logback-spring.xml}. */
+  private Appender<ILoggingEvent> async(Appender<ILoggingEvent> target) {
+    AsyncAppender async = new AsyncAppender();
+    async.setContext(context);
+    async.setQueueSize(8192);
+    async.setDiscardingThreshold(1638);
+    async.setNeverBlock(true);
+    async.setIncludeCallerData(false);
+    async.addAppender(target);
+    async.start();
+    return async;
+  }
+
+  private static OutputStream devNull() throws FileNotFoundException {
+    return System.getProperty("os.name").startsWith("Windows")
+        ? OutputStream.nullOutputStream()
+        : new FileOutputStream("/dev/null");
+  }
+}
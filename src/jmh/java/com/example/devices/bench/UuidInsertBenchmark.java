@@ -0,0 +1,125 @@
+package com.example.devices.bench;
+
+import com.example.devices.support.UuidV7;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert throughput into a {@code BINARY(16)} unique index that already holds {@code rows} keys, for
+ * random (v4) versus time-ordered (v7) UUIDs. Mirrors the {@code devices} table: an auto-increment
+ * primary key plus the unique {@code uuid} index.
+ *
+ * <p>The effect only shows once the index outgrows the buffer pool, so point {@code jdbcUrl} at a
+ * real MySQL instance and keep the default 10M preload, e.g.:
+ *
+ * <pre>
+ * mvn -Pbench -DskipTests verify -Djmh.includes=UuidInsertBenchmark \
+ *   -Djmh.args="-p jdbcUrl=jdbc:mysql://localhost:3306/devices?rewriteBatchedStatements=true -p user=prod_user -p password=prod_secret"
+ * </pre>
+ *
+ * The default in-memory H2 URL only checks that the benchmark runs; use {@code -p rows=100000} with it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidInsertBenchmark {
+
+  private static final int BATCH = 1000;
+
+  @Param({"V4", "V7"})
+  public String scheme;
+
+  @Param("10000000")
+  public long rows;
+
+  @Param("jdbc:h2:mem:uuid-bench;DB_CLOSE_DELAY=-1")
+  public String jdbcUrl;
+
+  @Param("sa")
+  public String user;
+
+  @Param("")
+  public String password;
+
+  private Connection connection;
+  private PreparedStatement insert;
+  private Supplier<UUID> generator;
+  private String table;
+  private long sequence;
+
+  @Setup
+  public void setUp() throws SQLException {
+    generator = "V7".equals(scheme) ? UuidV7::next : UUID::randomUUID;
+    table = "uuid_bench_" + scheme.toLowerCase();
+    connection = DriverManager.getConnection(jdbcUrl, user, password);
+    connection.setAutoCommit(false);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists " + table);
+      statement.execute(
+          "create table " + table + " (id bigint auto_increment primary key,"
+              + " uuid binary(16) not null, name varchar(64),"
+              + " constraint uk_" + table + " unique (uuid))");
+    }
+    connection.commit();
+    insert = connection.prepareStatement("insert into " + table + " (uuid, name) values (?, ?)");
+    for (long loaded = 0; loaded < rows; loaded += BATCH) {
+      insertBatch();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists " + table);
+    }
+    connection.commit();
+    connection.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void insert() throws SQLException {
+    insertBatch();
+  }
+
+  private void insertBatch() throws SQLException {
+    for (int i = 0; i < BATCH; i++) {
+      insert.setBytes(1, toBytes(generator.get()));
+      insert.setString(2, "Device " + sequence++);
+      insert.addBatch();
+    }
+    insert.executeBatch();
+    connection.commit();
+  }
+
+  /** Same byte order Hibernate binds for the {@code BINARY(16)} column. */
+  private static byte[] toBytes(UUID uuid) {
+    return ByteBuffer.allocate(16)
+        .putLong(uuid.getMostSignificantBits())
+        .putLong(uuid.getLeastSignificantBits())
+        .array();
+  }
+}
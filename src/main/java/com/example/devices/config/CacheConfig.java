@@ -0,0 +1,27 @@
+package com.example.devices.config;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+  /** {@code DeviceDTO}s keyed by device UUID. */
+  public static final String DEVICES_CACHE = "devices";
+
+  /**
+   * Caffeine (W-TinyLFU admission, size and time bound). {@code DeviceCache} is its only user: it
+   * works on the native cache and defers writes to commit itself, so there are no caching
+   * annotations to enable and no transaction-aware proxy. The manager is still a bean so that the
+   * {@code cache.*} meters are bound to the cache.
+   */
+  @Bean
+  public CacheManager cacheManager(DevicesProperties properties) {
+    CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(DEVICES_CACHE);
+    caffeineCacheManager.setCacheSpecification(properties.cache().spec());
+    caffeineCacheManager.setAllowNullValues(false);
+    return caffeineCacheManager;
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.devices.config;
+
+import com.example.devices.datasource.ReadWriteRoutingDataSource;
+import com.example.devices.filter.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Primary plus read replicas, active once {@code devices.datasource.replicas} lists at least one.
+ * Replaces Boot's single pool: each database gets a Hikari pool with the {@code
+ * spring.datasource.hikari} settings, named {@code devices-primary} and {@code devices-replica-N} in
+ * the {@code hikaricp.*} metrics.
+ */
+@Configuration
+@ConditionalOnProperty("devices.datasource.replicas[0].url")
+public class DataSourceConfig {
+
+  @Bean(defaultCandidate = false)
+  public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+      DataSourceProperties primary,
+      DevicesProperties properties,
+      Environment environment,
+      MeterRegistry meterRegistry) {
+    HikariDataSource primaryPool =
+        pool("devices-primary", primary.determineUrl(), primary.determineUsername(),
+            primary.determinePassword(), primary, environment, meterRegistry);
+    List<DataSource> replicaPools = new ArrayList<>();
+    List<DevicesProperties.Datasource.Replica> replicas = properties.datasource().replicas();
+    for (int i = 0; i < replicas.size(); i++) {
+      DevicesProperties.Datasource.Replica replica = replicas.get(i);
+      replicaPools.add(
+          pool("devices-replica-" + i, replica.url(), replica.username(), replica.password(),
+              primary, environment, meterRegistry));
+    }
+    return new ReadWriteRoutingDataSource(primaryPool, replicaPools);
+  }
+
+  /** What JPA and JDBC see; defers the routing decision to the first statement. */
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("readWriteRoutingDataSource") ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+  }
+
+  /** Inside request logging and the bulkhead; without replicas there is nothing to pin. */
+  @Bean
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(DevicesProperties properties) {
+    FilterRegistrationBean<ReadYourWritesFilter> registration =
+        new FilterRegistrationBean<>(
+            new ReadYourWritesFilter(properties.datasource().readYourWritesWindow()));
+    registration.addUrlPatterns("/api/*");
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+    return registration;
+  }
+
+  private static HikariDataSource pool(
+      String name,
+      String url,
+      String username,
+      String password,
+      DataSourceProperties primary,
+      Environment environment,
+      MeterRegistry meterRegistry) {
+    HikariDataSource pool = new HikariDataSource();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+    pool.setPoolName(name);
+    pool.setJdbcUrl(url);
+    pool.setUsername(username);
+    pool.setPassword(password);
+    pool.setDriverClassName(primary.determineDriverClassName());
+    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    return pool;
+  }
+}
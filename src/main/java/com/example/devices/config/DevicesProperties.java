@@ -0,0 +1,149 @@
+package com.example.devices.config;
+
+import com.example.devices.enumerate.RequestLogMode;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/** Tuning knobs under the {@code devices.*} prefix. */
+@ConfigurationProperties(prefix = "devices")
+public record DevicesProperties(
+    @DefaultValue Bulk bulk,
+    @DefaultValue BatchGet batchGet,
+    @DefaultValue Imports imports,
+    @DefaultValue Cache cache,
+    @DefaultValue Concurrency concurrency,
+    @DefaultValue Requests requests,
+    @DefaultValue RequestLog requestLog,
+    @DefaultValue Datasource datasource,
+    @DefaultValue Stats stats,
+    @DefaultValue Leases leases,
+    @DefaultValue UuidFilter uuidFilter,
+    @DefaultValue Search search) {
+
+  /**
+   * @param batchSize rows written per multi-row INSERT
+   * @param maxItems largest number of devices accepted by a single bulk request
+   */
+  public record Bulk(@DefaultValue("500") int batchSize, @DefaultValue("50000") int maxItems) {}
+
+  /**
+   * @param chunkSize uuids looked up per {@code IN} query
+   * @param maxItems largest number of uuids accepted by a single batch lookup
+   */
+  public record BatchGet(@DefaultValue("500") int chunkSize, @DefaultValue("5000") int maxItems) {}
+
+  /**
+   * Streaming import. At most {@code (parallelism + 1) * chunkSize} parsed records are held in
+   * memory at once: one chunk being filled plus one per writer.
+   *
+   * @param chunkSize records committed per transaction
+   * @param parallelism chunks written concurrently; reading the body pauses while all are busy
+   * @param maxReportedErrors rejected records listed in the report; the rest are only counted
+   */
+  public record Imports(
+      @DefaultValue("5000") int chunkSize,
+      @DefaultValue("4") int parallelism,
+      @DefaultValue("100") int maxReportedErrors) {}
+
+  /**
+   * @param spec Caffeine specification of the device cache; {@code recordStats} feeds the {@code
+   *     cache.*} metrics
+   */
+  public record Cache(
+      @DefaultValue("maximumSize=10000,expireAfterWrite=10m,recordStats") String spec) {}
+
+  /**
+   * @param requireIfMatch reject PUT and PATCH requests without an {@code If-Match} header with 428
+   *     instead of applying them unconditionally
+   */
+  public record Concurrency(@DefaultValue("false") boolean requireIfMatch) {}
+
+  /**
+   * Bulkhead in front of {@code /api/**}. With virtual threads Tomcat no longer caps the number of
+   * requests in flight, so this is what keeps a burst from queueing thousands of them on the
+   * connection pool.
+   *
+   * @param maxConcurrent requests handled at once; {@code 0} disables the limit
+   * @param queueTimeout how long a request waits for a slot before it is answered with 503
+   */
+  public record Requests(
+      @DefaultValue("200") int maxConcurrent, @DefaultValue("1s") Duration queueTimeout) {}
+
+  /**
+   * One summary line per API request, replacing the per-layer INFO lines.
+   *
+   * @param mode which requests are summarized
+   * @param sampleRate share of requests summarized in {@code SAMPLED} mode, between 0 and 1
+   * @param slowThreshold requests taking longer are summarized in {@code SAMPLED} and {@code ERRORS}
+   *     mode, at WARN
+   */
+  public record RequestLog(
+      @DefaultValue("ALL") RequestLogMode mode,
+      @DefaultValue("0.01") double sampleRate,
+      @DefaultValue("1s") Duration slowThreshold) {}
+
+  /**
+   * Read replicas. Read-only transactions are spread over them round-robin; everything else, and
+   * every read of a client that wrote within {@code readYourWritesWindow}, goes to {@code
+   * spring.datasource}. Without replicas all traffic stays on the primary.
+   *
+   * @param replicas JDBC settings of each replica; they share the {@code spring.datasource.hikari}
+   *     pool settings of the primary
+   * @param readYourWritesWindow how long after a write a client keeps reading from the primary; set
+   *     it above the replication lag you expect
+   */
+  public record Datasource(
+      @DefaultValue List<Replica> replicas,
+      @DefaultValue("5s") Duration readYourWritesWindow) {
+
+    public record Replica(String url, String username, String password) {}
+  }
+
+  /**
+   * In-memory device counts behind {@code /api/v1/devices/stats}.
+   *
+   * @param reconcileInterval how often the counts are recomputed from the database, which repairs
+   *     drift from writes made outside this instance
+   */
+  public record Stats(@DefaultValue("5m") Duration reconcileInterval) {}
+
+  /**
+   * Leases of checked out devices: a device nobody renews or checks in returns to AVAILABLE.
+   *
+   * @param ttl how long a checkout or renewal holds the device
+   * @param tick resolution of the in-memory expiry timer; a lease is released at most this late
+   * @param batchSize expired leases released per UPDATE
+   * @param sweepInterval how often overdue leases are also looked up in the database, which catches
+   *     the leases of other instances and of writes made outside the API
+   */
+  public record Leases(
+      @DefaultValue("30m") Duration ttl,
+      @DefaultValue("1s") Duration tick,
+      @DefaultValue("500") int batchSize,
+      @DefaultValue("1m") Duration sweepInterval) {}
+
+  /**
+   * Bloom filter of device uuids that answers lookups of unknown devices without a query.
+   *
+   * @param expectedDevices devices the filter is sized for at least; a rebuild sizes it for twice
+   *     the current count when that is more
+   * @param falsePositiveRate share of unknown uuids still looked up once the filter holds {@code
+   *     expectedDevices}
+   * @param rebuildInterval how often the filter is rebuilt from the database, which forgets deleted
+   *     devices
+   */
+  public record UuidFilter(
+      @DefaultValue("1000000") long expectedDevices,
+      @DefaultValue("0.01") double falsePositiveRate,
+      @DefaultValue("1h") Duration rebuildInterval) {}
+
+  /**
+   * In-memory index behind {@code /api/v1/devices/search}.
+   *
+   * @param rebuildInterval how often the index is rebuilt from the database, which picks up writes
+   *     made outside this instance
+   */
+  public record Search(@DefaultValue("1h") Duration rebuildInterval) {}
+}
@@ -0,0 +1,55 @@
+package com.example.devices.config;
+
+import com.example.devices.filter.RequestLoggingFilter;
+import java.util.Map;
+import org.slf4j.MDC;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class LoggingConfig {
+
+  /** Outermost API filter, so the summary also covers requests the bulkhead turns away. */
+  @Bean
+  public FilterRegistrationBean<RequestLoggingFilter> requestLoggingFilter(DevicesProperties properties) {
+    DevicesProperties.RequestLog requestLog = properties.requestLog();
+    FilterRegistrationBean<RequestLoggingFilter> registration =
+        new FilterRegistrationBean<>(
+            new RequestLoggingFilter(
+                requestLog.mode(), requestLog.sampleRate(), requestLog.slowThreshold()));
+    registration.addUrlPatterns("/api/*");
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return registration;
+  }
+
+  /**
+   * Carries the MDC (and so the request id) over to {@code @Async} tasks and MVC async work such as
+   * streamed exports. Boot applies it to the application task executor.
+   */
+  @Bean
+  public TaskDecorator mdcTaskDecorator() {
+    return task -> {
+      Map<String, String> context = MDC.getCopyOfContextMap();
+      return () -> {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        setContextMap(context);
+        try {
+          task.run();
+        } finally {
+          setContextMap(previous);
+        }
+      };
+    };
+  }
+
+  private static void setContextMap(Map<String, String> context) {
+    if (context == null) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(context);
+    }
+  }
+}
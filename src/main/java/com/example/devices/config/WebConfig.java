@@ -0,0 +1,41 @@
+package com.example.devices.config;
+
+import com.example.devices.filter.RequestBulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class WebConfig {
+
+  /**
+   * Runs right after request logging, so a rejected request costs nothing else but is still
+   * summarized. Only the API is limited; actuator probes must keep answering while the API sheds
+   * load. Rejections happen before the request is observed, so they are missing from {@code
+   * http.server.requests} and counted here instead.
+   */
+  @Bean
+  @ConditionalOnExpression("${devices.requests.max-concurrent:200} > 0")
+  public FilterRegistrationBean<RequestBulkheadFilter> requestBulkheadFilter(
+      DevicesProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    DevicesProperties.Requests requests = properties.requests();
+    RequestBulkheadFilter filter =
+        new RequestBulkheadFilter(requests.maxConcurrent(), requests.queueTimeout(), objectMapper);
+    Gauge.builder("devices.requests.in.flight", filter, RequestBulkheadFilter::inFlight)
+        .description("API requests holding a bulkhead slot")
+        .register(meterRegistry);
+    FunctionCounter.builder("devices.requests.rejected", filter, RequestBulkheadFilter::rejected)
+        .description("API requests answered with 503 because no slot freed up in time")
+        .register(meterRegistry);
+    FilterRegistrationBean<RequestBulkheadFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.addUrlPatterns("/api/*");
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+    return registration;
+  }
+}
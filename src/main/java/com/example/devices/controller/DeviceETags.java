@@ -0,0 +1,76 @@
+package com.example.devices.controller;
+
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DevicesWatermarkDTO;
+import com.example.devices.exception.DeviceVersionMismatchException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Strong ETags. A single device is tagged with its {@code @Version} (version 3 is sent as {@code
+ * "3"}); a list page with a hash of its query and either the watermark of the devices it is drawn
+ * from or the devices it holds.
+ */
+final class DeviceETags {
+
+  private DeviceETags() {}
+
+  static String of(Long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * Tag of one page of a filtered list. It changes whenever any device matching the filter is
+   * created, modified or deleted, and is the same for every replica answering the same query.
+   */
+  static String ofList(DevicesWatermarkDTO watermark, Object... query) {
+    return hash(query, watermark.count(), watermark.lastModified());
+  }
+
+  /**
+   * Tag of one page, from what it holds: the uuid and version of each device, and {@code
+   * position}, the total or next cursor that tells whether devices were added around it. It
+   * changes with the page content, which needs no query beyond the page.
+   */
+  static String ofPage(List<DeviceDTO> devices, Object position, Object... query) {
+    Object[] parts = new Object[devices.size() * 2 + 1];
+    int i = 0;
+    for (DeviceDTO device : devices) {
+      parts[i++] = device.uuid();
+      parts[i++] = device.version();
+    }
+    parts[i] = position;
+    return hash(query, parts);
+  }
+
+  private static String hash(Object[] query, Object... state) {
+    StringBuilder key = new StringBuilder();
+    for (Object part : query) {
+      key.append(part).append('|');
+    }
+    for (Object part : state) {
+      key.append(part).append('|');
+    }
+    return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+  }
+
+  /**
+   * The version named by an {@code If-Match} header, or {@code null} when the header is absent or
+   * {@code *}. If-Match uses strong comparison, so weak or unparseable tags can never match.
+   */
+  static Long parseIfMatch(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String tag = ifMatch.trim();
+    if (tag.length() > 2 && tag.charAt(0) == '"' && tag.charAt(tag.length() - 1) == '"') {
+      try {
+        return Long.parseLong(tag, 1, tag.length() - 1, 10);
+      } catch (NumberFormatException e) {
+        // fall through: not one of our tags
+      }
+    }
+    throw new DeviceVersionMismatchException("If-Match " + ifMatch + " does not match the current version");
+  }
+}
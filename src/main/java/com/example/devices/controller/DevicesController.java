@@ -1,27 +1,58 @@
 package com.example.devices.controller;
 
+import com.example.devices.config.DevicesProperties;
+import com.example.devices.dto.BatchGetResultDTO;
+import com.example.devices.dto.BulkCreateResultDTO;
 import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.CursorPageDTO;
 import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceSearchHitDTO;
+import com.example.devices.dto.DeviceStatsDTO;
+import com.example.devices.dto.DevicesWatermarkDTO;
+import com.example.devices.dto.ImportReportDTO;
 import com.example.devices.dto.UpdateDeviceDTO;
+import com.example.devices.enumerate.ImportFormat;
+import com.example.devices.exception.PreconditionRequiredException;
+import com.example.devices.service.DeviceImportService;
 import com.example.devices.service.DeviceService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.fge.jsonpatch.JsonPatch;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/devices")
@@ -29,10 +60,20 @@ import org.springframework.web.bind.annotation.*;
 public class DevicesController {
 
     private static final Logger log = LoggerFactory.getLogger(DevicesController.class);
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final DeviceService deviceService;
+    private final DeviceImportService deviceImportService;
+    private final ObjectMapper objectMapper;
+    private final DevicesProperties properties;
 
-    public DevicesController(DeviceService deviceService) {
+    public DevicesController(DeviceService deviceService, DeviceImportService deviceImportService,
+                             ObjectMapper objectMapper, DevicesProperties properties) {
         this.deviceService = deviceService;
+        this.deviceImportService = deviceImportService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
     }
 
     @Operation(summary = "Create a new device", description = "Creates a new device in the system.")
@@ -43,25 +84,72 @@ public class DevicesController {
     })
     @PostMapping
     public ResponseEntity<DeviceDTO> createDevice(@Valid @RequestBody CreateDeviceDTO createDeviceDTO) {
-        log.info("Request to create device: {}", createDeviceDTO);
+        log.debug("Request to create device: {}", createDeviceDTO);
         DeviceDTO createdDevice = deviceService.createDevice(createDeviceDTO);
-        log.info("Device created: {}", createdDevice);
+        log.debug("Device created: {}", createdDevice);
         return new ResponseEntity<>(createdDevice, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Update an existing device", description = "Updates all fields of an existing device.")
+    @Operation(summary = "Create many devices at once", description = "Creates every valid device of a JSON array with batched multi-row inserts. Invalid items are reported individually and do not fail the request. For NDJSON, or inventories too large to send in one array, use /import.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk request processed; see per-item results",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = BulkCreateResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed body or too many items", content = @Content)
+    })
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkCreateResultDTO> createDevices(@RequestBody List<CreateDeviceDTO> createDeviceDTOs) {
+        log.debug("Request to bulk create {} devices", createDeviceDTOs.size());
+        BulkCreateResultDTO result = deviceService.createDevices(createDeviceDTOs);
+        log.debug("Bulk created {} devices, rejected {}", result.created(), result.rejected());
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Import devices from NDJSON", description = "Streams the body one CreateDeviceDTO per line, validating each record and committing the valid ones chunk by chunk. Meant for inventories too large for /bulk: the body is never held in memory.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Whole body read; invalid records are listed in the report",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ImportReportDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Import stopped early, e.g. on a malformed line; chunks committed before it are kept",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ImportReportDTO.class)))
+    })
+    @PostMapping(path = "/import", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportReportDTO> importDevicesFromNdjson(InputStream body) {
+        return importDevices(body, ImportFormat.NDJSON);
+    }
+
+    @Operation(summary = "Import devices from CSV", description = "Same as the NDJSON variant for a CSV body whose header names the columns (name, brand and optionally state).")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Whole body read; invalid records are listed in the report",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ImportReportDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Import stopped early, e.g. on a malformed line; chunks committed before it are kept",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ImportReportDTO.class)))
+    })
+    @PostMapping(path = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ImportReportDTO> importDevicesFromCsv(InputStream body) {
+        return importDevices(body, ImportFormat.CSV);
+    }
+
+    private ResponseEntity<ImportReportDTO> importDevices(InputStream body, ImportFormat format) {
+        ImportReportDTO report = deviceImportService.importDevices(body, format);
+        return ResponseEntity.status(report.failure() == null ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(report);
+    }
+
+    @Operation(summary = "Update an existing device", description = "Updates all fields of an existing device. Send the ETag of the copy being edited in If-Match to avoid overwriting a concurrent change.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Device updated successfully", 
                      content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = DeviceDTO.class))),
         @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
-        @ApiResponse(responseCode = "404", description = "Device not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Device not found", content = @Content),
+        @ApiResponse(responseCode = "412", description = "The device changed since the If-Match version", content = @Content),
+        @ApiResponse(responseCode = "428", description = "If-Match is required but missing", content = @Content)
     })
     @PutMapping
-    public ResponseEntity<DeviceDTO> updateDevice(@Valid @RequestBody UpdateDeviceDTO updateDeviceDTO) {
-        log.info("Request to update device: {}", updateDeviceDTO);
-        DeviceDTO updatedDevice = deviceService.updateDevice(updateDeviceDTO);
-        log.info("Device updated: {}", updatedDevice);
-        return ResponseEntity.ok(updatedDevice);
+    public ResponseEntity<DeviceDTO> updateDevice(
+            @Parameter(description = "ETag of the device version being replaced") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateDeviceDTO updateDeviceDTO) {
+        log.debug("Request to update device: {}", updateDeviceDTO);
+        DeviceDTO updatedDevice = deviceService.updateDevice(updateDeviceDTO, expectedVersion(ifMatch));
+        log.debug("Device updated: {}", updatedDevice);
+        return withETag(updatedDevice);
     }
 
   @Operation(
@@ -80,7 +168,9 @@ public class DevicesController {
             responseCode = "400",
             description = "Malformed patch request",
             content = @Content),
-        @ApiResponse(responseCode = "404", description = "Device not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Device not found", content = @Content),
+        @ApiResponse(responseCode = "412", description = "The device changed since the If-Match version", content = @Content),
+        @ApiResponse(responseCode = "428", description = "If-Match is required but missing", content = @Content)
       })
 
   @PatchMapping(path = "/{uuid}", consumes = "application/json-patch+json")
@@ -91,11 +181,47 @@ public class DevicesController {
       @Parameter(description = "The JSON Patch to apply",
               example =
                       "{[{ \"op\": \"replace\", \"path\": \"/name\", \"value\": \"Patched Device Name\" }]}")
-      @RequestBody JsonPatch patch) {
-        log.info("Request to patch device with UUID: {}", uuid);
-        DeviceDTO patchedDevice = deviceService.patchDevice(uuid, patch);
-        log.info("Device patched: {}", patchedDevice);
-        return ResponseEntity.ok(patchedDevice);
+      @RequestBody @Schema(implementation = JsonPatch.class) JsonNode patch,
+      @Parameter(description = "ETag of the device version being patched")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch) {
+        log.debug("Request to patch device with UUID: {}", uuid);
+        DeviceDTO patchedDevice = deviceService.patchDevice(uuid, patch, expectedVersion(ifMatch));
+        log.debug("Device patched: {}", patchedDevice);
+        return withETag(patchedDevice);
+    }
+
+    @Operation(summary = "Export every device as NDJSON", description = "Streams the whole inventory, one DeviceDTO per line in id order, straight from a database cursor. Send 'Accept-Encoding: gzip' to receive it compressed.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Inventory streamed",
+                     content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = DeviceDTO.class)))
+    })
+    @GetMapping(path = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportDevices(
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("Request to export all devices");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        // Lines go through the generator's buffer; flushing after each one would send a chunk per row.
+        ObjectWriter lineWriter = objectMapper.writerFor(DeviceDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+                generator.setRootValueSeparator(null);
+                deviceService.exportDevices(device -> {
+                    try {
+                        lineWriter.writeValue(generator, device);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip").header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return response.body(body);
     }
 
     @Operation(summary = "Get a device by its UUID", description = "Retrieves a single device by its unique identifier.")
@@ -105,11 +231,35 @@ public class DevicesController {
         @ApiResponse(responseCode = "404", description = "Device not found", content = @Content)
     })
     @GetMapping("/{uuid}")
-    public ResponseEntity<DeviceDTO> getDeviceByUuid(@Parameter(description = "The UUID of the device") @PathVariable UUID uuid) {
-        log.info("Request to get device by UUID: {}", uuid);
+    public ResponseEntity<DeviceDTO> getDeviceByUuid(
+            @Parameter(description = "The UUID of the device") @PathVariable UUID uuid,
+            @Parameter(description = "ETag of the copy the client already has") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            WebRequest request) {
+        log.debug("Request to get device by UUID: {}", uuid);
+        if (ifNoneMatch != null) {
+            // Only the version is needed to answer 304: served from the cache or a one-column query.
+            Optional<Long> version = deviceService.getDeviceVersion(uuid);
+            if (version.isPresent() && request.checkNotModified(DeviceETags.of(version.get()))) {
+                return null;
+            }
+        }
         DeviceDTO device = deviceService.getDeviceByUuid(uuid);
-        log.info("Device found: {}", device);
-        return ResponseEntity.ok(device);
+        log.debug("Device found: {}", device);
+        return withETag(device);
+    }
+
+    @Operation(summary = "Get many devices by UUID", description = "Looks up a JSON array of UUIDs in one round trip: from the device cache where possible, and with a few IN queries otherwise. Duplicates are looked up once. UUIDs with no device are listed under 'missing' rather than failing the request.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup done; see 'missing' for UUIDs without a device",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = BatchGetResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed body, invalid UUID or too many UUIDs", content = @Content)
+    })
+    @PostMapping(path = "/batch-get", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchGetResultDTO> getDevicesByUuids(@RequestBody List<UUID> uuids) {
+        log.debug("Request to get {} devices by UUID", uuids.size());
+        BatchGetResultDTO result = deviceService.getDevicesByUuids(uuids);
+        log.debug("Found {} devices, {} missing", result.devices().size(), result.missing().size());
+        return ResponseEntity.ok(result);
     }
 
     @Operation(summary = "Get a paginated list of all devices", description = "Retrieves a paginated list of all devices. Supports sorting and pagination.")
@@ -118,11 +268,32 @@ public class DevicesController {
                      content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = Page.class)))
     })
     @GetMapping
-    public ResponseEntity<Page<DeviceDTO>> getAllDevices(@Parameter(hidden = true) Pageable pageable) {
-        log.info("Request to get all devices with pageable: {}", pageable);
-        Page<DeviceDTO> devices = deviceService.getAllDevices(pageable);
-        log.info("Found {} devices", devices.getTotalElements());
-        return ResponseEntity.ok(devices);
+    public ResponseEntity<Page<DeviceDTO>> getAllDevices(@Parameter(hidden = true) Pageable pageable, WebRequest request) {
+        log.debug("Request to get all devices with pageable: {}", pageable);
+        return listPage(request, deviceService::getDevicesWatermark, () -> {
+            Page<DeviceDTO> devices = deviceService.getAllDevices(pageable);
+            log.debug("Found {} devices", devices.getTotalElements());
+            return devices;
+        }, DevicesController::pageETag, pageable);
+    }
+
+    @Operation(summary = "Get a cursor-paginated list of all devices", description = "Keyset pagination: pass the 'nextCursor' of a slice as 'after' to fetch the following one. Latency does not grow with depth and no total count is computed.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Slice of devices retrieved successfully",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = CursorPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content)
+    })
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPageDTO<DeviceDTO>> getAllDevices(
+        @Parameter(description = "Opaque cursor returned as 'nextCursor' by the previous slice") @RequestParam(required = false) String after,
+        @Parameter(description = "Maximum number of devices to return (1-1000)") @RequestParam int limit,
+        WebRequest request) {
+        log.debug("Request to get all devices after cursor: {} with limit: {}", after, limit);
+        return listPage(request, deviceService::getDevicesWatermark, () -> {
+            CursorPageDTO<DeviceDTO> devices = deviceService.getAllDevices(after, limit);
+            log.debug("Found {} devices", devices.content().size());
+            return devices;
+        }, DevicesController::cursorPageETag, after, limit);
     }
 
     @Operation(summary = "Get a paginated list of devices by brand", description = "Retrieves a paginated list of devices filtered by a specific brand.")
@@ -133,11 +304,34 @@ public class DevicesController {
     @GetMapping("/brand/{brand}")
     public ResponseEntity<Page<DeviceDTO>> getDevicesByBrand(
         @Parameter(description = "The brand to filter by") @PathVariable String brand, 
-        @Parameter(hidden = true) Pageable pageable) {
-        log.info("Request to get devices by brand: {} with pageable: {}", brand, pageable);
-        Page<DeviceDTO> devices = deviceService.getDevicesByBrand(brand, pageable);
-        log.info("Found {} devices for brand {}", devices.getTotalElements(), brand);
-        return ResponseEntity.ok(devices);
+        @Parameter(hidden = true) Pageable pageable,
+        WebRequest request) {
+        log.debug("Request to get devices by brand: {} with pageable: {}", brand, pageable);
+        return listPage(request, () -> deviceService.getDevicesWatermarkByBrand(brand), () -> {
+            Page<DeviceDTO> devices = deviceService.getDevicesByBrand(brand, pageable);
+            log.debug("Found {} devices for brand {}", devices.getTotalElements(), brand);
+            return devices;
+        }, DevicesController::pageETag, brand, pageable);
+    }
+
+    @Operation(summary = "Get a cursor-paginated list of devices by brand", description = "Keyset pagination over the devices of a specific brand.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Slice of devices retrieved successfully",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = CursorPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content)
+    })
+    @GetMapping(path = "/brand/{brand}", params = "limit")
+    public ResponseEntity<CursorPageDTO<DeviceDTO>> getDevicesByBrand(
+        @Parameter(description = "The brand to filter by") @PathVariable String brand,
+        @Parameter(description = "Opaque cursor returned as 'nextCursor' by the previous slice") @RequestParam(required = false) String after,
+        @Parameter(description = "Maximum number of devices to return (1-1000)") @RequestParam int limit,
+        WebRequest request) {
+        log.debug("Request to get devices by brand: {} after cursor: {} with limit: {}", brand, after, limit);
+        return listPage(request, () -> deviceService.getDevicesWatermarkByBrand(brand), () -> {
+            CursorPageDTO<DeviceDTO> devices = deviceService.getDevicesByBrand(brand, after, limit);
+            log.debug("Found {} devices for brand {}", devices.content().size(), brand);
+            return devices;
+        }, DevicesController::cursorPageETag, brand, after, limit);
     }
 
     @Operation(summary = "Get a paginated list of devices by state", description = "Retrieves a paginated list of devices filtered by a specific state.")
@@ -148,13 +342,129 @@ public class DevicesController {
     @GetMapping("/state/{state}")
     public ResponseEntity<Page<DeviceDTO>> getDevicesByState(
         @Parameter(description = "The state to filter by (e.g., AVAILABLE, IN_USE)") @PathVariable String state, 
-        @Parameter(hidden = true) Pageable pageable) {
-        log.info("Request to get devices by state: {} with pageable: {}", state, pageable);
-        Page<DeviceDTO> devices = deviceService.getDevicesByState(state, pageable);
-        log.info("Found {} devices for state {}", devices.getTotalElements(), state);
+        @Parameter(hidden = true) Pageable pageable,
+        WebRequest request) {
+        log.debug("Request to get devices by state: {} with pageable: {}", state, pageable);
+        return listPage(request, () -> deviceService.getDevicesWatermarkByState(state), () -> {
+            Page<DeviceDTO> devices = deviceService.getDevicesByState(state, pageable);
+            log.debug("Found {} devices for state {}", devices.getTotalElements(), state);
+            return devices;
+        }, DevicesController::pageETag, state, pageable);
+    }
+
+    @Operation(summary = "Get a cursor-paginated list of devices by state", description = "Keyset pagination over the devices in a specific state.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Slice of devices retrieved successfully",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = CursorPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or state", content = @Content)
+    })
+    @GetMapping(path = "/state/{state}", params = "limit")
+    public ResponseEntity<CursorPageDTO<DeviceDTO>> getDevicesByState(
+        @Parameter(description = "The state to filter by (e.g., AVAILABLE, IN_USE)") @PathVariable String state,
+        @Parameter(description = "Opaque cursor returned as 'nextCursor' by the previous slice") @RequestParam(required = false) String after,
+        @Parameter(description = "Maximum number of devices to return (1-1000)") @RequestParam int limit,
+        WebRequest request) {
+        log.debug("Request to get devices by state: {} after cursor: {} with limit: {}", state, after, limit);
+        return listPage(request, () -> deviceService.getDevicesWatermarkByState(state), () -> {
+            CursorPageDTO<DeviceDTO> devices = deviceService.getDevicesByState(state, after, limit);
+            log.debug("Found {} devices for state {}", devices.content().size(), state);
+            return devices;
+        }, DevicesController::cursorPageETag, state, after, limit);
+    }
+
+    @Operation(summary = "Filter devices by brand, state and creation time", description = "Keyset pagination over the devices matching every given condition, oldest first. Any combination of conditions may be given, none included; each one is served by an index.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Slice of devices retrieved successfully",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = CursorPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor, state or date", content = @Content)
+    })
+    @GetMapping("/filter")
+    public ResponseEntity<CursorPageDTO<DeviceDTO>> filterDevices(
+        @Parameter(description = "The brand to filter by") @RequestParam(required = false) String brand,
+        @Parameter(description = "The state to filter by (e.g., AVAILABLE, IN_USE)") @RequestParam(required = false) String state,
+        @Parameter(description = "Earliest creation time, inclusive (e.g., 2025-01-01T00:00:00)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @Parameter(description = "Latest creation time, exclusive") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @Parameter(description = "Opaque cursor returned as 'nextCursor' by the previous slice") @RequestParam(required = false) String after,
+        @Parameter(description = "Maximum number of devices to return (1-1000)") @RequestParam(defaultValue = "20") int limit) {
+        log.debug("Request to filter devices by brand: {}, state: {}, created from {} to {} after cursor: {} with limit: {}",
+            brand, state, createdFrom, createdTo, after, limit);
+        CursorPageDTO<DeviceDTO> devices = deviceService.filterDevices(brand, state, createdFrom, createdTo, after, limit);
+        log.debug("Found {} devices", devices.content().size());
         return ResponseEntity.ok(devices);
     }
 
+    @Operation(summary = "Search devices by name and brand", description = "Ranked partial-word search over names and brands, served from an in-memory index. Every word of the query of two or more characters must match; words of three or more match anywhere inside a word, two-letter words match the start of a word.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matching devices, best first",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = DeviceSearchHitDTO.class))))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<DeviceSearchHitDTO>> searchDevices(
+        @Parameter(description = "Words to look for, e.g. 'iphone 15'") @RequestParam String q,
+        @Parameter(description = "Maximum number of matches to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
+        log.debug("Request to search devices for '{}' with limit {}", q, limit);
+        List<DeviceSearchHitDTO> hits = deviceService.searchDevices(q, limit);
+        log.debug("Found {} devices matching '{}'", hits.size(), q);
+        return ResponseEntity.ok(hits);
+    }
+
+    @Operation(summary = "Count devices per state and brand", description = "Served from in-memory counters that follow every write made through this API and are recounted from the database periodically, so writes made elsewhere show up within devices.stats.reconcile-interval.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Counts retrieved successfully",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = DeviceStatsDTO.class)))
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<DeviceStatsDTO> getDeviceStats() {
+        log.debug("Request to get device stats");
+        return ResponseEntity.ok(deviceService.getDeviceStats());
+    }
+
+    @Operation(summary = "Check out a device", description = "Atomically takes the oldest AVAILABLE device of the brand, or of any brand if none is given, and sets it IN_USE. Concurrent callers are each given a different device without waiting for one another. The device is leased until 'leaseExpiresAt' and returns to AVAILABLE then unless the lease is renewed.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Device checked out",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = DeviceDTO.class))),
+        @ApiResponse(responseCode = "409", description = "No device is AVAILABLE", content = @Content)
+    })
+    @PostMapping("/checkout")
+    public ResponseEntity<DeviceDTO> checkoutDevice(
+            @Parameter(description = "The brand of device wanted") @RequestParam(required = false) String brand) {
+        log.debug("Request to check out a device of brand: {}", brand);
+        DeviceDTO device = deviceService.checkoutDevice(brand);
+        log.debug("Device checked out: {}", device);
+        return withETag(device);
+    }
+
+    @Operation(summary = "Check in a device", description = "Returns a checked out (IN_USE) device to AVAILABLE.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Device checked in",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = DeviceDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Device not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Device is not IN_USE", content = @Content),
+        @ApiResponse(responseCode = "412", description = "Device was modified concurrently", content = @Content)
+    })
+    @PostMapping("/{uuid}/checkin")
+    public ResponseEntity<DeviceDTO> checkinDevice(@Parameter(description = "The UUID of the device to check in") @PathVariable UUID uuid) {
+        log.debug("Request to check in device with UUID: {}", uuid);
+        DeviceDTO device = deviceService.checkinDevice(uuid);
+        log.debug("Device checked in: {}", device);
+        return withETag(device);
+    }
+
+    @Operation(summary = "Renew the lease of a device", description = "Extends the lease of a checked out (IN_USE) device by devices.leases.ttl from now.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lease renewed",
+                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = DeviceDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Device not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Device is not IN_USE, e.g. because its lease already ran out", content = @Content)
+    })
+    @PostMapping("/{uuid}/renew")
+    public ResponseEntity<DeviceDTO> renewLease(@Parameter(description = "The UUID of the checked out device") @PathVariable UUID uuid) {
+        log.debug("Request to renew the lease of device with UUID: {}", uuid);
+        DeviceDTO device = deviceService.renewLease(uuid);
+        log.debug("Lease renewed: {}", device);
+        return withETag(device);
+    }
+
     @Operation(summary = "Delete a device by its UUID", description = "Deletes a device from the system. This operation is irreversible.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Device deleted successfully", content = @Content),
@@ -164,8 +474,50 @@ public class DevicesController {
     @DeleteMapping("/{uuid}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteDevice(@Parameter(description = "The UUID of the device to delete") @PathVariable String uuid) {
-        log.info("Request to delete device with UUID: {}", uuid);
+        log.debug("Request to delete device with UUID: {}", uuid);
         deviceService.deleteDevice(uuid);
-        log.info("Device with UUID {} deleted", uuid);
+        log.debug("Device with UUID {} deleted", uuid);
+    }
+
+    private Long expectedVersion(String ifMatch) {
+        if (ifMatch == null && properties.concurrency().requireIfMatch()) {
+            throw new PreconditionRequiredException("If-Match header is required");
+        }
+        return DeviceETags.parseIfMatch(ifMatch);
+    }
+
+    /**
+     * A list page with its ETag. Only a conditional request reads the watermark of the filtered set,
+     * which answers an unchanged page with a 304 before the page is read. An unconditional one is
+     * tagged from the page it returns, which costs no query beyond the page itself; that tag is
+     * still honoured once, and the 304 hands out the watermark tag to poll with from then on.
+     */
+    private static <T> ResponseEntity<T> listPage(WebRequest request, Supplier<DevicesWatermarkDTO> watermark,
+            Supplier<T> page, BiFunction<T, Object[], String> pageETag, Object... query) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            T body = page.get();
+            return ResponseEntity.ok().eTag(pageETag.apply(body, query)).body(body);
+        }
+        String eTag = DeviceETags.ofList(watermark.get(), query);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        T body = page.get();
+        if (request.checkNotModified(pageETag.apply(body, query))) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body);
+    }
+
+    private static String pageETag(Page<DeviceDTO> page, Object[] query) {
+        return DeviceETags.ofPage(page.getContent(), page.getTotalElements(), query);
+    }
+
+    private static String cursorPageETag(CursorPageDTO<DeviceDTO> page, Object[] query) {
+        return DeviceETags.ofPage(page.content(), page.nextCursor(), query);
+    }
+
+    private static ResponseEntity<DeviceDTO> withETag(DeviceDTO device) {
+        return ResponseEntity.ok().eTag(DeviceETags.of(device.version())).body(device);
     }
 }
@@ -0,0 +1,59 @@
+package com.example.devices.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections of read-only transactions to the replicas, round-robin, and all others to the
+ * primary: read-write transactions, work outside a transaction (schema setup, repository calls made
+ * by validators) and anything on a thread {@link ReadYourWrites pinned} to the primary.
+ *
+ * <p>The decision is taken when a connection is fetched, and JPA fetches it while beginning the
+ * transaction, before Spring has published the read-only flag. Wrap this data source in a {@link
+ * org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the fetch waits for the
+ * first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  private static final String PRIMARY = "primary";
+
+  private final int replicaCount;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targets.put(i, replicas.get(i));
+    }
+    this.replicaCount = replicas.size();
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+    afterPropertiesSet();
+  }
+
+  /** Closes the pools behind it; they are not beans of their own. */
+  public void close() throws Exception {
+    for (DataSource target : getResolvedDataSources().values()) {
+      if (target instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (replicaCount == 0
+        || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        || ReadYourWrites.isPinnedToPrimary()) {
+      return PRIMARY;
+    }
+    return Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+  }
+}
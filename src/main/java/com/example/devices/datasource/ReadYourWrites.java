@@ -0,0 +1,25 @@
+package com.example.devices.datasource;
+
+/**
+ * Marks the current thread as needing the primary for its reads too, because the client it serves
+ * wrote recently and a replica may not have caught up yet. Set for the span of a request by {@code
+ * ReadYourWritesFilter}; threads outside a request are never pinned.
+ */
+public final class ReadYourWrites {
+
+  private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+  private ReadYourWrites() {}
+
+  public static void pinToPrimary() {
+    PINNED.set(Boolean.TRUE);
+  }
+
+  public static boolean isPinnedToPrimary() {
+    return PINNED.get() != null;
+  }
+
+  public static void release() {
+    PINNED.remove();
+  }
+}
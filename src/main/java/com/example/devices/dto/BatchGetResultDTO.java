@@ -0,0 +1,13 @@
+package com.example.devices.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Devices found by a batch lookup, and the UUIDs that matched none.")
+public record BatchGetResultDTO(
+    @Schema(description = "Devices found, in the order their UUIDs were first requested.")
+    List<DeviceDTO> devices,
+
+    @Schema(description = "Requested UUIDs with no device, in request order.", example = "[\"0190d6a0-7c1e-7000-8000-000000000000\"]")
+    List<String> missing
+) {}
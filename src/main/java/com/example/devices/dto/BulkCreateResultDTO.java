@@ -0,0 +1,16 @@
+package com.example.devices.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Result of a bulk device creation.")
+public record BulkCreateResultDTO(
+    @Schema(description = "Number of devices created.", example = "998")
+    int created,
+
+    @Schema(description = "Number of items rejected by validation.", example = "2")
+    int rejected,
+
+    @Schema(description = "Per-item results, in request order.")
+    List<BulkItemResultDTO> items
+) {}
@@ -0,0 +1,27 @@
+package com.example.devices.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Outcome of a single item of a bulk request.")
+public record BulkItemResultDTO(
+    @Schema(description = "Zero-based position of the item in the request.", example = "0")
+    int index,
+
+    @Schema(description = "CREATED or REJECTED.", example = "CREATED")
+    String status,
+
+    @Schema(description = "UUID assigned to the created device. Absent when rejected.", example = "123e4567-e89b-12d3-a456-426614174000")
+    String uuid,
+
+    @Schema(description = "Validation errors that caused the item to be rejected.")
+    List<String> errors
+) {
+    public static BulkItemResultDTO created(int index, String uuid) {
+        return new BulkItemResultDTO(index, "CREATED", uuid, List.of());
+    }
+
+    public static BulkItemResultDTO rejected(int index, List<String> errors) {
+        return new BulkItemResultDTO(index, "REJECTED", null, errors);
+    }
+}
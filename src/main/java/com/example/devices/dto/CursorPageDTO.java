@@ -0,0 +1,16 @@
+package com.example.devices.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "A slice of results from a cursor (keyset) paginated listing.")
+public record CursorPageDTO<T>(
+    @Schema(description = "The items on this slice, ordered by insertion.")
+    List<T> content,
+
+    @Schema(description = "Number of items requested for this slice.", example = "20")
+    int limit,
+
+    @Schema(description = "Opaque cursor to pass as 'after' to fetch the next slice. Absent on the last slice.", example = "MTIz")
+    String nextCursor
+) {}
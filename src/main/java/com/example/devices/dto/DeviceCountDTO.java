@@ -0,0 +1,6 @@
+package com.example.devices.dto;
+
+import com.example.devices.enumerate.DeviceState;
+
+/** Number of devices sharing a brand and a state; one row of the grouped count behind the stats. */
+public record DeviceCountDTO(String brand, DeviceState state, Long devices) {}
@@ -17,5 +17,11 @@ public record DeviceDTO(
     String state,
 
     @Schema(description = "The timestamp when the device was created.", example = "2024-07-22T10:30:00")
-    String creationTime
+    String creationTime,
+
+    @Schema(description = "Optimistic-lock version, also sent as the ETag; send it back in If-Match to update.", example = "3")
+    Long version,
+
+    @Schema(description = "When an IN_USE device is returned to AVAILABLE unless its lease is renewed; every write that puts a device IN_USE leases it. Null if it is not leased.", example = "2024-07-22T11:00:00")
+    String leaseExpiresAt
 ) {}
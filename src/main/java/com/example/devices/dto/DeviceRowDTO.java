@@ -0,0 +1,22 @@
+package com.example.devices.dto;
+
+import com.example.devices.enumerate.DeviceState;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read model of the list queries: the columns of a device row, built by Hibernate straight from the
+ * result set. Unlike a {@code Device} it is never managed, so a page of them costs no persistence
+ * context entries, no dirty-checking snapshots and no flush-time comparison.
+ *
+ * @param id database id, used as the keyset cursor
+ */
+public record DeviceRowDTO(
+    Long id,
+    UUID uuid,
+    String name,
+    String brand,
+    DeviceState state,
+    LocalDateTime creationTime,
+    Long version,
+    LocalDateTime leaseExpiresAt) {}
@@ -0,0 +1,18 @@
+package com.example.devices.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A device matching a search, served from the in-memory search index.")
+public record DeviceSearchHitDTO(
+    @Schema(description = "The unique identifier of the device.", example = "123e4567-e89b-12d3-a456-426614174000")
+    String uuid,
+
+    @Schema(description = "The name of the device.", example = "iPhone 15 Pro")
+    String name,
+
+    @Schema(description = "The brand of the device.", example = "Apple")
+    String brand,
+
+    @Schema(description = "Relevance; whole-word and name matches score higher than partial and brand matches.", example = "16")
+    int score
+) {}
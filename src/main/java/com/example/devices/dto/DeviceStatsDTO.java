@@ -0,0 +1,19 @@
+package com.example.devices.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+
+@Schema(description = "Device counts per state and per brand, kept in memory and reconciled with the database periodically.")
+public record DeviceStatsDTO(
+    @Schema(description = "Number of devices.", example = "1250")
+    long total,
+
+    @Schema(description = "Number of devices in each state; every state is listed.", example = "{\"AVAILABLE\": 1000, \"IN_USE\": 200, \"INACTIVE\": 50}")
+    Map<String, Long> byState,
+
+    @Schema(description = "Number of devices of each brand that has any.", example = "{\"Apple\": 700, \"Samsung\": 550}")
+    Map<String, Long> byBrand,
+
+    @Schema(description = "When the counters were last checked against the database.", example = "2024-07-22T10:30:00")
+    String reconciledAt
+) {}
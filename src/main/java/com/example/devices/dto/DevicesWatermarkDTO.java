@@ -0,0 +1,11 @@
+package com.example.devices.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cheap fingerprint of a set of devices, used to build list ETags without loading the rows.
+ *
+ * @param count number of devices in the set
+ * @param lastModified most recent modification time in the set, {@code null} when it is empty
+ */
+public record DevicesWatermarkDTO(long count, LocalDateTime lastModified) {}
@@ -0,0 +1,13 @@
+package com.example.devices.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "A record of an import that was rejected by validation.")
+public record ImportErrorDTO(
+    @Schema(description = "Zero-based position of the record in the body, not counting the CSV header.", example = "41")
+    long record,
+
+    @Schema(description = "Validation errors that caused the record to be rejected.")
+    List<String> errors
+) {}
@@ -0,0 +1,25 @@
+package com.example.devices.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Outcome of a streaming import.")
+public record ImportReportDTO(
+    @Schema(description = "Number of records read from the body.", example = "1000000")
+    long processed,
+
+    @Schema(description = "Number of devices created.", example = "999998")
+    long imported,
+
+    @Schema(description = "Number of records rejected by validation.", example = "2")
+    long rejected,
+
+    @Schema(description = "The first rejected records, in body order.")
+    List<ImportErrorDTO> errors,
+
+    @Schema(description = "True when more records were rejected than are listed in 'errors'.", example = "false")
+    boolean errorsTruncated,
+
+    @Schema(description = "Why the import stopped early, e.g. a malformed line. Chunks committed before it are kept. Absent when the whole body was imported.")
+    String failure
+) {}
@@ -1,6 +1,7 @@
 package com.example.devices.entity;
 
 import com.example.devices.enumerate.DeviceState;
+import com.example.devices.support.UuidV7;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -9,7 +10,12 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Getter
@@ -21,15 +27,28 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @Table(name = "devices", indexes = {
         @Index(name = "idx_uuid", columnList = "uuid", unique = true),
         @Index(name = "idx_brand", columnList = "brand"),
-        @Index(name = "idx_state", columnList = "state")
+        @Index(name = "idx_state", columnList = "state"),
+        // Let the ETag watermark (count + max modification time) of list endpoints be index-only.
+        @Index(name = "idx_state_modified", columnList = "state, last_modified_time"),
+        @Index(name = "idx_brand_modified", columnList = "brand, last_modified_time"),
+        @Index(name = "idx_modified", columnList = "last_modified_time"),
+        // Let every combination of the /filter endpoint seek and return rows in (creation_time, id) order.
+        @Index(name = "idx_brand_state_created", columnList = "brand, state, creation_time"),
+        @Index(name = "idx_brand_created", columnList = "brand, creation_time"),
+        @Index(name = "idx_state_created", columnList = "state, creation_time"),
+        @Index(name = "idx_created", columnList = "creation_time"),
+        // Lets lease recovery and the overdue-lease sweep seek on IN_USE devices by deadline.
+        @Index(name = "idx_state_lease", columnList = "state, lease_expires_at")
 })
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, DeviceLeaseListener.class, DeviceUuidFilterListener.class})
 public class Device {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(name = "uuid", unique = true, nullable = false, updatable = false)
+    @NaturalId
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "uuid", unique = true, nullable = false, updatable = false, length = 16)
     private UUID uuid;
 
     private String name;
@@ -40,14 +59,36 @@ public class Device {
     @Column(name = "state")
     private DeviceState state;
 
+    /** Optimistic lock; the default lets {@code ddl-auto: update} add the column to existing rows. */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @CreatedDate
     @Column(name = "creation_time", nullable = false, updatable = false)
     private LocalDateTime creationTime;
 
+    @LastModifiedDate
+    @Column(name = "last_modified_time")
+    private LocalDateTime lastModifiedTime;
+
+    /** When a checked out device returns to AVAILABLE on its own; {@code null} if it never does. */
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
     @PrePersist
     private void generateUuid() {
         if (uuid == null) {
-            this.uuid = UUID.randomUUID();
+            this.uuid = UuidV7.next();
+        }
+    }
+
+    /** A lease only makes sense on an IN_USE device, whichever write took it out of use. */
+    @PreUpdate
+    private void dropLeaseUnlessInUse() {
+        if (state != DeviceState.IN_USE) {
+            this.leaseExpiresAt = null;
         }
     }
 
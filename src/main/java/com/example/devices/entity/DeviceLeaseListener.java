@@ -0,0 +1,31 @@
+package com.example.devices.entity;
+
+import com.example.devices.config.DevicesProperties;
+import com.example.devices.enumerate.DeviceState;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Leases every device a write takes into use, whether a checkout, PUT, PATCH or create, for {@code
+ * devices.leases.ttl}, so no IN_USE device is held forever. A lease the write set itself, like that
+ * of a checkout or renewal, is kept. Hibernate obtains it from the Spring context, which injects
+ * the properties.
+ */
+public class DeviceLeaseListener {
+
+  private final Duration ttl;
+
+  public DeviceLeaseListener(DevicesProperties properties) {
+    this.ttl = properties.leases().ttl();
+  }
+
+  @PrePersist
+  @PreUpdate
+  void leaseIfInUse(Device device) {
+    if (device.getState() == DeviceState.IN_USE && device.getLeaseExpiresAt() == null) {
+      device.setLeaseExpiresAt(LocalDateTime.now().plus(ttl));
+    }
+  }
+}
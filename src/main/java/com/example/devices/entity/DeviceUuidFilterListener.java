@@ -0,0 +1,22 @@
+package com.example.devices.entity;
+
+import com.example.devices.support.DeviceUuidFilter;
+import jakarta.persistence.PostPersist;
+
+/**
+ * Adds every persisted device to the {@link DeviceUuidFilter}, whichever code path saved it.
+ * Hibernate obtains it from the Spring context, which injects the filter.
+ */
+public class DeviceUuidFilterListener {
+
+  private final DeviceUuidFilter filter;
+
+  public DeviceUuidFilterListener(DeviceUuidFilter filter) {
+    this.filter = filter;
+  }
+
+  @PostPersist
+  void added(Device device) {
+    filter.add(device.getUuid());
+  }
+}
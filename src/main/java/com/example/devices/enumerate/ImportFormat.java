@@ -0,0 +1,6 @@
+package com.example.devices.enumerate;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV
+}
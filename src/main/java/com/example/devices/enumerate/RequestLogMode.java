@@ -0,0 +1,12 @@
+package com.example.devices.enumerate;
+
+/** How many API requests get a summary line in the log. */
+public enum RequestLogMode {
+    /** Every request. */
+    ALL,
+    /** A random share of requests, plus every server error and slow request. */
+    SAMPLED,
+    /** Only server errors and slow requests. */
+    ERRORS,
+    OFF
+}
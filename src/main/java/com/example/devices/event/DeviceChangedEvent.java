@@ -0,0 +1,14 @@
+package com.example.devices.event;
+
+import com.example.devices.dto.DeviceDTO;
+import java.util.UUID;
+
+/**
+ * A device was created, modified or deleted. Published inside the writing transaction; listeners
+ * that keep derived state in memory should react after commit, so a rollback never reaches them.
+ *
+ * @param uuid the device
+ * @param before the device as it was read by the writer, {@code null} when it was just created
+ * @param after the device as committed, {@code null} when it was deleted
+ */
+public record DeviceChangedEvent(UUID uuid, DeviceDTO before, DeviceDTO after) {}
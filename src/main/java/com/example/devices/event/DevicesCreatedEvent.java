@@ -0,0 +1,10 @@
+package com.example.devices.event;
+
+import com.example.devices.dto.DeviceDTO;
+import java.util.List;
+
+/**
+ * Devices inserted together by a bulk request or an import chunk; one event per transaction instead
+ * of one {@link DeviceChangedEvent} per row.
+ */
+public record DevicesCreatedEvent(List<DeviceDTO> devices) {}
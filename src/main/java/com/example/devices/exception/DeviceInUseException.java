@@ -0,0 +1,9 @@
+package com.example.devices.exception;
+
+/** Thrown when an operation is refused because the device is currently {@code IN_USE}. */
+public class DeviceInUseException extends RuntimeException {
+
+  public DeviceInUseException(String message) {
+    super(message);
+  }
+}
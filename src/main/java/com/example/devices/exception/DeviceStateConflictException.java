@@ -0,0 +1,12 @@
+package com.example.devices.exception;
+
+/**
+ * Thrown when a checkout or check-in cannot happen in the current state: no device is AVAILABLE to
+ * check out, or the device to check in is not {@code IN_USE}.
+ */
+public class DeviceStateConflictException extends RuntimeException {
+
+  public DeviceStateConflictException(String message) {
+    super(message);
+  }
+}
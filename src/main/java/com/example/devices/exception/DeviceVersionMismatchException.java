@@ -0,0 +1,9 @@
+package com.example.devices.exception;
+
+/** Thrown when a write names a device version ({@code If-Match}) that is no longer current. */
+public class DeviceVersionMismatchException extends RuntimeException {
+
+  public DeviceVersionMismatchException(String message) {
+    super(message);
+  }
+}
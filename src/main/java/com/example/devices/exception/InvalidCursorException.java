@@ -0,0 +1,9 @@
+package com.example.devices.exception;
+
+/** Thrown when a pagination cursor was not issued by this API, or not for the listing it is sent to. */
+public class InvalidCursorException extends InvalidRequestException {
+
+  public InvalidCursorException(String cursor, Throwable cause) {
+    super("Invalid cursor: " + cursor, cause);
+  }
+}
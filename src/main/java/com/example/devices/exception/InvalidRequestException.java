@@ -0,0 +1,16 @@
+package com.example.devices.exception;
+
+/**
+ * Thrown when a request is well-formed but asks for something the API does not accept, such as too
+ * many items or a malformed JSON Patch. The message is written for the client and returned as is.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+  public InvalidRequestException(String message) {
+    super(message);
+  }
+
+  public InvalidRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
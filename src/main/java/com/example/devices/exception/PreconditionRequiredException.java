@@ -0,0 +1,9 @@
+package com.example.devices.exception;
+
+/** Thrown when a conditional request header is mandatory but missing. */
+public class PreconditionRequiredException extends RuntimeException {
+
+  public PreconditionRequiredException(String message) {
+    super(message);
+  }
+}
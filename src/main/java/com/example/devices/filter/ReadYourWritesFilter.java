@@ -0,0 +1,75 @@
+package com.example.devices.filter;
+
+import com.example.devices.datasource.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Read-your-writes across the requests of one client. A request that may write (anything but GET,
+ * HEAD and OPTIONS) is served from the primary and hands back a cookie holding the moment the
+ * window closes; until then, the client's reads are pinned to the primary as well. Clients that drop
+ * cookies still read their own writes within a request, and otherwise see replica lag.
+ *
+ * <p>The cookie is set before the request runs, because the response may be committed by the time
+ * the chain returns. A write that fails therefore also pins its client, which only costs a few reads
+ * on the primary.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String COOKIE_NAME = "devices-primary-until";
+
+  private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+  private final Duration window;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.window = window;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long now = System.currentTimeMillis();
+    boolean writing = !SAFE_METHODS.contains(request.getMethod());
+    if (writing) {
+      Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + window.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+      response.addCookie(cookie);
+    }
+    if (writing || pinnedUntil(request) > now) {
+      ReadYourWrites.pinToPrimary();
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReadYourWrites.release();
+    }
+  }
+
+  private static long pinnedUntil(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null) {
+      return 0;
+    }
+    for (Cookie cookie : cookies) {
+      if (COOKIE_NAME.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 0;
+  }
+}
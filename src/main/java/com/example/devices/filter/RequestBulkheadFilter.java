@@ -0,0 +1,116 @@
+package com.example.devices.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps the number of requests in flight. A request that cannot get a slot within the queue timeout
+ * is answered with 503 and {@code Retry-After} instead of joining an ever longer line for a
+ * database connection. The slot is held until the response completes, including streamed ones.
+ */
+public class RequestBulkheadFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(RequestBulkheadFilter.class);
+  private final int maxConcurrent;
+  private final Semaphore slots;
+  private final long queueTimeoutNanos;
+  private final LongAdder rejected = new LongAdder();
+  private final ObjectMapper objectMapper;
+
+  public RequestBulkheadFilter(int maxConcurrent, Duration queueTimeout, ObjectMapper objectMapper) {
+    // Fair, so a waiting request is not overtaken by every newcomer.
+    this.maxConcurrent = maxConcurrent;
+    this.slots = new Semaphore(maxConcurrent, true);
+    this.queueTimeoutNanos = queueTimeout.toNanos();
+    this.objectMapper = objectMapper;
+  }
+
+  /** Requests currently holding a slot. */
+  public int inFlight() {
+    return maxConcurrent - slots.availablePermits();
+  }
+
+  /** Requests answered with 503 since startup. */
+  public long rejected() {
+    return rejected.sum();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!acquire()) {
+      log.debug("Rejecting {} {}: no request slot free", request.getMethod(), request.getRequestURI());
+      rejected.increment();
+      reject(response);
+      return;
+    }
+    boolean releaseOnCompletion = false;
+    try {
+      filterChain.doFilter(request, response);
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new ReleasingListener());
+        releaseOnCompletion = true;
+      }
+    } finally {
+      if (!releaseOnCompletion) {
+        slots.release();
+      }
+    }
+  }
+
+  private boolean acquire() {
+    try {
+      return slots.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void reject(HttpServletResponse response) throws IOException {
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(
+        response.getOutputStream(),
+        Map.of("error", "Service unavailable", "message", "Too many requests in flight; retry shortly"));
+  }
+
+  /** {@code onComplete} follows timeouts and errors too, so it is the one place to release. */
+  private final class ReleasingListener implements AsyncListener {
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      slots.release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {}
+
+    @Override
+    public void onError(AsyncEvent event) {}
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      event.getAsyncContext().addListener(this);
+    }
+  }
+}
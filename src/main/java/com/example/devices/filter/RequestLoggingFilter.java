@@ -0,0 +1,144 @@
+package com.example.devices.filter;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.example.devices.enumerate.RequestLogMode;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Tags every log line written while serving a request with its {@code requestId} (taken from {@code
+ * X-Request-Id} when the caller sends a sane one, and echoed back), and writes one summary line per
+ * request according to the configured {@link RequestLogMode}. Server errors and slow requests are
+ * logged at WARN, everything else at INFO.
+ */
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+  public static final String REQUEST_ID_HEADER = "X-Request-Id";
+  public static final String REQUEST_ID_MDC_KEY = "requestId";
+
+  private static final Logger log = LoggerFactory.getLogger(RequestLoggingFilter.class);
+  /** Client ids end up in every log line, so only short, plain ones are trusted. */
+  private static final Pattern SAFE_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+  private final RequestLogMode mode;
+  private final double sampleRate;
+  private final long slowThresholdNanos;
+
+  public RequestLoggingFilter(RequestLogMode mode, double sampleRate, Duration slowThreshold) {
+    this.mode = mode;
+    this.sampleRate = sampleRate;
+    this.slowThresholdNanos = slowThreshold.toNanos();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String requestId = requestId(request);
+    response.setHeader(REQUEST_ID_HEADER, requestId);
+    long start = System.nanoTime();
+    boolean failed = false;
+    boolean summarizeOnCompletion = false;
+    MDC.put(REQUEST_ID_MDC_KEY, requestId);
+    try {
+      filterChain.doFilter(request, response);
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new SummarizingListener(request, response, requestId, start));
+        summarizeOnCompletion = true;
+      }
+    } catch (ServletException | IOException | RuntimeException e) {
+      failed = true;
+      throw e;
+    } finally {
+      if (!summarizeOnCompletion) {
+        summarize(request, failed ? 500 : response.getStatus(), start);
+      }
+      MDC.remove(REQUEST_ID_MDC_KEY);
+    }
+  }
+
+  private static String requestId(HttpServletRequest request) {
+    String requestId = request.getHeader(REQUEST_ID_HEADER);
+    if (requestId != null && SAFE_REQUEST_ID.matcher(requestId).matches()) {
+      return requestId;
+    }
+    return Long.toHexString(ThreadLocalRandom.current().nextLong());
+  }
+
+  private void summarize(HttpServletRequest request, int status, long start) {
+    long elapsed = System.nanoTime() - start;
+    boolean alarming = status >= 500 || elapsed >= slowThresholdNanos;
+    boolean summarize =
+        switch (mode) {
+          case ALL -> true;
+          case SAMPLED -> alarming || ThreadLocalRandom.current().nextDouble() < sampleRate;
+          case ERRORS -> alarming;
+          case OFF -> false;
+        };
+    if (!summarize) {
+      return;
+    }
+    Object[] summary = {
+      kv("method", request.getMethod()),
+      kv("uri", request.getRequestURI()),
+      kv("status", status),
+      kv("durationMs", elapsed / 1_000_000)
+    };
+    if (alarming) {
+      log.warn("{} {} {} {}", summary);
+    } else {
+      log.info("{} {} {} {}", summary);
+    }
+  }
+
+  /** Streamed responses are summarized when they complete, on whichever thread completes them. */
+  private final class SummarizingListener implements AsyncListener {
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final String requestId;
+    private final long start;
+
+    private SummarizingListener(
+        HttpServletRequest request, HttpServletResponse response, String requestId, long start) {
+      this.request = request;
+      this.response = response;
+      this.requestId = requestId;
+      this.start = start;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      MDC.put(REQUEST_ID_MDC_KEY, requestId);
+      try {
+        summarize(request, response.getStatus(), start);
+      } finally {
+        MDC.remove(REQUEST_ID_MDC_KEY);
+      }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {}
+
+    @Override
+    public void onError(AsyncEvent event) {}
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      event.getAsyncContext().addListener(this);
+    }
+  }
+}
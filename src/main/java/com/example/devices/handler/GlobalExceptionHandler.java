@@ -1,18 +1,28 @@
 package com.example.devices.handler;
 
+import com.example.devices.exception.DeviceInUseException;
+import com.example.devices.exception.DeviceStateConflictException;
+import com.example.devices.exception.DeviceVersionMismatchException;
+import com.example.devices.exception.InvalidRequestException;
+import com.example.devices.exception.PreconditionRequiredException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -48,6 +58,90 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(DeviceInUseException.class)
+    public ResponseEntity<Object> handleDeviceInUse(DeviceInUseException ex) {
+        // Same body as a failed constraint, which is how this rule used to be reported.
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Validation failed");
+        response.put("messages", List.of(ex.getMessage()));
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(DeviceStateConflictException.class)
+    public ResponseEntity<Object> handleDeviceStateConflict(DeviceStateConflictException ex) {
+        Map<String, String> error = Map.of(
+            "error", "Conflict",
+            "message", ex.getMessage()
+        );
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(DeviceVersionMismatchException.class)
+    public ResponseEntity<Object> handleVersionMismatch(DeviceVersionMismatchException ex) {
+        Map<String, String> error = Map.of(
+            "error", "Precondition failed",
+            "message", ex.getMessage()
+        );
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        // Another writer committed between our read and our UPDATE.
+        Map<String, String> error = Map.of(
+            "error", "Precondition failed",
+            "message", "Device was modified concurrently; fetch it again and retry"
+        );
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<Object> handlePreconditionRequired(PreconditionRequiredException ex) {
+        Map<String, String> error = Map.of(
+            "error", "Precondition required",
+            "message", ex.getMessage()
+        );
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_REQUIRED);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Object> handleInvalidRequest(InvalidRequestException ex) {
+        Map<String, String> error = Map.of(
+            "error", "Invalid request",
+            "message", ex.getMessage()
+        );
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<Object> handleMissingParameter(MissingServletRequestParameterException ex) {
+        Map<String, String> error = Map.of(
+            "error", "Invalid request",
+            "message", ex.getMessage()
+        );
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Object> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        Map<String, String> error = Map.of(
+            "error", "Invalid request",
+            "message", "Invalid value for parameter '" + ex.getName() + "': " + ex.getValue()
+        );
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<Object> handleMediaTypeNotSupported(HttpMediaTypeNotSupportedException ex) {
+        Map<String, String> error = Map.of(
+            "error", "Unsupported media type",
+            "message", ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                .headers(ex.getHeaders())
+                .body(error);
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<Object> handleEntityNotFound(EntityNotFoundException ex) {
         Map<String, String> error = Map.of("error", ex.getMessage());
@@ -3,6 +3,7 @@ package com.example.devices.mapper;
     
 import com.example.devices.dto.CreateDeviceDTO;
 import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceRowDTO;
 import com.example.devices.dto.UpdateDeviceDTO;
 import com.example.devices.entity.Device;
 import java.util.List;
@@ -16,12 +17,16 @@ public interface DeviceMapper {
     DeviceMapper INSTANCE = Mappers.getMapper(DeviceMapper.class);
 
     DeviceDTO toDto(Device device);
+    DeviceDTO toDto(DeviceRowDTO row);
     UpdateDeviceDTO toUpdateDto(Device device);
     CreateDeviceDTO toCreateDto(Device device);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "uuid", ignore = true)
     @Mapping(target = "creationTime", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModifiedTime", ignore = true)
+    @Mapping(target = "leaseExpiresAt", ignore = true)
     Device toEntity(CreateDeviceDTO deviceDTO);
 
 }
@@ -0,0 +1,13 @@
+package com.example.devices.repository;
+
+import com.example.devices.enumerate.DeviceState;
+import java.time.LocalDateTime;
+
+/**
+ * Conditions of a combined device filter; {@code null} components are left out of the query.
+ *
+ * @param createdFrom inclusive lower bound of the creation time
+ * @param createdTo exclusive upper bound of the creation time
+ */
+public record DeviceFilter(
+    String brand, DeviceState state, LocalDateTime createdFrom, LocalDateTime createdTo) {}
@@ -1,23 +1,186 @@
 package com.example.devices.repository;
 
+import com.example.devices.dto.DeviceCountDTO;
+import com.example.devices.dto.DeviceRowDTO;
+import com.example.devices.dto.DevicesWatermarkDTO;
 import com.example.devices.entity.Device;
 import com.example.devices.enumerate.DeviceState;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface DeviceRepo extends JpaRepository<Device, Long> {
-  Optional<Device> findDeviceByUuid(UUID deviceUuid);
+public interface DeviceRepo extends JpaRepository<Device, Long>, DeviceRepoCustom {
+  /** Rows fetched per round trip by {@link #streamAllByOrderByIdAsc()}. */
+  int EXPORT_FETCH_SIZE = 1000;
+
+  /** Select clause of the list queries, which read {@link DeviceRowDTO}s instead of entities. */
+  String ROW = "select new com.example.devices.dto.DeviceRowDTO("
+      + "d.id, d.uuid, d.name, d.brand, d.state, d.creationTime, d.version, d.leaseExpiresAt) from Device d";
 
   Page<Device> findByBrand(String brand, Pageable pageable);
 
   Page<Device> findByState(DeviceState state, Pageable pageable);
 
-  void deleteDeviceByUuid(UUID deviceUuid);
+  // Read-only list queries, projected into rows. The *After variants seek past the last seen id:
+  // no OFFSET and no COUNT query.
+  @Query(value = ROW, countQuery = "select count(d) from Device d")
+  Page<DeviceRowDTO> findAllRows(Pageable pageable);
+
+  @Query(value = ROW + " where d.brand = :brand",
+      countQuery = "select count(d) from Device d where d.brand = :brand")
+  Page<DeviceRowDTO> findRowsByBrand(@Param("brand") String brand, Pageable pageable);
+
+  @Query(value = ROW + " where d.state = :state",
+      countQuery = "select count(d) from Device d where d.state = :state")
+  Page<DeviceRowDTO> findRowsByState(@Param("state") DeviceState state, Pageable pageable);
+
+  @Query(ROW + " where d.id > :id order by d.id")
+  List<DeviceRowDTO> findRowsAfter(@Param("id") Long id, Limit limit);
+
+  @Query(ROW + " where d.brand = :brand and d.id > :id order by d.id")
+  List<DeviceRowDTO> findRowsByBrandAfter(@Param("brand") String brand, @Param("id") Long id, Limit limit);
+
+  @Query(ROW + " where d.state = :state and d.id > :id order by d.id")
+  List<DeviceRowDTO> findRowsByStateAfter(
+      @Param("state") DeviceState state, @Param("id") Long id, Limit limit);
+
+  /**
+   * Forward-only cursor over every device; must be consumed and closed inside a transaction. On
+   * MySQL the fetch size only streams with {@code useCursorFetch=true} on the JDBC URL.
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select d from Device d order by d.id")
+  Stream<Device> streamAllByOrderByIdAsc();
+
+  /** Every device as a row, streamed like {@link #streamAllByOrderByIdAsc()}; feeds in-memory indexes. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+  @Query(ROW + " order by d.id")
+  Stream<DeviceRowDTO> streamAllRows();
+
+  /** Every device uuid, streamed like {@link #streamAllRows()}; fills the uuid filter from {@code idx_uuid}. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+  @Query("select d.uuid from Device d")
+  Stream<UUID> streamAllUuids();
+
+  /** The devices among {@code uuids}, in no particular order; one seek on {@code idx_uuid} each. */
+  @Query(ROW + " where d.uuid in :uuids")
+  List<DeviceRowDTO> findRowsByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+  /** One row per brand and state; answered from {@code idx_brand_state_created} alone. */
+  @Query("select new com.example.devices.dto.DeviceCountDTO(d.brand, d.state, count(d))"
+      + " from Device d group by d.brand, d.state")
+  List<DeviceCountDTO> countByBrandAndState();
+
+  /**
+   * One primary key probe that reads nothing. MySQL takes a REPEATABLE READ snapshot at the first
+   * read of a transaction, not at its start, so this pins the snapshot the next queries will see.
+   */
+  @Query("select count(d) from Device d where d.id = 0")
+  long openSnapshot();
+
+  /**
+   * The oldest AVAILABLE devices of a brand, locked for update. Rows another transaction has locked
+   * are skipped rather than waited for ({@code FOR UPDATE SKIP LOCKED}), so concurrent claimers each
+   * lock a different device instead of queueing behind the first one. Seeks on
+   * {@code idx_brand_state_created}.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+  @Query("select d from Device d where d.brand = :brand"
+      + " and d.state = com.example.devices.enumerate.DeviceState.AVAILABLE order by d.creationTime, d.id")
+  List<Device> lockAvailableByBrand(@Param("brand") String brand, Limit limit);
+
+  /** Same as {@link #lockAvailableByBrand} for any brand; seeks on {@code idx_state_created}. */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+  @Query("select d from Device d"
+      + " where d.state = com.example.devices.enumerate.DeviceState.AVAILABLE order by d.creationTime, d.id")
+  List<Device> lockAvailable(Limit limit);
+
+  /**
+   * Devices among {@code uuids} whose lease has run out, locked so that a renewal or check-in racing
+   * the release waits for it and then sees the device AVAILABLE.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select d from Device d where d.uuid in :uuids"
+      + " and d.state = com.example.devices.enumerate.DeviceState.IN_USE and d.leaseExpiresAt <= :now")
+  List<Device> lockExpiredLeases(@Param("uuids") Collection<UUID> uuids, @Param("now") LocalDateTime now);
+
+  /** The longest overdue leases, skipping locked rows; seeks on {@code idx_state_lease}. */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+  @Query("select d from Device d where d.state = com.example.devices.enumerate.DeviceState.IN_USE"
+      + " and d.leaseExpiresAt <= :now order by d.leaseExpiresAt")
+  List<Device> lockOverdueLeases(@Param("now") LocalDateTime now, Limit limit);
+
+  /** Returns the devices to AVAILABLE in one statement; the caller holds their row locks. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Device d set d.state = com.example.devices.enumerate.DeviceState.AVAILABLE,"
+      + " d.leaseExpiresAt = null, d.version = d.version + 1, d.lastModifiedTime = :now where d.id in :ids")
+  int releaseLeases(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+  /** Every IN_USE device with a lease, streamed like {@link #streamAllRows()}; seeds the lease timer. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+  @Query(ROW + " where d.state = com.example.devices.enumerate.DeviceState.IN_USE and d.leaseExpiresAt is not null")
+  Stream<DeviceRowDTO> streamLeasedRows();
+
+  /** One device as a row; the before-image of a delete that has no cached copy to go by. */
+  @Query(ROW + " where d.uuid = :uuid")
+  Optional<DeviceRowDTO> findRowByUuid(@Param("uuid") UUID uuid);
+
+  /**
+   * Deletes in one statement if the device is still at {@code version} and not in use, so a caller
+   * holding that version knows exactly what was deleted.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Device d where d.uuid = :uuid and d.version = :version"
+      + " and (d.state is null or d.state <> com.example.devices.enumerate.DeviceState.IN_USE)")
+  int deleteDeviceByUuidAtVersionIfNotInUse(@Param("uuid") UUID deviceUuid, @Param("version") Long version);
+
+  /**
+   * The device locked for update, so what is read stays true until the transaction ends. A locking
+   * read sees the latest committed row, not the transaction's snapshot.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select d from Device d where d.uuid = :uuid")
+  Optional<Device> lockDeviceByUuid(@Param("uuid") UUID deviceUuid);
+
+  @Transactional(readOnly = true)
+  @Query("select d.version from Device d where d.uuid = :uuid")
+  Optional<Long> findVersionByUuid(@Param("uuid") UUID uuid);
+
+  // Watermarks: any insert, update or delete within the filter changes the count or the maximum.
+  @Query("select new com.example.devices.dto.DevicesWatermarkDTO(count(d), max(d.lastModifiedTime)) from Device d")
+  DevicesWatermarkDTO findWatermark();
+
+  @Query("select new com.example.devices.dto.DevicesWatermarkDTO(count(d), max(d.lastModifiedTime))"
+      + " from Device d where d.brand = :brand")
+  DevicesWatermarkDTO findWatermarkByBrand(@Param("brand") String brand);
 
-  boolean existsDeviceByUuid(UUID uuid);
+  @Query("select new com.example.devices.dto.DevicesWatermarkDTO(count(d), max(d.lastModifiedTime))"
+      + " from Device d where d.state = :state")
+  DevicesWatermarkDTO findWatermarkByState(@Param("state") DeviceState state);
 }
@@ -0,0 +1,33 @@
+package com.example.devices.repository;
+
+import com.example.devices.dto.DeviceRowDTO;
+import com.example.devices.entity.Device;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface DeviceRepoCustom {
+
+  /**
+   * Loads a device through its {@code uuid} natural id. Within one persistence context only the
+   * first call hits the database; later calls for the same uuid (e.g. from the validators and then
+   * the service method of a single update) are answered from the context.
+   */
+  Optional<Device> findDeviceByUuid(UUID deviceUuid);
+
+  /**
+   * Inserts all devices with a single multi-row INSERT, bypassing the persistence context. The
+   * devices must already carry their uuid, creation time and, if IN_USE, lease; their ids are left unset.
+   *
+   * @return the number of inserted rows
+   */
+  int insertAll(List<Device> devices);
+
+  /**
+   * Up to {@code limit} rows matching {@code filter}, ordered by creation time and then id. Pass the
+   * creation time and id of the last row seen to continue after it, or {@code null}s to start.
+   */
+  List<DeviceRowDTO> findRowsByFilter(
+      DeviceFilter filter, LocalDateTime afterCreationTime, Long afterId, int limit);
+}
@@ -0,0 +1,129 @@
+package com.example.devices.repository;
+
+import com.example.devices.dto.DeviceRowDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.DeviceState;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@code Device} ids come from an IDENTITY column, which stops Hibernate from batching persist()
+ * calls: it has to read every generated key back. Bulk callers never need those ids because the
+ * uuid is generated on our side, so we hand Hibernate one HQL multi-row insert instead and let it
+ * bind every column with the same types it uses for the entity.
+ *
+ * <p>The combined filter is a criteria query because its WHERE clause depends on which conditions
+ * are given. Each combination is served by one of the {@code *_created} indexes of {@code Device}.
+ */
+public class DeviceRepoCustomImpl implements DeviceRepoCustom {
+
+  private static final String INSERT =
+      "insert into Device (uuid, name, brand, state, creationTime, version, lastModifiedTime, leaseExpiresAt) values ";
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<Device> findDeviceByUuid(UUID deviceUuid) {
+    return entityManager
+        .unwrap(Session.class)
+        .bySimpleNaturalId(Device.class)
+        .loadOptional(deviceUuid);
+  }
+
+  @Override
+  public int insertAll(List<Device> devices) {
+    if (devices.isEmpty()) {
+      return 0;
+    }
+    StringBuilder hql = new StringBuilder(INSERT.length() + devices.size() * 40).append(INSERT);
+    for (int i = 0; i < devices.size(); i++) {
+      int p = i * 6;
+      hql.append(i == 0 ? "" : ", ")
+          .append("(?").append(p + 1)
+          .append(", ?").append(p + 2)
+          .append(", ?").append(p + 3)
+          .append(", ?").append(p + 4)
+          .append(", ?").append(p + 5)
+          .append(", 0, ?").append(p + 5)
+          .append(", ?").append(p + 6)
+          .append(')');
+    }
+    Query query = entityManager.createQuery(hql.toString());
+    for (int i = 0; i < devices.size(); i++) {
+      Device device = devices.get(i);
+      int p = i * 6;
+      query.setParameter(p + 1, device.getUuid());
+      query.setParameter(p + 2, device.getName());
+      query.setParameter(p + 3, device.getBrand());
+      query.setParameter(p + 4, device.getState());
+      query.setParameter(p + 5, device.getCreationTime());
+      query.setParameter(p + 6, device.getLeaseExpiresAt());
+    }
+    return query.executeUpdate();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<DeviceRowDTO> findRowsByFilter(
+      DeviceFilter filter, LocalDateTime afterCreationTime, Long afterId, int limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<DeviceRowDTO> query = cb.createQuery(DeviceRowDTO.class);
+    Root<Device> d = query.from(Device.class);
+    Path<Long> id = d.get("id");
+    Path<String> brand = d.get("brand");
+    Path<DeviceState> state = d.get("state");
+    Path<LocalDateTime> creationTime = d.get("creationTime");
+
+    List<Predicate> where = new ArrayList<>(5);
+    if (filter.brand() != null) {
+      where.add(cb.equal(brand, filter.brand()));
+    }
+    if (filter.state() != null) {
+      where.add(cb.equal(state, filter.state()));
+    }
+    if (filter.createdFrom() != null) {
+      where.add(cb.greaterThanOrEqualTo(creationTime, filter.createdFrom()));
+    }
+    if (filter.createdTo() != null) {
+      where.add(cb.lessThan(creationTime, filter.createdTo()));
+    }
+    // Keyset: rows created later, or at the same time with a higher id. The first condition is
+    // implied by the second; it is there so the index seeks to the cursor instead of filtering up to it.
+    if (afterCreationTime != null) {
+      where.add(cb.greaterThanOrEqualTo(creationTime, afterCreationTime));
+      where.add(
+          cb.or(
+              cb.greaterThan(creationTime, afterCreationTime),
+              cb.and(cb.equal(creationTime, afterCreationTime), cb.greaterThan(id, afterId))));
+    }
+    query
+        .select(
+            cb.construct(
+                DeviceRowDTO.class,
+                id,
+                d.get("uuid"),
+                d.get("name"),
+                brand,
+                state,
+                creationTime,
+                d.get("version"),
+                d.get("leaseExpiresAt")))
+        .where(where.toArray(Predicate[]::new))
+        .orderBy(cb.asc(creationTime), cb.asc(id));
+    return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+  }
+}
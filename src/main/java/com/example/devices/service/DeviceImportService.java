@@ -0,0 +1,13 @@
+package com.example.devices.service;
+
+import com.example.devices.dto.ImportReportDTO;
+import com.example.devices.enumerate.ImportFormat;
+import java.io.InputStream;
+
+public interface DeviceImportService {
+    /**
+     * Creates a device for every valid record of {@code body}, parsing it as it arrives and
+     * committing one transaction per chunk. Never reads the whole body into memory.
+     */
+    ImportReportDTO importDevices(InputStream body, ImportFormat format);
+}
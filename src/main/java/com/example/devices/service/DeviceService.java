@@ -1,24 +1,67 @@
 package com.example.devices.service;
 
 
+import com.example.devices.dto.BatchGetResultDTO;
+import com.example.devices.dto.BulkCreateResultDTO;
 import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.CursorPageDTO;
 import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceSearchHitDTO;
+import com.example.devices.dto.DeviceStatsDTO;
+import com.example.devices.dto.DevicesWatermarkDTO;
 import com.example.devices.dto.UpdateDeviceDTO;
-import com.example.devices.validator.DeviceExists;
-import com.example.devices.validator.NotDeleteIfInUse;
-import com.github.fge.jsonpatch.JsonPatch;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface DeviceService {
     DeviceDTO createDevice(CreateDeviceDTO device);
-    DeviceDTO updateDevice(@Valid UpdateDeviceDTO device);
-    DeviceDTO patchDevice(UUID uuid, JsonPatch patch);
+    BulkCreateResultDTO createDevices(List<CreateDeviceDTO> devices);
+    /** {@code expectedVersion} is the {@code If-Match} version, or {@code null} to update unconditionally. */
+    DeviceDTO updateDevice(@Valid UpdateDeviceDTO device, Long expectedVersion);
+    DeviceDTO patchDevice(UUID uuid, JsonNode patch, Long expectedVersion);
     DeviceDTO getDeviceByUuid(UUID uuid);
+    /** The devices with any of {@code uuids}, from the cache or a few {@code IN} queries, and the uuids that have none. */
+    BatchGetResultDTO getDevicesByUuids(List<UUID> uuids);
     Page<DeviceDTO> getAllDevices(Pageable pageable);
     Page<DeviceDTO> getDevicesByBrand(String brand, Pageable pageable);
     Page<DeviceDTO> getDevicesByState(String state, Pageable pageable);
-    void deleteDevice(@Valid @DeviceExists @NotDeleteIfInUse String deviceUuid);
+    CursorPageDTO<DeviceDTO> getAllDevices(String after, int limit);
+    CursorPageDTO<DeviceDTO> getDevicesByBrand(String brand, String after, int limit);
+    CursorPageDTO<DeviceDTO> getDevicesByState(String state, String after, int limit);
+    /**
+     * Devices matching every given condition, oldest first; {@code null} conditions are ignored.
+     * {@code createdFrom} is inclusive and {@code createdTo} exclusive.
+     */
+    CursorPageDTO<DeviceDTO> filterDevices(
+        String brand, String state, LocalDateTime createdFrom, LocalDateTime createdTo, String after, int limit);
+    void deleteDevice(String deviceUuid);
+    /**
+     * Atomically takes the oldest AVAILABLE device of {@code brand}, or of any brand if it is
+     * {@code null}, into use. Concurrent callers never get the same device. The device returns to
+     * AVAILABLE by itself when its lease runs out.
+     */
+    DeviceDTO checkoutDevice(String brand);
+    /** Returns an IN_USE device to AVAILABLE. */
+    DeviceDTO checkinDevice(UUID uuid);
+    /** Extends the lease of an IN_USE device by {@code devices.leases.ttl} from now. */
+    DeviceDTO renewLease(UUID uuid);
+    /** Ranked matches of every word of {@code query} in names and brands, from the search index. */
+    List<DeviceSearchHitDTO> searchDevices(String query, int limit);
+    /** Device counts per state and brand, from in-memory counters. */
+    DeviceStatsDTO getDeviceStats();
+    /** Feeds every device to {@code sink} in id order with constant memory; returns how many. */
+    long exportDevices(Consumer<DeviceDTO> sink);
+
+    /** Current version of a device without loading it, empty if it does not exist. */
+    Optional<Long> getDeviceVersion(UUID uuid);
+    DevicesWatermarkDTO getDevicesWatermark();
+    DevicesWatermarkDTO getDevicesWatermarkByBrand(String brand);
+    DevicesWatermarkDTO getDevicesWatermarkByState(String state);
 }
@@ -0,0 +1,70 @@
+package com.example.devices.service.impl;
+
+import static com.example.devices.config.CacheConfig.DEVICES_CACHE;
+
+import com.example.devices.dto.DeviceDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.UUID;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Version-aware view of the {@code devices} cache.
+ *
+ * <p>Plain cache-aside lets a reader that loaded a row just before a write put that stale copy back
+ * after the writer evicted it, and the cached ETag would then lag until expiry. Here writers publish
+ * the version they committed, and an older version never replaces a newer one. Deletes only evict,
+ * so a read racing a delete can still re-cache the device until the entry expires.
+ */
+@Component
+public class DeviceCache {
+
+  private final Cache<Object, Object> cache;
+
+  @SuppressWarnings("unchecked")
+  public DeviceCache(CacheManager cacheManager) {
+    this.cache = (Cache<Object, Object>) cacheManager.getCache(DEVICES_CACHE).getNativeCache();
+  }
+
+  public DeviceDTO get(UUID uuid) {
+    return (DeviceDTO) cache.getIfPresent(uuid);
+  }
+
+  /** Caches {@code device} unless a newer version of it is already cached. */
+  public void offer(DeviceDTO device) {
+    cache.asMap().merge(UUID.fromString(device.uuid()), device, DeviceCache::newer);
+  }
+
+  /** {@link #offer} once the current transaction commits; a rollback leaves the cache untouched. */
+  public void offerAfterCommit(DeviceDTO device) {
+    afterCommit(() -> offer(device));
+  }
+
+  public void evictAfterCommit(UUID uuid) {
+    afterCommit(() -> cache.invalidate(uuid));
+  }
+
+  private static Object newer(Object cached, Object offered) {
+    Long cachedVersion = ((DeviceDTO) cached).version();
+    Long offeredVersion = ((DeviceDTO) offered).version();
+    return cachedVersion != null && offeredVersion != null && cachedVersion > offeredVersion
+        ? cached
+        : offered;
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
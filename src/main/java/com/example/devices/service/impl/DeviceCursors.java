@@ -0,0 +1,70 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque cursors. A cursor is the id of the last device a client has
+ * seen; the next slice seeks past it on the primary key instead of skipping rows with OFFSET.
+ * Listings ordered by creation time use a {@link Position} instead, since ids alone do not follow
+ * that order.
+ */
+final class DeviceCursors {
+
+  static final int MAX_LIMIT = 1000;
+
+  private DeviceCursors() {}
+
+  static String encode(long lastSeenId) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(Long.toString(lastSeenId).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /** Returns the id to seek past; a missing cursor starts from the beginning. */
+  static long decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0L;
+    }
+    try {
+      return Long.parseLong(
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException(cursor, e);
+    }
+  }
+
+  /** Where a creation-time ordered slice ended. */
+  record Position(LocalDateTime creationTime, long id) {}
+
+  static String encode(LocalDateTime creationTime, long lastSeenId) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((creationTime + "," + lastSeenId).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /** Returns the position to seek past, or {@code null} for a missing cursor. */
+  static Position decodePosition(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String[] parts =
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(",", 2);
+      if (parts.length != 2) {
+        throw new InvalidCursorException(cursor, null);
+      }
+      return new Position(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new InvalidCursorException(cursor, e);
+    }
+  }
+
+  /** Clamps the requested slice size the same way Spring Data caps page sizes. */
+  static int limit(int requested) {
+    return Math.min(Math.max(requested, 1), MAX_LIMIT);
+  }
+}
@@ -0,0 +1,268 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.config.DevicesProperties;
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.ImportErrorDTO;
+import com.example.devices.dto.ImportReportDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.ImportFormat;
+import com.example.devices.mapper.DeviceMapper;
+import com.example.devices.repository.DeviceRepo;
+import com.example.devices.service.DeviceImportService;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streaming import. The request thread only parses: it fills a chunk of {@code chunkSize} records
+ * and hands it to a writer, which validates it and commits its valid rows in one transaction with
+ * the same multi-row inserts as the bulk endpoint. At most {@code parallelism} chunks are in flight;
+ * when all writers are busy the request thread stops reading, so a fast client is slowed down by
+ * TCP flow control instead of filling the heap.
+ *
+ * <p>Each chunk commits on its own, so an import that stops early (malformed line, database error)
+ * keeps the chunks written before it; the report says how far it got.
+ */
+@Service
+@Timed(value = "devices.service", histogram = true)
+public class DeviceImportServiceImpl implements DeviceImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(DeviceImportServiceImpl.class);
+  private final DeviceRepo deviceRepo;
+  private final DeviceMapper deviceMapper;
+  private final Validator validator;
+  private final DevicesProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ObjectReader ndjsonReader;
+  private final ObjectReader csvReader;
+
+  public DeviceImportServiceImpl(
+      DeviceRepo deviceRepo,
+      DeviceMapper deviceMapper,
+      ObjectMapper objectMapper,
+      Validator validator,
+      DevicesProperties properties,
+      PlatformTransactionManager transactionManager,
+      ApplicationEventPublisher eventPublisher) {
+    this.deviceRepo = deviceRepo;
+    this.deviceMapper = deviceMapper;
+    this.validator = validator;
+    this.properties = properties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
+    this.ndjsonReader = objectMapper.readerFor(CreateDeviceDTO.class);
+    this.csvReader =
+        CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .build()
+            .readerFor(CreateDeviceDTO.class)
+            .with(CsvSchema.emptySchema().withHeader());
+  }
+
+  @Override
+  public ImportReportDTO importDevices(InputStream body, ImportFormat format) {
+    DevicesProperties.Imports settings = properties.imports();
+    log.info("Importing devices from {} in chunks of {}", format, settings.chunkSize());
+    Progress progress = new Progress(settings.maxReportedErrors());
+    Semaphore writersFree = new Semaphore(settings.parallelism());
+    long processed = 0;
+    try (ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+        MappingIterator<CreateDeviceDTO> records = reader(format).readValues(body)) {
+      List<CreateDeviceDTO> chunk = new ArrayList<>(settings.chunkSize());
+      long chunkStart = 0;
+      JsonProcessingException malformed = null;
+      while (progress.failure.get() == null) {
+        try {
+          if (!records.hasNextValue()) {
+            break;
+          }
+          chunk.add(records.nextValue());
+        } catch (JsonProcessingException e) {
+          malformed = e;
+          break;
+        }
+        processed++;
+        if (chunk.size() == settings.chunkSize()) {
+          submit(writers, writersFree, chunkStart, chunk, progress);
+          chunk = new ArrayList<>(settings.chunkSize());
+          chunkStart = processed;
+        }
+      }
+      // Records before a malformed one are still imported.
+      if (!chunk.isEmpty() && progress.failure.get() == null) {
+        submit(writers, writersFree, chunkStart, chunk, progress);
+      }
+      if (malformed != null) {
+        JsonLocation location = malformed.getLocation();
+        progress.fail(
+            "Malformed record"
+                + (location != null ? " at line " + location.getLineNr() : "")
+                + ": "
+                + malformed.getOriginalMessage());
+      }
+    } catch (IOException e) {
+      progress.fail("Could not read the request body: " + e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      progress.fail("Import interrupted");
+    }
+    // Closing the executor above waited for every chunk, so the counters are final here.
+    ImportReportDTO report = progress.report(processed);
+    log.info(
+        "Imported {} devices, rejected {} of {} records{}",
+        report.imported(),
+        report.rejected(),
+        report.processed(),
+        report.failure() != null ? ", stopped early: " + report.failure() : "");
+    return report;
+  }
+
+  private ObjectReader reader(ImportFormat format) {
+    return switch (format) {
+      case NDJSON -> ndjsonReader;
+      case CSV -> csvReader;
+    };
+  }
+
+  /** Blocks until a writer is free, which is what keeps reading in step with writing. */
+  private void submit(
+      ExecutorService writers,
+      Semaphore writersFree,
+      long chunkStart,
+      List<CreateDeviceDTO> chunk,
+      Progress progress)
+      throws InterruptedException {
+    writersFree.acquire();
+    Map<String, String> logContext = MDC.getCopyOfContextMap();
+    writers.execute(
+        () -> {
+          if (logContext != null) {
+            MDC.setContextMap(logContext);
+          }
+          try {
+            writeChunk(chunkStart, chunk, progress);
+          } catch (RuntimeException e) {
+            log.warn("Import chunk starting at record {} failed", chunkStart, e);
+            progress.fail(
+                "Writing records " + chunkStart + " to " + (chunkStart + chunk.size() - 1)
+                    + " failed: " + e.getMessage());
+          } finally {
+            MDC.clear();
+            writersFree.release();
+          }
+        });
+  }
+
+  private void writeChunk(long chunkStart, List<CreateDeviceDTO> chunk, Progress progress) {
+    LocalDateTime creationTime = LocalDateTime.now();
+    List<Device> accepted = new ArrayList<>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      CreateDeviceDTO deviceDTO = chunk.get(i);
+      List<String> errors = NewDevices.validate(validator, deviceDTO);
+      if (errors.isEmpty()) {
+        accepted.add(NewDevices.toEntity(deviceMapper, deviceDTO, creationTime, properties.leases().ttl()));
+      } else {
+        progress.reject(chunkStart + i, errors);
+      }
+    }
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          NewDevices.insertInBatches(deviceRepo, accepted, properties.bulk().batchSize());
+          eventPublisher.publishEvent(NewDevices.createdEvent(deviceMapper, accepted));
+        });
+    long imported = progress.imported.addAndGet(accepted.size());
+    log.debug(
+        "Committed import chunk starting at record {}, {} devices imported so far",
+        chunkStart,
+        imported);
+  }
+
+  /** Counters shared by the writers of one import. */
+  private static final class Progress {
+
+    private static final Comparator<ImportErrorDTO> BY_RECORD = Comparator.comparingLong(ImportErrorDTO::record);
+
+    private final int maxReportedErrors;
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicReference<String> failure = new AtomicReference<>();
+    /** The lowest records rejected so far, highest first so it is the one to drop. */
+    private final PriorityQueue<ImportErrorDTO> errors = new PriorityQueue<>(BY_RECORD.reversed());
+    /** Writers are virtual threads, which a contended {@code synchronized} would pin. */
+    private final ReentrantLock errorsLock = new ReentrantLock();
+
+    private Progress(int maxReportedErrors) {
+      this.maxReportedErrors = maxReportedErrors;
+    }
+
+    void reject(long record, List<String> messages) {
+      rejected.incrementAndGet();
+      errorsLock.lock();
+      try {
+        // Chunks finish out of order, so keep the lowest records rather than the first reported.
+        if (errors.size() < maxReportedErrors) {
+          errors.add(new ImportErrorDTO(record, messages));
+        } else if (maxReportedErrors > 0 && record < errors.peek().record()) {
+          errors.poll();
+          errors.add(new ImportErrorDTO(record, messages));
+        }
+      } finally {
+        errorsLock.unlock();
+      }
+    }
+
+    /** Keeps the first failure; later ones are usually consequences of it. */
+    void fail(String reason) {
+      failure.compareAndSet(null, reason);
+    }
+
+    ImportReportDTO report(long processed) {
+      List<ImportErrorDTO> reported;
+      errorsLock.lock();
+      try {
+        reported = errors.stream().sorted(BY_RECORD).toList();
+      } finally {
+        errorsLock.unlock();
+      }
+      return new ImportReportDTO(
+          processed,
+          imported.get(),
+          rejected.get(),
+          reported,
+          rejected.get() > reported.size(),
+          failure.get());
+    }
+  }
+}
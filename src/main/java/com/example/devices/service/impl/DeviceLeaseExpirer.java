@@ -0,0 +1,190 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.config.DevicesProperties;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceRowDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.event.DeviceChangedEvent;
+import com.example.devices.event.DevicesCreatedEvent;
+import com.example.devices.mapper.DeviceMapper;
+import com.example.devices.repository.DeviceRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Returns IN_USE devices to AVAILABLE when their lease runs out.
+ *
+ * <p>Deadlines live in a {@link LeaseTimingWheel}: every committed write that leaves a device
+ * leased, be it a checkout, a renewal or any other write into IN_USE, schedules one, and every
+ * {@code devices.leases.tick} the leases that came due are released, {@code
+ * devices.leases.batch-size} per UPDATE. The wheel only says when to look: a lease renewed or
+ * checked in since is left alone because the release locks the rows and checks their state and
+ * deadline again.
+ *
+ * <p>The wheel is in memory, so the database stays the source of truth. At startup the deadlines
+ * of every outstanding lease are loaded back into it, and every {@code devices.leases.sweep-interval}
+ * overdue leases are also looked up directly, which releases those taken through other instances.
+ */
+@Component
+public class DeviceLeaseExpirer {
+
+  private static final Logger log = LoggerFactory.getLogger(DeviceLeaseExpirer.class);
+  private final DeviceRepo deviceRepo;
+  private final DeviceMapper deviceMapper;
+  private final DeviceCache deviceCache;
+  private final int batchSize;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final LeaseTimingWheel wheel;
+  private final Counter released;
+
+  public DeviceLeaseExpirer(
+      DeviceRepo deviceRepo,
+      DeviceMapper deviceMapper,
+      DeviceCache deviceCache,
+      DevicesProperties properties,
+      PlatformTransactionManager transactionManager,
+      ApplicationEventPublisher eventPublisher,
+      MeterRegistry meterRegistry) {
+    this.deviceRepo = deviceRepo;
+    this.deviceMapper = deviceMapper;
+    this.deviceCache = deviceCache;
+    this.batchSize = properties.leases().batchSize();
+    // Read-write on purpose: recovery must not read outstanding leases from a lagging replica.
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
+    this.wheel = new LeaseTimingWheel(properties.leases().tick().toMillis(), System.currentTimeMillis());
+    Gauge.builder("devices.leases.scheduled", wheel, LeaseTimingWheel::size)
+        .description("Lease deadlines waiting in the expiry timer, including superseded ones")
+        .register(meterRegistry);
+    this.released =
+        Counter.builder("devices.leases.expired")
+            .description("Devices returned to AVAILABLE because their lease ran out")
+            .register(meterRegistry);
+  }
+
+  /** Releases what expired while no instance was running, then schedules every other lease. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void recover() {
+    long start = System.nanoTime();
+    int overdue = sweep();
+    long scheduled =
+        transactionTemplate.execute(
+            status -> {
+              long count = 0;
+              try (Stream<DeviceRowDTO> leased = deviceRepo.streamLeasedRows()) {
+                for (Iterator<DeviceRowDTO> it = leased.iterator(); it.hasNext(); count++) {
+                  DeviceRowDTO row = it.next();
+                  wheel.schedule(row.uuid(), toMillis(row.leaseExpiresAt()));
+                }
+              }
+              return count;
+            });
+    log.info("Recovered {} device leases and released {} overdue ones in {} ms",
+        scheduled, overdue, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /** Releases the leases that came due in the wheel since the last tick. */
+  @Scheduled(fixedDelayString = "${devices.leases.tick:1s}")
+  public int expireDue() {
+    List<UUID> due = wheel.advance(System.currentTimeMillis());
+    int expired = 0;
+    for (int from = 0; from < due.size(); from += batchSize) {
+      List<UUID> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+      LocalDateTime now = LocalDateTime.now();
+      expired += transactionTemplate.execute(status -> release(deviceRepo.lockExpiredLeases(batch, now), now));
+    }
+    if (!due.isEmpty()) {
+      log.debug("{} leases came due, {} devices released", due.size(), expired);
+    }
+    return expired;
+  }
+
+  /**
+   * Releases every overdue lease found in the database, whether or not the wheel knows it. Rows
+   * locked elsewhere, e.g. by the sweep of another instance, are skipped.
+   */
+  @Scheduled(
+      initialDelayString = "${devices.leases.sweep-interval:1m}",
+      fixedDelayString = "${devices.leases.sweep-interval:1m}")
+  public int sweep() {
+    int expired = 0;
+    int batch;
+    do {
+      LocalDateTime now = LocalDateTime.now();
+      batch = transactionTemplate.execute(status -> release(deviceRepo.lockOverdueLeases(now, Limit.of(batchSize)), now));
+      expired += batch;
+    } while (batch == batchSize);
+    if (expired > 0) {
+      log.info("Released {} devices with overdue leases", expired);
+    }
+    return expired;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    schedule(event.after());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDevicesCreated(DevicesCreatedEvent event) {
+    event.devices().forEach(this::schedule);
+  }
+
+  private void schedule(DeviceDTO device) {
+    if (device != null && device.leaseExpiresAt() != null && DeviceState.IN_USE.name().equals(device.state())) {
+      wheel.schedule(UUID.fromString(device.uuid()), toMillis(LocalDateTime.parse(device.leaseExpiresAt())));
+    }
+  }
+
+  /** One UPDATE for the locked devices, and the events that keep the cache, stats and search right. */
+  private int release(List<Device> expired, LocalDateTime now) {
+    if (expired.isEmpty()) {
+      return 0;
+    }
+    List<Long> ids = new ArrayList<>(expired.size());
+    List<DeviceDTO> before = new ArrayList<>(expired.size());
+    for (Device device : expired) {
+      ids.add(device.getId());
+      before.add(deviceMapper.toDto(device));
+    }
+    deviceRepo.releaseLeases(ids, now);
+    // The UPDATE cleared the persistence context: these copies are detached and stay unwritten.
+    for (int i = 0; i < expired.size(); i++) {
+      Device device = expired.get(i);
+      device.setState(DeviceState.AVAILABLE);
+      device.setLeaseExpiresAt(null);
+      device.setVersion(device.getVersion() + 1);
+      device.setLastModifiedTime(now);
+      DeviceDTO after = deviceMapper.toDto(device);
+      deviceCache.offerAfterCommit(after);
+      eventPublisher.publishEvent(new DeviceChangedEvent(device.getUuid(), before.get(i), after));
+    }
+    released.increment(expired.size());
+    return expired.size();
+  }
+
+  private static long toMillis(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.DeviceState;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Fast path for JSON Patch documents made only of {@code replace} operations on {@code /name},
+ * {@code /brand} or {@code /state}, which covers nearly every patch clients send. They are applied
+ * straight to the managed entity, without converting it to a tree and back.
+ */
+final class DevicePatches {
+
+  /** {@code values()} clones its array on every call. */
+  private static final DeviceState[] STATES = DeviceState.values();
+
+  private DevicePatches() {}
+
+  /**
+   * Applies {@code patch} to {@code device} if every operation is a simple replace. Returns {@code
+   * false} without touching the device otherwise, so the caller can fall back to the generic engine.
+   */
+  static boolean applySimpleReplaces(JsonNode patch, Device device) {
+    if (!patch.isArray() || patch.isEmpty()) {
+      return false;
+    }
+    for (JsonNode operation : patch) {
+      if (!isSimpleReplace(operation)) {
+        return false;
+      }
+    }
+    for (JsonNode operation : patch) {
+      String value = operation.get("value").textValue();
+      switch (operation.get("path").textValue()) {
+        case "/name" -> device.setName(value);
+        case "/brand" -> device.setBrand(value);
+        case "/state" -> device.setState(DeviceState.valueOf(value));
+        default -> throw new IllegalStateException("Unexpected path " + operation.get("path"));
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSimpleReplace(JsonNode operation) {
+    JsonNode value = operation.get("value");
+    if (!"replace".equals(operation.path("op").textValue())
+        || value == null
+        || !value.isTextual()) {
+      return false;
+    }
+    String path = operation.path("path").textValue();
+    if ("/name".equals(path) || "/brand".equals(path)) {
+      return true;
+    }
+    // Unknown states go through the generic path so they fail exactly as before.
+    return "/state".equals(path) && isDeviceState(value.textValue());
+  }
+
+  private static boolean isDeviceState(String value) {
+    for (DeviceState state : STATES) {
+      if (state.name().equals(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,512 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.dto.DeviceRowDTO;
+import com.example.devices.dto.DeviceSearchHitDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory trigram index over device names and brands.
+ *
+ * <p>Every word of a name or brand is lower-cased, padded with a space on each side and cut into
+ * trigrams ({@code " ip", "iph", ..., "ne "}); each trigram maps to the ascending ids of the
+ * documents containing it. A query word of three or more characters matches any word containing it
+ * and looks up its own trigrams; a two-character word matches word prefixes through its {@code " xy"}
+ * trigram; shorter words are ignored. The posting lists of all trigrams are intersected, starting
+ * with the shortest, and each survivor is checked against the text, because sharing trigrams does
+ * not mean containing the word. The cost depends on how selective the rarest trigram is, not on
+ * how many devices are indexed.
+ *
+ * <p>Documents are append-only. An update adds a new document and marks the old one deleted, so
+ * posting lists stay sorted without inserts in the middle. Once deleted documents outnumber live
+ * ones, the index is compacted. Changes carry the device version, and a change older than the
+ * indexed one is ignored, because listeners can run out of order. A removal leaves a tombstone with
+ * the version the device was deleted at, so a change to it that arrives late cannot bring it back.
+ * Tombstones live through one rebuild, which also keeps the rebuild itself from restoring a device
+ * deleted after its rows were read, and are dropped by the next.
+ *
+ * <p>A rebuild fills a new set of documents without the lock, so searches and changes go on against
+ * the current one meanwhile. Changes from {@link #startRebuild} on are also recorded, and replayed
+ * onto the new documents when they are swapped in; versions make replaying a change the rows
+ * already hold harmless.
+ */
+@Component
+public class DeviceSearchIndex {
+
+  public static final int MAX_LIMIT = 100;
+
+  private static final int MIN_COMPACTION = 1024;
+  private static final Comparator<Hit> WORST_FIRST =
+      Comparator.comparingInt(Hit::score)
+          .thenComparing(Comparator.comparingInt(Hit::nameLength).reversed())
+          .thenComparingInt(Hit::doc);
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private Documents documents = new Documents();
+  /** Version each device was removed at, since the last rebuild. */
+  private Map<UUID, Long> tombstones = new HashMap<>();
+  /** Tombstones from before the last rebuild. */
+  private Map<UUID, Long> previousTombstones = new HashMap<>();
+  /** Changes applied since {@link #startRebuild}; {@code null} while no rebuild runs. */
+  private List<Change> rebuildChanges;
+
+  /**
+   * Indexes a device, or re-indexes it if {@code version} is newer than the indexed one. Ignored if
+   * the device was removed at {@code version} or later.
+   */
+  public void upsert(UUID uuid, String name, String brand, Long version) {
+    long newVersion = version != null ? version : 0L;
+    lock.writeLock().lock();
+    try {
+      if (rebuildChanges != null) {
+        rebuildChanges.add(new Change(uuid, name, brand, newVersion, false));
+      }
+      apply(documents, uuid, name, brand, newVersion);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes a device deleted at {@code version}, and ignores any change to it up to that version. */
+  public void remove(UUID uuid, Long version) {
+    long removedVersion = version != null ? version : 0L;
+    lock.writeLock().lock();
+    try {
+      if (rebuildChanges != null) {
+        rebuildChanges.add(new Change(uuid, null, null, removedVersion, true));
+      }
+      tombstones.merge(uuid, removedVersion, Math::max);
+      documents.remove(uuid);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Starts recording changes for {@link #rebuild}; call it before the rows are read, and end it with
+   * {@link #rebuild} or {@link #abortRebuild}. One rebuild at a time.
+   */
+  public void startRebuild() {
+    lock.writeLock().lock();
+    try {
+      rebuildChanges = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Stops recording changes without touching the index, e.g. because reading the rows failed. */
+  public void abortRebuild() {
+    lock.writeLock().lock();
+    try {
+      rebuildChanges = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the whole index with {@code rows}, read since {@link #startRebuild}. The rows are
+   * indexed without the lock; only the swap, which skips rows of devices removed in the meantime
+   * and replays the changes recorded since {@link #startRebuild}, blocks searches and changes.
+   */
+  public void rebuild(Stream<DeviceRowDTO> rows) {
+    Documents rebuilt = new Documents();
+    rows.forEach(row -> rebuilt.put(row.uuid(), row.name(), row.brand(), row.version() != null ? row.version() : 0L));
+    lock.writeLock().lock();
+    try {
+      List<Change> changes = rebuildChanges != null ? rebuildChanges : List.of();
+      rebuildChanges = null;
+      previousTombstones = tombstones;
+      tombstones = new HashMap<>();
+      for (Map.Entry<UUID, Long> tombstone : previousTombstones.entrySet()) {
+        rebuilt.removeUpTo(tombstone.getKey(), tombstone.getValue());
+      }
+      for (Change change : changes) {
+        if (change.removal()) {
+          tombstones.merge(change.uuid(), change.version(), Math::max);
+          rebuilt.remove(change.uuid());
+        } else {
+          apply(rebuilt, change.uuid(), change.name(), change.brand(), change.version());
+        }
+      }
+      documents = rebuilt;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      documents = new Documents();
+      tombstones.clear();
+      previousTombstones.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.liveCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * The best {@code limit} devices containing every word of {@code query} in their name or brand,
+   * best first. Ties go to the shorter name, then to the device indexed last.
+   */
+  public List<DeviceSearchHitDTO> search(String query, int limit) {
+    List<String> terms = new ArrayList<>();
+    for (String word : normalize(query).split(" ")) {
+      if (word.length() >= 2 && !terms.contains(word)) {
+        terms.add(word);
+      }
+    }
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+    int k = Math.min(Math.max(limit, 1), MAX_LIMIT);
+    lock.readLock().lock();
+    try {
+      return documents.search(terms, k);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void apply(Documents target, UUID uuid, String name, String brand, long version) {
+    if (!removedSince(uuid, version)) {
+      target.put(uuid, name, brand, version);
+    }
+  }
+
+  private boolean removedSince(UUID uuid, long version) {
+    Long removed = tombstones.get(uuid);
+    if (removed == null) {
+      removed = previousTombstones.get(uuid);
+    }
+    return removed != null && version <= removed;
+  }
+
+  /** Later documents win ties, and candidates arrive in document order. */
+  private static boolean beatsWorst(int score, int nameLength, Hit worst) {
+    return score > worst.score || (score == worst.score && nameLength <= worst.nameLength);
+  }
+
+  private static int match(String text, String term, int word, int prefix, int inside) {
+    // Texts start and end with a space and terms contain none, so both neighbours exist.
+    int best = 0;
+    for (int at = text.indexOf(term); at >= 0 && best < word; at = text.indexOf(term, at + 1)) {
+      boolean starts = text.charAt(at - 1) == ' ';
+      if (!starts && term.length() < 3) {
+        continue;
+      }
+      boolean ends = text.charAt(at + term.length()) == ' ';
+      best = Math.max(best, starts ? (ends ? word : prefix) : inside);
+    }
+    return best;
+  }
+
+  private static boolean same(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  /** Lower case, with every run of characters other than letters and digits turned into a space. */
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    StringBuilder normalized = new StringBuilder(text.length());
+    boolean space = true;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        normalized.append(c);
+        space = false;
+      } else if (!space) {
+        normalized.append(' ');
+        space = true;
+      }
+    }
+    return normalized.toString().strip().toLowerCase(Locale.ROOT);
+  }
+
+  private static String padded(String text) {
+    String normalized = normalize(text);
+    return normalized.isEmpty() ? " " : " " + normalized + " ";
+  }
+
+  /** Distinct trigrams of the padded words of both texts, sorted. */
+  private static long[] documentTrigrams(String nameText, String brandText) {
+    long[] trigrams = new long[Math.max(0, nameText.length() - 2) + Math.max(0, brandText.length() - 2)];
+    int count = 0;
+    for (String text : new String[] {nameText, brandText}) {
+      for (int i = 0; i + 3 <= text.length(); i++) {
+        // " a b " holds the words " a " and " b "; skip the trigrams spanning two words.
+        if (text.charAt(i + 1) == ' ') {
+          continue;
+        }
+        trigrams[count++] = trigram(text, i);
+      }
+    }
+    long[] distinct = Arrays.copyOf(trigrams, count);
+    Arrays.sort(distinct);
+    int unique = 0;
+    for (int i = 0; i < distinct.length; i++) {
+      if (i == 0 || distinct[i] != distinct[i - 1]) {
+        distinct[unique++] = distinct[i];
+      }
+    }
+    return Arrays.copyOf(distinct, unique);
+  }
+
+  private static long[] queryTrigrams(String term) {
+    if (term.length() < 3) {
+      return new long[] {trigram(" " + term, 0)};
+    }
+    long[] trigrams = new long[term.length() - 2];
+    for (int i = 0; i < trigrams.length; i++) {
+      trigrams[i] = trigram(term, i);
+    }
+    return trigrams;
+  }
+
+  private static long trigram(String text, int at) {
+    return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+  }
+
+  private record Change(UUID uuid, String name, String brand, long version, boolean removal) {}
+
+  /** The documents and their posting lists; guarded by the index lock once published. */
+  private static final class Documents {
+    private final Map<UUID, Integer> docsByUuid = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private UUID[] uuids = new UUID[1024];
+    private String[] names = new String[1024];
+    private String[] brands = new String[1024];
+    /** Normalized, space-padded words: {@code " iphone 15 pro "}. */
+    private String[] nameTexts = new String[1024];
+    private String[] brandTexts = new String[1024];
+    private long[] versions = new long[1024];
+    private int docCount;
+    private int liveCount;
+
+    /** Indexes a device unless an equal or newer version of it is indexed. */
+    void put(UUID uuid, String name, String brand, long version) {
+      Integer existing = docsByUuid.get(uuid);
+      if (existing != null) {
+        if (versions[existing] > version) {
+          return;
+        }
+        if (same(names[existing], name) && same(brands[existing], brand)) {
+          versions[existing] = version;
+          return;
+        }
+        delete(existing);
+      }
+      add(uuid, name, brand, version);
+      compactIfSparse();
+    }
+
+    void remove(UUID uuid) {
+      Integer existing = docsByUuid.remove(uuid);
+      if (existing != null) {
+        delete(existing);
+        compactIfSparse();
+      }
+    }
+
+    /** Removes a device indexed at {@code version} or earlier. */
+    void removeUpTo(UUID uuid, long version) {
+      Integer existing = docsByUuid.get(uuid);
+      if (existing != null && versions[existing] <= version) {
+        remove(uuid);
+      }
+    }
+
+    List<DeviceSearchHitDTO> search(List<String> terms, int k) {
+      List<Postings> lists = new ArrayList<>();
+      for (String term : terms) {
+        for (long trigram : queryTrigrams(term)) {
+          Postings list = postings.get(trigram);
+          if (list == null) {
+            return List.of();
+          }
+          lists.add(list);
+        }
+      }
+      lists.sort(Comparator.comparingInt(Postings::size));
+      Postings rarest = lists.getFirst();
+      int[] cursors = new int[lists.size()];
+      PriorityQueue<Hit> best = new PriorityQueue<>(k + 1, WORST_FIRST);
+      candidates:
+      for (int i = 0; i < rarest.size; i++) {
+        int doc = rarest.docs[i];
+        if (deleted.get(doc)) {
+          continue;
+        }
+        // Candidates ascend, so every other list is only ever searched forward from its cursor.
+        for (int l = 1; l < lists.size(); l++) {
+          Postings list = lists.get(l);
+          int at = list.seek(doc, cursors[l]);
+          if (at == list.size) {
+            break candidates;
+          }
+          cursors[l] = at;
+          if (list.docs[at] != doc) {
+            continue candidates;
+          }
+        }
+        int score = score(doc, terms);
+        int nameLength = names[doc] != null ? names[doc].length() : 0;
+        // Only allocate for documents that make it into the top k.
+        if (score > 0 && (best.size() < k || beatsWorst(score, nameLength, best.peek()))) {
+          best.add(new Hit(doc, score, nameLength));
+          if (best.size() > k) {
+            best.poll();
+          }
+        }
+      }
+      List<DeviceSearchHitDTO> hits = new ArrayList<>(best.size());
+      while (!best.isEmpty()) {
+        Hit hit = best.poll();
+        hits.add(new DeviceSearchHitDTO(uuids[hit.doc].toString(), names[hit.doc], brands[hit.doc], hit.score));
+      }
+      return hits.reversed();
+    }
+
+    /** Per word: whole word 8, word prefix 4, inside a word 2 in the name; 3, 2, 1 in the brand. */
+    private int score(int doc, List<String> terms) {
+      int total = 0;
+      for (String term : terms) {
+        int termScore = Math.max(match(nameTexts[doc], term, 8, 4, 2), match(brandTexts[doc], term, 3, 2, 1));
+        if (termScore == 0) {
+          return 0;
+        }
+        total += termScore;
+      }
+      return total;
+    }
+
+    private void add(UUID uuid, String name, String brand, long version) {
+      int doc = docCount++;
+      if (doc == uuids.length) {
+        int capacity = doc * 2;
+        uuids = Arrays.copyOf(uuids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        brands = Arrays.copyOf(brands, capacity);
+        nameTexts = Arrays.copyOf(nameTexts, capacity);
+        brandTexts = Arrays.copyOf(brandTexts, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+      }
+      uuids[doc] = uuid;
+      names[doc] = name;
+      brands[doc] = brand;
+      nameTexts[doc] = padded(name);
+      brandTexts[doc] = padded(brand);
+      versions[doc] = version;
+      docsByUuid.put(uuid, doc);
+      liveCount++;
+      index(doc);
+    }
+
+    private void index(int doc) {
+      long[] trigrams = documentTrigrams(nameTexts[doc], brandTexts[doc]);
+      for (long trigram : trigrams) {
+        postings.computeIfAbsent(trigram, t -> new Postings()).add(doc);
+      }
+    }
+
+    private void delete(int doc) {
+      deleted.set(doc);
+      liveCount--;
+    }
+
+    /** Re-numbers the live documents densely and rebuilds the posting lists from them. */
+    private void compactIfSparse() {
+      int dead = docCount - liveCount;
+      if (dead < MIN_COMPACTION || dead < liveCount) {
+        return;
+      }
+      int next = 0;
+      for (int doc = 0; doc < docCount; doc++) {
+        if (deleted.get(doc)) {
+          continue;
+        }
+        uuids[next] = uuids[doc];
+        names[next] = names[doc];
+        brands[next] = brands[doc];
+        nameTexts[next] = nameTexts[doc];
+        brandTexts[next] = brandTexts[doc];
+        versions[next] = versions[doc];
+        docsByUuid.put(uuids[next], next);
+        next++;
+      }
+      Arrays.fill(uuids, next, docCount, null);
+      Arrays.fill(names, next, docCount, null);
+      Arrays.fill(brands, next, docCount, null);
+      Arrays.fill(nameTexts, next, docCount, null);
+      Arrays.fill(brandTexts, next, docCount, null);
+      docCount = next;
+      deleted.clear();
+      postings.clear();
+      for (int doc = 0; doc < docCount; doc++) {
+        index(doc);
+      }
+    }
+  }
+
+  private record Hit(int doc, int score, int nameLength) {}
+
+  /** Ascending document ids; appends only, since new documents always get the highest id. */
+  private static final class Postings {
+    private int[] docs = new int[4];
+    private int size;
+
+    int size() {
+      return size;
+    }
+
+    void add(int doc) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+      }
+      docs[size++] = doc;
+    }
+
+    /**
+     * Position of the first document {@code >= doc} at or after {@code from}, or {@code size}.
+     * Gallops before the binary search, so short skips stay cheap.
+     */
+    int seek(int doc, int from) {
+      int step = 1;
+      int low = from;
+      while (low + step < size && docs[low + step] < doc) {
+        low += step;
+        step <<= 1;
+      }
+      if (low < size && docs[low] >= doc) {
+        return low;
+      }
+      int at = Arrays.binarySearch(docs, low + 1, Math.min(low + step + 1, size), doc);
+      return at >= 0 ? at : -at - 1;
+    }
+  }
+}
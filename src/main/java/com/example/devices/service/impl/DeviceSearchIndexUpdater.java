@@ -0,0 +1,99 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceRowDTO;
+import com.example.devices.event.DeviceChangedEvent;
+import com.example.devices.event.DevicesCreatedEvent;
+import com.example.devices.repository.DeviceRepo;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps {@link DeviceSearchIndex} in step with the database: a full build from the primary before
+ * the application reports ready, then one change per committed write. Writes that bypass {@code
+ * DeviceService} (other instances, SQL run by hand, other applications) are picked up by the
+ * rebuild every {@code devices.search.rebuild-interval}.
+ */
+@Component
+public class DeviceSearchIndexUpdater {
+
+  private static final Logger log = LoggerFactory.getLogger(DeviceSearchIndexUpdater.class);
+  private final DeviceSearchIndex index;
+  private final DeviceRepo deviceRepo;
+  private final TransactionTemplate transactionTemplate;
+  /** The startup build and the scheduled one may overlap; {@link DeviceSearchIndex} takes one at a time. */
+  private final ReentrantLock rebuilding = new ReentrantLock();
+
+  public DeviceSearchIndexUpdater(
+      DeviceSearchIndex index, DeviceRepo deviceRepo, PlatformTransactionManager transactionManager) {
+    this.index = index;
+    this.deviceRepo = deviceRepo;
+    // Read-write on purpose: a read-only transaction could be served by a lagging replica.
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /** Runs before readiness is reported, so load balancers only send searches to a built index. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      initialDelayString = "${devices.search.rebuild-interval:1h}",
+      fixedDelayString = "${devices.search.rebuild-interval:1h}")
+  public void rebuild() {
+    if (!rebuilding.tryLock()) {
+      log.debug("Search index rebuild skipped: another one is running");
+      return;
+    }
+    try {
+      long start = System.nanoTime();
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              // Record changes from before the snapshot is taken, so none committed in between is
+              // lost; replaying one the rows already hold is harmless.
+              index.startRebuild();
+              try (Stream<DeviceRowDTO> rows = deviceRepo.streamAllRows()) {
+                index.rebuild(rows);
+              }
+            });
+      } catch (RuntimeException e) {
+        index.abortRebuild();
+        throw e;
+      }
+      log.info(
+          "Search index built with {} devices in {} ms",
+          index.size(),
+          (System.nanoTime() - start) / 1_000_000);
+    } finally {
+      rebuilding.unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    if (event.after() == null) {
+      index.remove(event.uuid(), event.before() != null ? event.before().version() : null);
+    } else {
+      upsert(event.after());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDevicesCreated(DevicesCreatedEvent event) {
+    for (DeviceDTO device : event.devices()) {
+      upsert(device);
+    }
+  }
+
+  private void upsert(DeviceDTO device) {
+    index.upsert(UUID.fromString(device.uuid()), device.name(), device.brand(), device.version());
+  }
+}
@@ -1,23 +1,56 @@
 package com.example.devices.service.impl;
 
+import com.example.devices.config.DevicesProperties;
+import com.example.devices.dto.BatchGetResultDTO;
+import com.example.devices.dto.BulkCreateResultDTO;
+import com.example.devices.dto.BulkItemResultDTO;
 import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.CursorPageDTO;
 import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceRowDTO;
+import com.example.devices.dto.DeviceSearchHitDTO;
+import com.example.devices.dto.DeviceStatsDTO;
+import com.example.devices.dto.DevicesWatermarkDTO;
 import com.example.devices.dto.UpdateDeviceDTO;
 import com.example.devices.entity.Device;
+import com.example.devices.event.DeviceChangedEvent;
+import com.example.devices.exception.DeviceInUseException;
+import com.example.devices.exception.DeviceStateConflictException;
+import com.example.devices.exception.DeviceVersionMismatchException;
+import com.example.devices.exception.InvalidRequestException;
 import com.example.devices.enumerate.DeviceState;
 import com.example.devices.mapper.DeviceMapper;
+import com.example.devices.repository.DeviceFilter;
 import com.example.devices.repository.DeviceRepo;
 import com.example.devices.service.DeviceService;
+import com.example.devices.support.DeviceUuidFilter;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,18 +59,45 @@ import org.springframework.validation.annotation.Validated;
 
 @Service
 @Validated
+@Timed(value = "devices.service", histogram = true)
 public class DeviceServiceImpl implements DeviceService {
 
   private static final Logger log = LoggerFactory.getLogger(DeviceServiceImpl.class);
   private final DeviceRepo deviceRepo;
   private final DeviceMapper deviceMapper;
   private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final DevicesProperties properties;
+  private final DeviceCache deviceCache;
+  private final DeviceSearchIndex searchIndex;
+  private final DeviceStats stats;
+  private final DeviceUuidFilter uuidFilter;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @PersistenceContext private EntityManager entityManager;
 
   @Autowired
-  public DeviceServiceImpl(DeviceRepo deviceRepo, DeviceMapper deviceMapper, ObjectMapper objectMapper) {
+  public DeviceServiceImpl(
+      DeviceRepo deviceRepo,
+      DeviceMapper deviceMapper,
+      ObjectMapper objectMapper,
+      Validator validator,
+      DevicesProperties properties,
+      DeviceCache deviceCache,
+      DeviceSearchIndex searchIndex,
+      DeviceStats stats,
+      DeviceUuidFilter uuidFilter,
+      ApplicationEventPublisher eventPublisher) {
     this.deviceRepo = deviceRepo;
     this.deviceMapper = deviceMapper;
     this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.properties = properties;
+    this.deviceCache = deviceCache;
+    this.searchIndex = searchIndex;
+    this.stats = stats;
+    this.uuidFilter = uuidFilter;
+    this.eventPublisher = eventPublisher;
   }
 
   @Override
@@ -50,13 +110,44 @@ public class DeviceServiceImpl implements DeviceService {
       log.debug("Device state not provided, defaulting to AVAILABLE");
     }
     Device savedDevice = deviceRepo.save(device);
-    log.info("Device created successfully with UUID: {}", savedDevice.getUuid());
-    return deviceMapper.toDto(savedDevice);
+    log.debug("Device created successfully with UUID: {}", savedDevice.getUuid());
+    DeviceDTO savedDeviceDTO = deviceMapper.toDto(savedDevice);
+    eventPublisher.publishEvent(new DeviceChangedEvent(savedDevice.getUuid(), null, savedDeviceDTO));
+    return savedDeviceDTO;
   }
 
   @Override
   @Transactional
-  public DeviceDTO updateDevice(UpdateDeviceDTO deviceDTO) {
+  public BulkCreateResultDTO createDevices(List<CreateDeviceDTO> deviceDTOs) {
+    log.debug("Bulk creating {} devices", deviceDTOs.size());
+    if (deviceDTOs.size() > properties.bulk().maxItems()) {
+      throw new InvalidRequestException(
+          "A bulk request accepts at most " + properties.bulk().maxItems() + " devices");
+    }
+    LocalDateTime creationTime = LocalDateTime.now();
+    List<BulkItemResultDTO> items = new ArrayList<>(deviceDTOs.size());
+    List<Device> accepted = new ArrayList<>(deviceDTOs.size());
+    for (int i = 0; i < deviceDTOs.size(); i++) {
+      CreateDeviceDTO deviceDTO = deviceDTOs.get(i);
+      List<String> errors = NewDevices.validate(validator, deviceDTO);
+      if (!errors.isEmpty()) {
+        items.add(BulkItemResultDTO.rejected(i, errors));
+        continue;
+      }
+      Device device = NewDevices.toEntity(deviceMapper, deviceDTO, creationTime, properties.leases().ttl());
+      accepted.add(device);
+      items.add(BulkItemResultDTO.created(i, device.getUuid().toString()));
+    }
+
+    NewDevices.insertInBatches(deviceRepo, accepted, properties.bulk().batchSize());
+    eventPublisher.publishEvent(NewDevices.createdEvent(deviceMapper, accepted));
+    log.info("Bulk created {} devices, rejected {}", accepted.size(), items.size() - accepted.size());
+    return new BulkCreateResultDTO(accepted.size(), items.size() - accepted.size(), items);
+  }
+
+  @Override
+  @Transactional
+  public DeviceDTO updateDevice(UpdateDeviceDTO deviceDTO, Long expectedVersion) {
     log.debug("Updating device with UUID: {}", deviceDTO.uuid());
     UUID deviceUuid = UUID.fromString(deviceDTO.uuid());
     Device existingDevice =
@@ -66,84 +157,428 @@ public class DeviceServiceImpl implements DeviceService {
               log.error("Device not found with UUID: {}", deviceUuid);
               return new EntityNotFoundException("Device not found with UUID: " + deviceUuid);
             });
+    checkVersion(existingDevice, expectedVersion);
+    DeviceDTO before = deviceMapper.toDto(existingDevice);
     existingDevice.setName(deviceDTO.name());
     existingDevice.setBrand(deviceDTO.brand());
     existingDevice.setState(DeviceState.valueOf(deviceDTO.state()));
 
-    Device updatedDevice = deviceRepo.save(existingDevice);
-    log.info("Device with UUID {} updated successfully.", updatedDevice.getUuid());
-    return deviceMapper.toDto(updatedDevice);
+    // Flush now so the DTO carries the incremented version and a concurrent write fails here.
+    Device updatedDevice = deviceRepo.saveAndFlush(existingDevice);
+    log.debug("Device with UUID {} updated successfully.", updatedDevice.getUuid());
+    DeviceDTO updatedDeviceDTO = deviceMapper.toDto(updatedDevice);
+    deviceCache.offerAfterCommit(updatedDeviceDTO);
+    eventPublisher.publishEvent(new DeviceChangedEvent(updatedDevice.getUuid(), before, updatedDeviceDTO));
+    return updatedDeviceDTO;
   }
 
   @Override
   @Transactional
-  public DeviceDTO patchDevice(UUID uuid, JsonPatch patch) {
+  public DeviceDTO patchDevice(UUID uuid, JsonNode patch, Long expectedVersion) {
     log.debug("Patching device with UUID: {}", uuid);
     Device existingDevice = deviceRepo.findDeviceByUuid(uuid).orElseThrow(() -> {
         log.error("Device not found with UUID: {}", uuid);
         return new EntityNotFoundException("Device not found with UUID: " + uuid);
     });
+    checkVersion(existingDevice, expectedVersion);
+    DeviceDTO before = deviceMapper.toDto(existingDevice);
+
+    // The device is managed, so dirty checking writes the changes without a merge.
+    if (!DevicePatches.applySimpleReplaces(patch, existingDevice)) {
+        applyJsonPatch(patch, existingDevice);
+    }
+    deviceRepo.flush();
+    log.debug("Device with UUID {} patched successfully.", existingDevice.getUuid());
+    DeviceDTO patchedDeviceDTO = deviceMapper.toDto(existingDevice);
+    deviceCache.offerAfterCommit(patchedDeviceDTO);
+    eventPublisher.publishEvent(new DeviceChangedEvent(existingDevice.getUuid(), before, patchedDeviceDTO));
+    return patchedDeviceDTO;
+  }
 
+  /**
+   * Fails fast when the client edited a stale copy. A writer that slips in after this check is
+   * still caught by the {@code @Version} condition of the UPDATE.
+   */
+  private void checkVersion(Device device, Long expectedVersion) {
+    if (expectedVersion != null && !expectedVersion.equals(device.getVersion())) {
+      log.warn("Device with UUID {} is at version {}, client expected {}",
+          device.getUuid(), device.getVersion(), expectedVersion);
+      throw new DeviceVersionMismatchException(
+          "Device " + device.getUuid() + " has been modified; current version is " + device.getVersion());
+    }
+  }
+
+  /** Generic RFC 6902 path: patches a tree copy of the device and copies the result back. */
+  private void applyJsonPatch(JsonNode patchNode, Device device) {
+    JsonPatch patch;
     try {
-        JsonNode patched = patch.apply(objectMapper.convertValue(existingDevice, JsonNode.class));
+        patch = JsonPatch.fromJson(patchNode);
+    } catch (IOException e) {
+        throw new InvalidRequestException("Malformed JSON Patch: " + e.getMessage(), e);
+    }
+    try {
+        JsonNode patched = patch.apply(objectMapper.convertValue(device, JsonNode.class));
         Device patchedDevice = objectMapper.treeToValue(patched, Device.class);
-        patchedDevice.setId(existingDevice.getId());
-        patchedDevice.setUuid(existingDevice.getUuid());
-        patchedDevice.setCreationTime(existingDevice.getCreationTime());
-
-        Device savedDevice = deviceRepo.save(patchedDevice);
-        log.info("Device with UUID {} patched successfully.", savedDevice.getUuid());
-        return deviceMapper.toDto(savedDevice);
+        device.setName(patchedDevice.getName());
+        device.setBrand(patchedDevice.getBrand());
+        device.setState(patchedDevice.getState());
     } catch (JsonPatchException | JsonProcessingException e) {
-        log.error("Error applying patch to device with UUID: {}", uuid, e);
+        log.error("Error applying patch to device with UUID: {}", device.getUuid(), e);
         throw new RuntimeException("Error applying patch", e);
     }
   }
 
+  /**
+   * Not transactional itself, so a cache hit, or a uuid the filter rules out, never touches a
+   * connection; the lookup behind a miss is a read-only transaction of the repository.
+   */
   @Override
   public DeviceDTO getDeviceByUuid(UUID uuid) {
     log.debug("Fetching device with UUID: {}", uuid);
+    DeviceDTO cached = deviceCache.get(uuid);
+    if (cached != null) {
+      return cached;
+    }
+    if (!uuidFilter.mightExist(uuid)) {
+      log.debug("Device with UUID {} ruled out by the uuid filter", uuid);
+      throw new EntityNotFoundException("Device not found with UUID: " + uuid);
+    }
     Device device =
         deviceRepo
             .findDeviceByUuid(uuid)
             .orElseThrow(() -> {
+              uuidFilter.falsePositive();
               log.error("Device not found with UUID: {}", uuid);
               return new EntityNotFoundException("Device not found with UUID: " + uuid);
             });
-    log.info("Device found with UUID: {}", uuid);
-    return deviceMapper.toDto(device);
+    log.debug("Device found with UUID: {}", uuid);
+    DeviceDTO deviceDTO = deviceMapper.toDto(device);
+    deviceCache.offer(deviceDTO);
+    return deviceDTO;
+  }
+
+  /**
+   * Like {@link #getDeviceByUuid}, not transactional itself: each {@code IN} query is a read-only
+   * transaction of the repository, and a batch answered from the cache and the uuid filter alone
+   * never touches a connection.
+   */
+  @Override
+  public BatchGetResultDTO getDevicesByUuids(List<UUID> uuids) {
+    log.debug("Fetching {} devices by UUID", uuids.size());
+    if (uuids.size() > properties.batchGet().maxItems()) {
+      throw new InvalidRequestException(
+          "A batch lookup accepts at most " + properties.batchGet().maxItems() + " UUIDs");
+    }
+    LinkedHashSet<UUID> requested = new LinkedHashSet<>(uuids);
+    Map<UUID, DeviceDTO> found = new HashMap<>();
+    List<UUID> toLoad = new ArrayList<>();
+    for (UUID uuid : requested) {
+      if (uuid == null) {
+        throw new InvalidRequestException("UUIDs must not be null");
+      }
+      DeviceDTO cached = deviceCache.get(uuid);
+      if (cached != null) {
+        found.put(uuid, cached);
+      } else if (uuidFilter.mightExist(uuid)) {
+        toLoad.add(uuid);
+      }
+    }
+    int chunkSize = properties.batchGet().chunkSize();
+    for (int from = 0; from < toLoad.size(); from += chunkSize) {
+      List<UUID> chunk = toLoad.subList(from, Math.min(from + chunkSize, toLoad.size()));
+      for (DeviceRowDTO row : deviceRepo.findRowsByUuidIn(chunk)) {
+        DeviceDTO device = deviceMapper.toDto(row);
+        deviceCache.offer(device);
+        found.put(row.uuid(), device);
+      }
+    }
+
+    List<DeviceDTO> devices = new ArrayList<>(found.size());
+    List<String> missing = new ArrayList<>(requested.size() - found.size());
+    for (UUID uuid : requested) {
+      DeviceDTO device = found.get(uuid);
+      if (device != null) {
+        devices.add(device);
+      } else {
+        missing.add(uuid.toString());
+      }
+    }
+    for (UUID uuid : toLoad) {
+      if (!found.containsKey(uuid)) {
+        uuidFilter.falsePositive();
+      }
+    }
+    log.debug("Found {} of {} devices, {} loaded in {} queries",
+        devices.size(), requested.size(), toLoad.size(), Math.ceilDiv(toLoad.size(), chunkSize));
+    return new BatchGetResultDTO(devices, missing);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Page<DeviceDTO> getAllDevices(Pageable pageable) {
     log.debug("Fetching all devices for page request: {}", pageable);
-    Page<Device> devicePage = deviceRepo.findAll(pageable);
-    log.info("Found {} devices on page {} of {}", devicePage.getNumberOfElements(), devicePage.getNumber(), devicePage.getTotalPages());
+    Page<DeviceRowDTO> devicePage = deviceRepo.findAllRows(pageable);
+    log.debug("Found {} devices on page {} of {}", devicePage.getNumberOfElements(), devicePage.getNumber(), devicePage.getTotalPages());
     return devicePage.map(deviceMapper::toDto);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Page<DeviceDTO> getDevicesByBrand(String brand, Pageable pageable) {
     log.debug("Fetching devices by brand '{}' for page request: {}", brand, pageable);
-    Page<Device> devicePage = deviceRepo.findByBrand(brand, pageable);
-    log.info("Found {} devices for brand '{}' on page {} of {}", devicePage.getNumberOfElements(), brand, devicePage.getNumber(), devicePage.getTotalPages());
+    Page<DeviceRowDTO> devicePage = deviceRepo.findRowsByBrand(brand, pageable);
+    log.debug("Found {} devices for brand '{}' on page {} of {}", devicePage.getNumberOfElements(), brand, devicePage.getNumber(), devicePage.getTotalPages());
     return devicePage.map(deviceMapper::toDto);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Page<DeviceDTO> getDevicesByState(String state, Pageable pageable) {
     log.debug("Fetching devices by state '{}' for page request: {}", state, pageable);
     DeviceState deviceState = DeviceState.valueOf(state.toUpperCase());
-    Page<Device> devicePage = deviceRepo.findByState(deviceState, pageable);
-    log.info("Found {} devices for state '{}' on page {} of {}", devicePage.getNumberOfElements(), state, devicePage.getNumber(), devicePage.getTotalPages());
+    Page<DeviceRowDTO> devicePage = deviceRepo.findRowsByState(deviceState, pageable);
+    log.debug("Found {} devices for state '{}' on page {} of {}", devicePage.getNumberOfElements(), state, devicePage.getNumber(), devicePage.getTotalPages());
     return devicePage.map(deviceMapper::toDto);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPageDTO<DeviceDTO> getAllDevices(String after, int limit) {
+    log.debug("Fetching all devices after cursor '{}' with limit {}", after, limit);
+    int pageSize = DeviceCursors.limit(limit);
+    List<DeviceRowDTO> devices =
+        deviceRepo.findRowsAfter(DeviceCursors.decode(after), Limit.of(pageSize + 1));
+    log.debug("Found {} devices after cursor '{}'", Math.min(devices.size(), pageSize), after);
+    return toCursorPage(devices, pageSize);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPageDTO<DeviceDTO> getDevicesByBrand(String brand, String after, int limit) {
+    log.debug("Fetching devices by brand '{}' after cursor '{}' with limit {}", brand, after, limit);
+    int pageSize = DeviceCursors.limit(limit);
+    List<DeviceRowDTO> devices =
+        deviceRepo.findRowsByBrandAfter(
+            brand, DeviceCursors.decode(after), Limit.of(pageSize + 1));
+    log.debug("Found {} devices for brand '{}' after cursor '{}'", Math.min(devices.size(), pageSize), brand, after);
+    return toCursorPage(devices, pageSize);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPageDTO<DeviceDTO> getDevicesByState(String state, String after, int limit) {
+    log.debug("Fetching devices by state '{}' after cursor '{}' with limit {}", state, after, limit);
+    DeviceState deviceState = DeviceState.valueOf(state.toUpperCase());
+    int pageSize = DeviceCursors.limit(limit);
+    List<DeviceRowDTO> devices =
+        deviceRepo.findRowsByStateAfter(
+            deviceState, DeviceCursors.decode(after), Limit.of(pageSize + 1));
+    log.debug("Found {} devices for state '{}' after cursor '{}'", Math.min(devices.size(), pageSize), state, after);
+    return toCursorPage(devices, pageSize);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPageDTO<DeviceDTO> filterDevices(
+      String brand, String state, LocalDateTime createdFrom, LocalDateTime createdTo, String after, int limit) {
+    log.debug("Filtering devices by brand '{}', state '{}', created from {} to {} after cursor '{}' with limit {}",
+        brand, state, createdFrom, createdTo, after, limit);
+    DeviceFilter filter = new DeviceFilter(
+        brand, state != null ? DeviceState.valueOf(state.toUpperCase()) : null, createdFrom, createdTo);
+    DeviceCursors.Position position = DeviceCursors.decodePosition(after);
+    int pageSize = DeviceCursors.limit(limit);
+    List<DeviceRowDTO> devices =
+        deviceRepo.findRowsByFilter(
+            filter,
+            position != null ? position.creationTime() : null,
+            position != null ? position.id() : null,
+            pageSize + 1);
+    log.debug("Found {} devices for {} after cursor '{}'", Math.min(devices.size(), pageSize), filter, after);
+    boolean hasNext = devices.size() > pageSize;
+    List<DeviceRowDTO> slice = hasNext ? devices.subList(0, pageSize) : devices;
+    String nextCursor =
+        hasNext ? DeviceCursors.encode(slice.getLast().creationTime(), slice.getLast().id()) : null;
+    return new CursorPageDTO<>(slice.stream().map(deviceMapper::toDto).toList(), pageSize, nextCursor);
+  }
+
+  @Override
+  public Optional<Long> getDeviceVersion(UUID uuid) {
+    DeviceDTO cached = deviceCache.get(uuid);
+    if (cached != null) {
+      return Optional.of(cached.version());
+    }
+    return uuidFilter.mightExist(uuid) ? deviceRepo.findVersionByUuid(uuid) : Optional.empty();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public DevicesWatermarkDTO getDevicesWatermark() {
+    return deviceRepo.findWatermark();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public DevicesWatermarkDTO getDevicesWatermarkByBrand(String brand) {
+    return deviceRepo.findWatermarkByBrand(brand);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public DevicesWatermarkDTO getDevicesWatermarkByState(String state) {
+    return deviceRepo.findWatermarkByState(DeviceState.valueOf(state.toUpperCase()));
+  }
+
+  @Override
+  public List<DeviceSearchHitDTO> searchDevices(String query, int limit) {
+    log.debug("Searching devices for '{}' with limit {}", query, limit);
+    return searchIndex.search(query, limit);
+  }
+
+  @Override
+  public DeviceStatsDTO getDeviceStats() {
+    return stats.snapshot();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public long exportDevices(Consumer<DeviceDTO> sink) {
+    log.debug("Exporting all devices");
+    long exported = 0;
+    try (Stream<Device> devices = deviceRepo.streamAllByOrderByIdAsc()) {
+      for (Iterator<Device> it = devices.iterator(); it.hasNext(); ) {
+        sink.accept(deviceMapper.toDto(it.next()));
+        // Exported rows are never touched again; drop them so the session stays the size of a fetch.
+        if (++exported % DeviceRepo.EXPORT_FETCH_SIZE == 0) {
+          entityManager.clear();
+        }
+      }
+    }
+    log.info("Exported {} devices", exported);
+    return exported;
+  }
+
+  /** Fetching one row beyond the slice tells us whether there is a next one without a COUNT. */
+  private CursorPageDTO<DeviceDTO> toCursorPage(List<DeviceRowDTO> devices, int pageSize) {
+    boolean hasNext = devices.size() > pageSize;
+    List<DeviceRowDTO> slice = hasNext ? devices.subList(0, pageSize) : devices;
+    String nextCursor = hasNext ? DeviceCursors.encode(slice.getLast().id()) : null;
+    return new CursorPageDTO<>(slice.stream().map(deviceMapper::toDto).toList(), pageSize, nextCursor);
+  }
+
   @Override
   @Transactional
   public void deleteDevice(String deviceUuid) {
     log.debug("Deleting device with UUID: {}", deviceUuid);
-    deviceRepo.deleteDeviceByUuid(UUID.fromString(deviceUuid));
-    log.info("Device with UUID {} deleted successfully.", deviceUuid);
+    UUID uuid = UUID.fromString(deviceUuid);
+    // Listeners need the brand and state that were deleted. The DELETE is conditioned on a version,
+    // so whatever copy it matched at that version is exactly what was deleted: the cached one if
+    // there is one, otherwise the row read just before.
+    DeviceDTO before = deviceCache.get(uuid);
+    if (before == null
+        || DeviceState.IN_USE.name().equals(before.state())
+        || deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(uuid, before.version()) == 0) {
+      before = deviceRepo.findRowByUuid(uuid).map(deviceMapper::toDto).orElseThrow(() -> notFound(uuid));
+      if (DeviceState.IN_USE.name().equals(before.state())) {
+        throw inUse(uuid);
+      }
+      if (deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(uuid, before.version()) == 0) {
+        // A write committed between the read and the DELETE. Reading again could return the same
+        // REPEATABLE READ snapshot, so the retry reads the row under a lock instead.
+        Device device = deviceRepo.lockDeviceByUuid(uuid).orElseThrow(() -> notFound(uuid));
+        if (device.getState() == DeviceState.IN_USE) {
+          throw inUse(uuid);
+        }
+        before = deviceMapper.toDto(device);
+        deviceRepo.delete(device);
+        deviceRepo.flush();
+      }
+    }
+    deviceCache.evictAfterCommit(uuid);
+    eventPublisher.publishEvent(new DeviceChangedEvent(uuid, before, null));
+    log.debug("Device with UUID {} deleted successfully.", deviceUuid);
+  }
+
+  /**
+   * One locking SELECT and one UPDATE. The SELECT skips rows other checkouts hold, so claimers do
+   * not serialize on the oldest device: each locks the first one nobody else has and keeps the lock
+   * until it commits, which is what makes the AVAILABLE check and the state change atomic.
+   */
+  @Override
+  @Transactional
+  public DeviceDTO checkoutDevice(String brand) {
+    log.debug("Checking out a device of brand '{}'", brand);
+    List<Device> candidates =
+        brand != null ? deviceRepo.lockAvailableByBrand(brand, Limit.of(1)) : deviceRepo.lockAvailable(Limit.of(1));
+    if (candidates.isEmpty()) {
+      log.debug("No AVAILABLE device of brand '{}' to check out", brand);
+      throw new DeviceStateConflictException(
+          brand != null ? "No AVAILABLE device of brand " + brand : "No AVAILABLE device");
+    }
+    Device device = candidates.getFirst();
+    DeviceDTO before = deviceMapper.toDto(device);
+    device.setState(DeviceState.IN_USE);
+    device.setLeaseExpiresAt(LocalDateTime.now().plus(properties.leases().ttl()));
+    deviceRepo.flush();
+    log.debug("Device with UUID {} checked out", device.getUuid());
+    DeviceDTO checkedOut = deviceMapper.toDto(device);
+    deviceCache.offerAfterCommit(checkedOut);
+    eventPublisher.publishEvent(new DeviceChangedEvent(device.getUuid(), before, checkedOut));
+    return checkedOut;
+  }
+
+  /** A check-in racing another write to the device fails on the {@code @Version} condition. */
+  @Override
+  @Transactional
+  public DeviceDTO checkinDevice(UUID uuid) {
+    log.debug("Checking in device with UUID: {}", uuid);
+    Device device = deviceRepo.findDeviceByUuid(uuid).orElseThrow(() -> notFound(uuid));
+    if (device.getState() != DeviceState.IN_USE) {
+      log.warn("Device with UUID {} is {}, not checked out", uuid, device.getState());
+      throw new DeviceStateConflictException("Device " + uuid + " is not checked out");
+    }
+    DeviceDTO before = deviceMapper.toDto(device);
+    device.setState(DeviceState.AVAILABLE);
+    device.setLeaseExpiresAt(null);
+    deviceRepo.flush();
+    log.debug("Device with UUID {} checked in", uuid);
+    DeviceDTO checkedIn = deviceMapper.toDto(device);
+    deviceCache.offerAfterCommit(checkedIn);
+    eventPublisher.publishEvent(new DeviceChangedEvent(uuid, before, checkedIn));
+    return checkedIn;
   }
+
+  /**
+   * Restarts the lease of a checked out device, which also gives one to a device taken into use
+   * without a checkout. The release of an expired lease holds the row lock, so a renewal racing it
+   * either lands first or finds the device AVAILABLE.
+   */
+  @Override
+  @Transactional
+  public DeviceDTO renewLease(UUID uuid) {
+    log.debug("Renewing the lease of device with UUID: {}", uuid);
+    Device device = deviceRepo.findDeviceByUuid(uuid).orElseThrow(() -> notFound(uuid));
+    if (device.getState() != DeviceState.IN_USE) {
+      log.warn("Device with UUID {} is {}, its lease cannot be renewed", uuid, device.getState());
+      throw new DeviceStateConflictException("Device " + uuid + " is not checked out");
+    }
+    DeviceDTO before = deviceMapper.toDto(device);
+    device.setLeaseExpiresAt(LocalDateTime.now().plus(properties.leases().ttl()));
+    deviceRepo.flush();
+    log.debug("Lease of device with UUID {} renewed until {}", uuid, device.getLeaseExpiresAt());
+    DeviceDTO renewed = deviceMapper.toDto(device);
+    deviceCache.offerAfterCommit(renewed);
+    eventPublisher.publishEvent(new DeviceChangedEvent(uuid, before, renewed));
+    return renewed;
+  }
+
+  private static EntityNotFoundException notFound(UUID uuid) {
+    log.error("Device not found with UUID: {}", uuid);
+    return new EntityNotFoundException("Device not found with UUID: " + uuid);
+  }
+
+  private static DeviceInUseException inUse(UUID uuid) {
+    log.error("Device with UUID {} cannot be deleted while in use", uuid);
+    return new DeviceInUseException("Device cannot be deleted if in use");
+  }
+
 }
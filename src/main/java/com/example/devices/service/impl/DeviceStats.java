@@ -0,0 +1,167 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceStatsDTO;
+import com.example.devices.enumerate.DeviceState;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Device counts per state and per brand, so dashboards do not run a COUNT per question. Writers
+ * apply each committed change as a delta; {@link #reset} replaces everything with counts read from
+ * the database.
+ *
+ * <p>Writes keep landing while the counts are read, so a recount does not discard them: deltas
+ * applied between {@link #startRecount} and {@link #reset} are buffered and replayed on top of the
+ * new counts. The caller starts buffering right after the snapshot the counts are read from has been
+ * taken. Each delta is applied after its transaction commits, so a write committed before the
+ * snapshot whose delta is only applied after {@link #startRecount} is counted twice, and one
+ * committed after the snapshot whose delta was applied before it is lost, until the next recount.
+ * Both need a listener to run late by about the time between taking the snapshot and starting to
+ * buffer, which involves no I/O.
+ *
+ * <p>Deltas run concurrently under the read lock; resets take the write lock. Reads take no lock, so
+ * a snapshot taken during a change may show one half of it, for example a device moved out of one
+ * state but not yet into the other.
+ */
+@Component
+public class DeviceStats {
+
+  private static final DeviceState[] STATES = DeviceState.values();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final LongAdder total = new LongAdder();
+  private final LongAdder[] byState = new LongAdder[STATES.length];
+  private volatile ConcurrentHashMap<String, LongAdder> byBrand = new ConcurrentHashMap<>();
+  private volatile LocalDateTime reconciledAt;
+  /** Deltas applied since {@link #startRecount}; {@code null} while no recount runs. */
+  private volatile ConcurrentLinkedQueue<DeviceDTO[]> recount;
+
+  public DeviceStats() {
+    for (int i = 0; i < byState.length; i++) {
+      byState[i] = new LongAdder();
+    }
+  }
+
+  /** Moves a device from {@code before} to {@code after}; either is {@code null} on create or delete. */
+  public void apply(DeviceDTO before, DeviceDTO after) {
+    lock.readLock().lock();
+    try {
+      ConcurrentLinkedQueue<DeviceDTO[]> buffer = recount;
+      if (buffer != null) {
+        buffer.add(new DeviceDTO[] {before, after});
+      }
+      if (before != null) {
+        add(before, -1);
+      }
+      if (after != null) {
+        add(after, 1);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Starts buffering deltas for {@link #reset}; call it once the snapshot the counts are read from
+   * is open and before reading them, and end it
+   * with {@link #reset} or {@link #abortRecount}. One recount at a time.
+   */
+  public void startRecount() {
+    lock.writeLock().lock();
+    try {
+      recount = new ConcurrentLinkedQueue<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Stops buffering without touching the counters, e.g. because reading the counts failed. */
+  public void abortRecount() {
+    recount = null;
+  }
+
+  /**
+   * Replaces the counters with {@code counts} (brand, then state, to number of devices) read since
+   * {@link #startRecount}, then replays the deltas applied meanwhile.
+   */
+  public void reset(Map<String, Map<DeviceState, Long>> counts) {
+    lock.writeLock().lock();
+    try {
+      List<DeviceDTO[]> applied = recount != null ? new ArrayList<>(recount) : List.of();
+      recount = null;
+      ConcurrentHashMap<String, LongAdder> brands = new ConcurrentHashMap<>();
+      long[] states = new long[STATES.length];
+      long devices = 0;
+      for (Map.Entry<String, Map<DeviceState, Long>> brand : counts.entrySet()) {
+        long brandTotal = 0;
+        for (Map.Entry<DeviceState, Long> state : brand.getValue().entrySet()) {
+          if (state.getKey() != null) {
+            states[state.getKey().ordinal()] += state.getValue();
+          }
+          brandTotal += state.getValue();
+        }
+        if (brand.getKey() != null) {
+          brands.computeIfAbsent(brand.getKey(), b -> new LongAdder()).add(brandTotal);
+        }
+        devices += brandTotal;
+      }
+      for (int i = 0; i < byState.length; i++) {
+        byState[i].reset();
+        byState[i].add(states[i]);
+      }
+      total.reset();
+      total.add(devices);
+      byBrand = brands;
+      for (DeviceDTO[] delta : applied) {
+        if (delta[0] != null) {
+          add(delta[0], -1);
+        }
+        if (delta[1] != null) {
+          add(delta[1], 1);
+        }
+      }
+      reconciledAt = LocalDateTime.now();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public DeviceStatsDTO snapshot() {
+    Map<String, Long> states = new LinkedHashMap<>();
+    for (DeviceState state : STATES) {
+      states.put(state.name(), byState[state.ordinal()].sum());
+    }
+    Map<String, Long> brands = new TreeMap<>();
+    byBrand.forEach(
+        (brand, count) -> {
+          long devices = count.sum();
+          if (devices > 0) {
+            brands.put(brand, devices);
+          }
+        });
+    LocalDateTime reconciled = reconciledAt;
+    return new DeviceStatsDTO(
+        total.sum(), states, brands, reconciled != null ? reconciled.toString() : null);
+  }
+
+  private void add(DeviceDTO device, int delta) {
+    total.add(delta);
+    if (device.state() != null) {
+      byState[DeviceState.valueOf(device.state()).ordinal()].add(delta);
+    }
+    if (device.brand() != null) {
+      byBrand.computeIfAbsent(device.brand(), brand -> new LongAdder()).add(delta);
+    }
+  }
+}
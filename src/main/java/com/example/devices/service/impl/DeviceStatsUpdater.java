@@ -0,0 +1,107 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.dto.DeviceCountDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.event.DeviceChangedEvent;
+import com.example.devices.event.DevicesCreatedEvent;
+import com.example.devices.repository.DeviceRepo;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps {@link DeviceStats} in step with the database: seeded before the application reports
+ * ready, one delta per committed write, and a grouped COUNT every {@code
+ * devices.stats.reconcile-interval} that repairs drift from writes that bypass {@code
+ * DeviceService} or from other instances. Writes committed during the COUNT are replayed on top of
+ * it, so a recount succeeds under any write load.
+ */
+@Component
+public class DeviceStatsUpdater {
+
+  private static final Logger log = LoggerFactory.getLogger(DeviceStatsUpdater.class);
+  private final DeviceStats stats;
+  private final DeviceRepo deviceRepo;
+  private final TransactionTemplate transactionTemplate;
+  /** The seed and the scheduled recount may overlap; {@link DeviceStats} takes one at a time. */
+  private final ReentrantLock recounting = new ReentrantLock();
+
+  public DeviceStatsUpdater(
+      DeviceStats stats, DeviceRepo deviceRepo, PlatformTransactionManager transactionManager) {
+    this.stats = stats;
+    this.deviceRepo = deviceRepo;
+    // Read-write on purpose: a read-only transaction could be served by a lagging replica.
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void seed() {
+    reconcile();
+  }
+
+  /**
+   * Replaces the counters with fresh counts plus the writes applied while counting.
+   *
+   * @return whether the counters were replaced; not when another recount is already running
+   */
+  @Scheduled(
+      initialDelayString = "${devices.stats.reconcile-interval:5m}",
+      fixedDelayString = "${devices.stats.reconcile-interval:5m}")
+  public boolean reconcile() {
+    if (!recounting.tryLock()) {
+      log.debug("Device stats reconciliation skipped: another one is running");
+      return false;
+    }
+    try {
+      long start = System.nanoTime();
+      List<DeviceCountDTO> rows;
+      try {
+        rows =
+            transactionTemplate.execute(
+                status -> {
+                  // Buffer from the snapshot on, not from before the connection was even taken:
+                  // a write committed in between would be both counted and replayed.
+                  deviceRepo.openSnapshot();
+                  stats.startRecount();
+                  return deviceRepo.countByBrandAndState();
+                });
+      } catch (RuntimeException e) {
+        stats.abortRecount();
+        throw e;
+      }
+      Map<String, Map<DeviceState, Long>> counts = new HashMap<>();
+      for (DeviceCountDTO row : rows) {
+        // HashMaps: brand and state are nullable columns.
+        counts.computeIfAbsent(row.brand(), brand -> new HashMap<>()).merge(row.state(), row.devices(), Long::sum);
+      }
+      stats.reset(counts);
+      log.debug("Device stats reconciled from {} groups in {} ms", rows.size(), (System.nanoTime() - start) / 1_000_000);
+      return true;
+    } finally {
+      recounting.unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeviceChanged(DeviceChangedEvent event) {
+    stats.apply(event.before(), event.after());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDevicesCreated(DevicesCreatedEvent event) {
+    for (DeviceDTO device : event.devices()) {
+      stats.apply(null, device);
+    }
+  }
+}
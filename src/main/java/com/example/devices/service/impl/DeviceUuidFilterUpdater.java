@@ -0,0 +1,70 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.entity.DeviceUuidFilterListener;
+import com.example.devices.event.DevicesCreatedEvent;
+import com.example.devices.repository.DeviceRepo;
+import com.example.devices.support.DeviceUuidFilter;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps {@link DeviceUuidFilter} in step with the database: built before the application reports
+ * ready, rebuilt every {@code devices.uuid-filter.rebuild-interval}, which drops deleted devices,
+ * and told about every new device in between.
+ *
+ * <p>New devices are added as they are inserted, before their transaction commits, not after: a
+ * client must never be told that a device it was just given does not exist. A rolled back creation
+ * only leaves a uuid that costs one query until the next rebuild.
+ */
+@Component
+public class DeviceUuidFilterUpdater {
+
+  private static final Logger log = LoggerFactory.getLogger(DeviceUuidFilterUpdater.class);
+  private final DeviceUuidFilter filter;
+  private final DeviceRepo deviceRepo;
+  private final TransactionTemplate transactionTemplate;
+
+  public DeviceUuidFilterUpdater(
+      DeviceUuidFilter filter, DeviceRepo deviceRepo, PlatformTransactionManager transactionManager) {
+    this.filter = filter;
+    this.deviceRepo = deviceRepo;
+    // Read-write on purpose: a lagging replica would leave out the newest devices.
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      initialDelayString = "${devices.uuid-filter.rebuild-interval:1h}",
+      fixedDelayString = "${devices.uuid-filter.rebuild-interval:1h}")
+  public void rebuild() {
+    long start = System.nanoTime();
+    long devices =
+        transactionTemplate.execute(
+            status -> {
+              long count = deviceRepo.count();
+              try (Stream<UUID> uuids = deviceRepo.streamAllUuids()) {
+                filter.rebuild(count, uuids.iterator());
+              }
+              return count;
+            });
+    log.info("Device uuid filter rebuilt from {} devices in {} ms: {} bytes, estimated false positive rate {}",
+        devices, (System.nanoTime() - start) / 1_000_000, filter.sizeInBytes(), filter.falsePositiveRate());
+  }
+
+  /** Bulk inserts skip {@code persist()}, and with it {@link DeviceUuidFilterListener}. */
+  @EventListener
+  public void onDevicesCreated(DevicesCreatedEvent event) {
+    for (DeviceDTO device : event.devices()) {
+      filter.add(UUID.fromString(device.uuid()));
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.devices.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel of lease deadlines. Time advances in ticks of {@code tickMillis}; four
+ * levels of 64 slots cover 64^4 ticks (194 days at one-second ticks), and later deadlines wait in an
+ * overflow list. Scheduling is O(1), and advancing costs O(1) per tick plus the entries it moves:
+ * an entry is moved down at most once per level before it comes due.
+ *
+ * <p>An entry is stored as three longs in its slot (the uuid's two halves and its deadline tick), so
+ * millions of outstanding leases take tens of megabytes and no object per lease. Entries are never
+ * cancelled: a lease that was renewed or checked in still comes due, and the release checks the
+ * database before acting on it.
+ *
+ * <p>Leases are scheduled from request threads and drained by the scheduler. A {@code
+ * ReentrantLock} rather than {@code synchronized} keeps virtual threads from pinning on it.
+ */
+final class LeaseTimingWheel {
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int LEVELS = 4;
+
+  private final long tickMillis;
+  /** Slots are created on first use and dropped when drained, so an idle wheel stays small. */
+  private final Slot[][] levels = new Slot[LEVELS][SLOTS];
+  private final Slot overflow = new Slot();
+  private final List<UUID> due = new ArrayList<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private long currentTick;
+  private int size;
+
+  LeaseTimingWheel(long tickMillis, long nowMillis) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("Tick must be positive: " + tickMillis + " ms");
+    }
+    this.tickMillis = tickMillis;
+    this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+  }
+
+  /** Makes {@code uuid} due at the first tick at or after {@code deadlineMillis}. */
+  void schedule(UUID uuid, long deadlineMillis) {
+    long deadlineTick = Math.ceilDiv(deadlineMillis, tickMillis);
+    lock.lock();
+    try {
+      place(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), deadlineTick);
+      size++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Moves time forward to {@code nowMillis} and returns every lease that came due on the way. */
+  List<UUID> advance(long nowMillis) {
+    long targetTick = Math.floorDiv(nowMillis, tickMillis);
+    lock.lock();
+    try {
+      // Nothing to move past: an empty wheel jumps straight to the target.
+      while (currentTick < targetTick && size > due.size()) {
+        currentTick++;
+        // Highest level first, so entries it moves down are moved on again within this tick.
+        for (int level = LEVELS; level > 0; level--) {
+          if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+            if (level == LEVELS) {
+              cascade(overflow);
+            } else {
+              int index = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+              cascade(levels[level][index]);
+              levels[level][index] = null;
+            }
+          }
+        }
+        int index = (int) currentTick & SLOT_MASK;
+        cascade(levels[0][index]);
+        levels[0][index] = null;
+      }
+      currentTick = Math.max(currentTick, targetTick);
+      if (due.isEmpty()) {
+        return List.of();
+      }
+      List<UUID> expired = List.copyOf(due);
+      due.clear();
+      size -= expired.size();
+      return expired;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Leases scheduled and not yet returned by {@link #advance}. */
+  int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * An entry goes to the level of the highest 6-bit group in which its deadline differs from the
+   * current tick, in the slot that group selects. It is moved down when the current tick reaches
+   * that group, and is due once no group differs.
+   */
+  private void place(long msb, long lsb, long deadlineTick) {
+    if (deadlineTick <= currentTick) {
+      due.add(new UUID(msb, lsb));
+      return;
+    }
+    int level = (63 - Long.numberOfLeadingZeros(deadlineTick ^ currentTick)) / SLOT_BITS;
+    if (level >= LEVELS) {
+      overflow.add(msb, lsb, deadlineTick);
+      return;
+    }
+    int index = (int) (deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    Slot slot = levels[level][index];
+    if (slot == null) {
+      slot = levels[level][index] = new Slot();
+    }
+    slot.add(msb, lsb, deadlineTick);
+  }
+
+  /** Re-places every entry of {@code slot} relative to the current tick, then empties it. */
+  private void cascade(Slot slot) {
+    if (slot == null || slot.length == 0) {
+      return;
+    }
+    long[] entries = slot.entries;
+    int length = slot.length;
+    slot.entries = Slot.EMPTY;
+    slot.length = 0;
+    for (int i = 0; i < length; i += 3) {
+      place(entries[i], entries[i + 1], entries[i + 2]);
+    }
+  }
+
+  /** Growable array of (uuid msb, uuid lsb, deadline tick) triples. */
+  private static final class Slot {
+
+    private static final long[] EMPTY = {};
+
+    private long[] entries = EMPTY;
+    private int length;
+
+    void add(long msb, long lsb, long deadlineTick) {
+      if (length == entries.length) {
+        entries = Arrays.copyOf(entries, Math.max(12, entries.length * 2));
+      }
+      entries[length++] = msb;
+      entries[length++] = lsb;
+      entries[length++] = deadlineTick;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.devices.service.impl;
+
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.support.UuidV7;
+import com.example.devices.event.DevicesCreatedEvent;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.mapper.DeviceMapper;
+import com.example.devices.repository.DeviceRepo;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Validation and row building shared by the bulk create and the streaming import. */
+final class NewDevices {
+
+  private NewDevices() {}
+
+  /** The same rules {@code @Valid CreateDeviceDTO} enforces, plus a state the mapper can parse. */
+  static List<String> validate(Validator validator, CreateDeviceDTO deviceDTO) {
+    if (deviceDTO == null) {
+      return List.of("Device is required.");
+    }
+    List<String> errors = new ArrayList<>();
+    for (ConstraintViolation<CreateDeviceDTO> violation : validator.validate(deviceDTO)) {
+      errors.add(violation.getMessage());
+    }
+    if (deviceDTO.state() != null) {
+      try {
+        DeviceState.valueOf(deviceDTO.state());
+      } catch (IllegalArgumentException e) {
+        errors.add("Unknown state: " + deviceDTO.state());
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * A new row for a validated DTO. The uuid, and the lease of a device created IN_USE, are set here
+   * because bulk inserts skip persist() and with it the entity listeners.
+   */
+  static Device toEntity(
+      DeviceMapper deviceMapper, CreateDeviceDTO deviceDTO, LocalDateTime creationTime, Duration leaseTtl) {
+    Device device = deviceMapper.toEntity(deviceDTO);
+    if (device.getState() == null) {
+      device.setState(DeviceState.AVAILABLE);
+    }
+    if (device.getState() == DeviceState.IN_USE) {
+      device.setLeaseExpiresAt(creationTime.plus(leaseTtl));
+    }
+    device.setUuid(UuidV7.next());
+    device.setCreationTime(creationTime);
+    return device;
+  }
+
+  /** Writes {@code devices} with one multi-row INSERT per {@code batchSize} rows. */
+  static void insertInBatches(DeviceRepo deviceRepo, List<Device> devices, int batchSize) {
+    for (int from = 0; from < devices.size(); from += batchSize) {
+      deviceRepo.insertAll(devices.subList(from, Math.min(from + batchSize, devices.size())));
+    }
+  }
+
+  /** What in-memory listeners need to know about the rows {@link #insertInBatches} wrote. */
+  static DevicesCreatedEvent createdEvent(DeviceMapper deviceMapper, List<Device> devices) {
+    List<DeviceDTO> created = new ArrayList<>(devices.size());
+    for (Device device : devices) {
+      created.add(deviceMapper.toDto(device));
+    }
+    return new DevicesCreatedEvent(created);
+  }
+}
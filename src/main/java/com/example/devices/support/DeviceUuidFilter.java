@@ -0,0 +1,122 @@
+package com.example.devices.support;
+
+import com.example.devices.config.DevicesProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bloom filter of every device uuid, consulted before a lookup by uuid goes to the database. A uuid
+ * the filter has never seen cannot belong to a device, so scanners and stale clients asking for
+ * unknown devices are answered without a query; a false positive only costs the query they cost
+ * before.
+ *
+ * <p>Devices are added as they are created. A Bloom filter cannot forget, so deleted devices stay
+ * possible until {@code DeviceUuidFilterUpdater} rebuilds the filter from the database every {@code
+ * devices.uuid-filter.rebuild-interval}. Until the first build every uuid is possible.
+ *
+ * <p>Devices created through other instances, or while a rebuild was reading the table, are not in
+ * the filter either. Their uuids are version 7 and carry their creation time, so every version 7
+ * uuid issued from shortly before the current filter was built onwards is let through as well.
+ */
+@Component
+public class DeviceUuidFilter {
+
+  /** Covers clock skew between instances and transactions still open when a rebuild starts. */
+  static final Duration COMMIT_GRACE = Duration.ofMinutes(5);
+
+  private final DevicesProperties.UuidFilter properties;
+  private final Counter rejected;
+  private final Counter falsePositives;
+  private volatile UuidBloomFilter current;
+  /** The filter being filled by a rebuild, which must see every device added meanwhile too. */
+  private volatile UuidBloomFilter building;
+  /** Version 7 uuids issued from this time on are let through. */
+  private volatile long trustedUntilMillis = Long.MAX_VALUE;
+
+  public DeviceUuidFilter(DevicesProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties.uuidFilter();
+    Gauge.builder("devices.uuid.filter.false.positive.rate", this, DeviceUuidFilter::falsePositiveRate)
+        .description("Estimated share of unknown device uuids the filter lets through to the database")
+        .register(meterRegistry);
+    Gauge.builder("devices.uuid.filter.memory", this, DeviceUuidFilter::sizeInBytes)
+        .description("Memory taken by the device uuid filter")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    this.rejected =
+        Counter.builder("devices.uuid.filter.rejected")
+            .description("Lookups of unknown device uuids answered without a query")
+            .register(meterRegistry);
+    this.falsePositives =
+        Counter.builder("devices.uuid.filter.false.positives")
+            .description("Lookups the filter let through that found no device")
+            .register(meterRegistry);
+  }
+
+  /** {@code false} only if no device has {@code uuid}; counted as a rejection. */
+  public boolean mightExist(UUID uuid) {
+    UuidBloomFilter filter = current;
+    if (filter == null
+        || filter.mightContain(uuid)
+        || (uuid.version() == 7 && UuidV7.timestamp(uuid) >= trustedUntilMillis)) {
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  /** Records that a uuid {@link #mightExist} let through belongs to no device. */
+  public void falsePositive() {
+    falsePositives.increment();
+  }
+
+  /** Makes {@code uuid} possible; called for every new device before its transaction commits. */
+  public void add(UUID uuid) {
+    UuidBloomFilter next = building;
+    if (next != null) {
+      next.put(uuid);
+    }
+    UuidBloomFilter filter = current;
+    if (filter != null) {
+      filter.put(uuid);
+    }
+  }
+
+  /**
+   * Replaces the filter with one holding exactly {@code uuids}, sized for twice as many devices or
+   * {@code devices.uuid-filter.expected-devices}, whichever is more. Not thread-safe against itself;
+   * {@link #add} may run concurrently.
+   *
+   * @param devices how many uuids {@code uuids} returns, as counted just before
+   */
+  public void rebuild(long devices, Iterator<UUID> uuids) {
+    UuidBloomFilter next =
+        UuidBloomFilter.create(
+            Math.max(properties.expectedDevices(), 2 * devices), properties.falsePositiveRate());
+    long startedMillis = System.currentTimeMillis();
+    building = next;
+    try {
+      while (uuids.hasNext()) {
+        next.put(uuids.next());
+      }
+      trustedUntilMillis = startedMillis - COMMIT_GRACE.toMillis();
+      current = next;
+    } finally {
+      building = null;
+    }
+  }
+
+  public double falsePositiveRate() {
+    UuidBloomFilter filter = current;
+    return filter != null ? filter.falsePositiveRate() : 1;
+  }
+
+  public long sizeInBytes() {
+    UuidBloomFilter filter = current;
+    return filter != null ? filter.sizeInBytes() : 0;
+  }
+}
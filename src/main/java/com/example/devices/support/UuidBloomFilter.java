@@ -0,0 +1,87 @@
+package com.example.devices.support;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size Bloom filter of UUIDs on an {@link AtomicLongArray}, so that any number of threads can
+ * add and query at once without a lock. A bit once set is never cleared: the filter only grows, and
+ * removing an element means building a new one.
+ *
+ * <p>The {@code k} bit positions come from two 64-bit hashes of the UUID combined as {@code h1 + i *
+ * h2} (Kirsch and Mitzenmacher), which is as good as {@code k} independent hashes for a Bloom filter.
+ */
+final class UuidBloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashes;
+  /** Set bits, counted as they flip; the fill ratio gives the current false-positive rate. */
+  private final LongAdder setBits = new LongAdder();
+
+  private UuidBloomFilter(long bits, int hashes) {
+    int words = Math.toIntExact(Math.ceilDiv(bits, Long.SIZE));
+    this.words = new AtomicLongArray(words);
+    this.bits = (long) words * Long.SIZE;
+    this.hashes = hashes;
+  }
+
+  /** The smallest filter with at most {@code falsePositiveRate} once it holds {@code elements}. */
+  static UuidBloomFilter create(long elements, double falsePositiveRate) {
+    if (elements <= 0 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException(
+          "Invalid Bloom filter size: " + elements + " elements at " + falsePositiveRate);
+    }
+    double ln2 = Math.log(2);
+    long bits = Math.max(Long.SIZE, (long) Math.ceil(-elements * Math.log(falsePositiveRate) / (ln2 * ln2)));
+    int hashes = Math.max(1, (int) Math.round((double) bits / elements * ln2));
+    return new UuidBloomFilter(bits, hashes);
+  }
+
+  void put(UUID uuid) {
+    long h1 = mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+    long h2 = mix(h1 ^ uuid.getLeastSignificantBits()) | 1;
+    for (int i = 0; i < hashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bits);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      if ((words.get(word) & mask) == 0
+          && (words.getAndAccumulate(word, mask, (current, set) -> current | set) & mask) == 0) {
+        setBits.increment();
+      }
+    }
+  }
+
+  /** {@code false} only if {@code uuid} was never added. */
+  boolean mightContain(UUID uuid) {
+    long h1 = mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+    long h2 = mix(h1 ^ uuid.getLeastSignificantBits()) | 1;
+    for (int i = 0; i < hashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bits);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Chance that a UUID never added is reported as present, given the bits set so far. */
+  double falsePositiveRate() {
+    return Math.pow((double) setBits.sum() / bits, hashes);
+  }
+
+  long sizeInBytes() {
+    return (long) words.length() * Long.BYTES;
+  }
+
+  /** Finalizer of MurmurHash3: spreads every input bit over the whole output. */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
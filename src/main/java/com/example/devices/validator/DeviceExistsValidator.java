@@ -1,5 +1,6 @@
 package com.example.devices.validator;
 import com.example.devices.repository.DeviceRepo;
+import com.example.devices.support.DeviceUuidFilter;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import java.util.UUID;
@@ -9,13 +10,25 @@ import org.springframework.stereotype.Component;
 public class DeviceExistsValidator implements ConstraintValidator<DeviceExists, String> {
 
     private final DeviceRepo deviceRepo;
+    private final DeviceUuidFilter uuidFilter;
 
-    public DeviceExistsValidator(DeviceRepo deviceRepo) {
+    public DeviceExistsValidator(DeviceRepo deviceRepo, DeviceUuidFilter uuidFilter) {
         this.deviceRepo = deviceRepo;
+        this.uuidFilter = uuidFilter;
     }
 
     @Override
     public boolean isValid(String deviceUuid, ConstraintValidatorContext context) {
-        return deviceRepo.existsDeviceByUuid(UUID.fromString(deviceUuid));
+        // Loading (rather than an exists query) leaves the device in the persistence context for the
+        // other constraints and the service method of the same transaction.
+        UUID uuid = UUID.fromString(deviceUuid);
+        if (!uuidFilter.mightExist(uuid)) {
+            return false;
+        }
+        if (deviceRepo.findDeviceByUuid(uuid).isEmpty()) {
+            uuidFilter.falsePositive();
+            return false;
+        }
+        return true;
     }
 }
\ No newline at end of file
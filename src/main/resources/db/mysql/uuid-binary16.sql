@@ -0,0 +1,22 @@
+-- Converts a textual devices.uuid column (CHAR(36) / VARCHAR) to BINARY(16).
+--
+-- Existing values are kept as they are: they are public identifiers, so rows created before the
+-- switch keep their random (v4) UUIDs and only new rows get time-ordered (v7) ones.
+--
+-- UUID_TO_BIN is called WITHOUT the swap flag. The application writes the 16 bytes in canonical
+-- order (most significant first), which is already time-ordered for v7; swapping would only help
+-- v1 UUIDs and would make the stored bytes disagree with what Hibernate binds.
+--
+-- Skip this script if SHOW CREATE TABLE devices already reports `uuid` binary(16).
+
+ALTER TABLE devices ADD COLUMN uuid_bin BINARY(16) NULL AFTER uuid;
+
+-- On large tables run this in id ranges (e.g. 50 000 rows per statement) to keep transactions
+-- and replication lag small:
+--   UPDATE devices SET uuid_bin = UUID_TO_BIN(uuid) WHERE id BETWEEN ? AND ? AND uuid_bin IS NULL;
+UPDATE devices SET uuid_bin = UUID_TO_BIN(uuid) WHERE uuid_bin IS NULL;
+
+-- Dropping the old column also drops the single-column unique indexes defined on it.
+ALTER TABLE devices DROP COLUMN uuid;
+ALTER TABLE devices RENAME COLUMN uuid_bin TO uuid;
+ALTER TABLE devices MODIFY uuid BINARY(16) NOT NULL, ADD UNIQUE INDEX idx_uuid (uuid);
@@ -0,0 +1,92 @@
+package com.example.devices.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestBulkheadFilterTest {
+
+  private final RequestBulkheadFilter filter =
+      new RequestBulkheadFilter(1, Duration.ofMillis(50), new ObjectMapper());
+
+  @Test
+  void shouldRejectWith503WhileEverySlotIsTaken() throws Exception {
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder =
+        Thread.ofVirtual()
+            .start(
+                () -> {
+                  try {
+                    filter.doFilter(
+                        request(),
+                        new MockHttpServletResponse(),
+                        (req, res) -> {
+                          entered.countDown();
+                          await(release);
+                        });
+                  } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                  }
+                });
+    assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+    MockHttpServletResponse rejected = new MockHttpServletResponse();
+    AtomicInteger calls = new AtomicInteger();
+    filter.doFilter(request(), rejected, (req, res) -> calls.incrementAndGet());
+
+    assertThat(rejected.getStatus()).isEqualTo(503);
+    assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    assertThat(rejected.getContentAsString()).contains("Service unavailable");
+    assertThat(calls).hasValue(0);
+    assertThat(filter.inFlight()).isEqualTo(1);
+    assertThat(filter.rejected()).isEqualTo(1);
+
+    release.countDown();
+    holder.join();
+    MockHttpServletResponse served = new MockHttpServletResponse();
+    filter.doFilter(request(), served, (req, res) -> calls.incrementAndGet());
+    assertThat(served.getStatus()).isEqualTo(200);
+    assertThat(calls).hasValue(1);
+    assertThat(filter.inFlight()).isZero();
+  }
+
+  @Test
+  void shouldHoldTheSlotUntilAnAsyncResponseCompletes() throws Exception {
+    MockHttpServletRequest streaming = request();
+    streaming.setAsyncSupported(true);
+    FilterChain startsAsync = (req, res) -> req.startAsync();
+    filter.doFilter(streaming, new MockHttpServletResponse(), startsAsync);
+
+    MockHttpServletResponse whileStreaming = new MockHttpServletResponse();
+    filter.doFilter(request(), whileStreaming, (req, res) -> {});
+    assertThat(whileStreaming.getStatus()).isEqualTo(503);
+
+    ((MockAsyncContext) streaming.getAsyncContext()).complete();
+    MockHttpServletResponse afterStreaming = new MockHttpServletResponse();
+    filter.doFilter(request(), afterStreaming, (req, res) -> {});
+    assertThat(afterStreaming.getStatus()).isEqualTo(200);
+  }
+
+  private static MockHttpServletRequest request() {
+    return new MockHttpServletRequest("GET", "/api/v1/devices");
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.example.devices.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.devices.enumerate.RequestLogMode;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestLoggingFilterTest {
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLoggingFilter.class);
+  private final ListAppender<ILoggingEvent> logged = new ListAppender<>();
+
+  @BeforeEach
+  void attachAppender() {
+    logged.start();
+    logger.addAppender(logged);
+  }
+
+  @AfterEach
+  void detachAppender() {
+    logger.detachAppender(logged);
+  }
+
+  @Test
+  void shouldTagLogLinesWithTheCallersRequestIdAndSummarizeTheRequest() throws Exception {
+    MockHttpServletRequest request = request();
+    request.addHeader(RequestLoggingFilter.REQUEST_ID_HEADER, "abc-123");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    AtomicReference<String> requestIdInChain = new AtomicReference<>();
+
+    filter(RequestLogMode.ALL, 0)
+        .doFilter(request, response, (req, res) -> requestIdInChain.set(MDC.get("requestId")));
+
+    assertThat(requestIdInChain).hasValue("abc-123");
+    assertThat(response.getHeader(RequestLoggingFilter.REQUEST_ID_HEADER)).isEqualTo("abc-123");
+    assertThat(MDC.get("requestId")).isNull();
+    assertThat(logged.list).singleElement().satisfies(event -> {
+      assertThat(event.getLevel()).isEqualTo(Level.INFO);
+      assertThat(event.getFormattedMessage())
+          .matches("method=GET uri=/api/v1/devices status=200 durationMs=\\d+");
+      assertThat(event.getMDCPropertyMap()).containsEntry("requestId", "abc-123");
+    });
+  }
+
+  @Test
+  void shouldReplaceUnsafeRequestIds() throws Exception {
+    MockHttpServletRequest request = request();
+    request.addHeader(RequestLoggingFilter.REQUEST_ID_HEADER, "forged\nline");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter(RequestLogMode.ALL, 0).doFilter(request, response, (req, res) -> {});
+
+    assertThat(response.getHeader(RequestLoggingFilter.REQUEST_ID_HEADER)).matches("[0-9a-f]{1,16}");
+  }
+
+  @Test
+  void sampledMode_shouldSkipUnsampledRequestsButAlwaysLogServerErrors() throws Exception {
+    RequestLoggingFilter filter = filter(RequestLogMode.SAMPLED, 0);
+
+    filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {});
+    filter.doFilter(
+        request(),
+        new MockHttpServletResponse(),
+        (req, res) -> ((HttpServletResponse) res).setStatus(503));
+
+    assertThat(logged.list).singleElement().satisfies(event -> {
+      assertThat(event.getLevel()).isEqualTo(Level.WARN);
+      assertThat(event.getFormattedMessage()).contains("status=503");
+    });
+  }
+
+  @Test
+  void offMode_shouldLogNothing() throws Exception {
+    FilterChain fails = (req, res) -> ((HttpServletResponse) res).setStatus(500);
+
+    filter(RequestLogMode.OFF, 1).doFilter(request(), new MockHttpServletResponse(), fails);
+
+    assertThat(logged.list).isEmpty();
+  }
+
+  @Test
+  void shouldSummarizeStreamedResponsesWhenTheyComplete() throws Exception {
+    MockHttpServletRequest request = request();
+    request.setAsyncSupported(true);
+
+    filter(RequestLogMode.ALL, 0).doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+    assertThat(logged.list).isEmpty();
+
+    ((MockAsyncContext) request.getAsyncContext()).complete();
+    assertThat(logged.list).singleElement().satisfies(event ->
+        assertThat(event.getMDCPropertyMap()).containsKey("requestId"));
+  }
+
+  private static RequestLoggingFilter filter(RequestLogMode mode, double sampleRate) {
+    return new RequestLoggingFilter(mode, sampleRate, Duration.ofSeconds(10));
+  }
+
+  private static MockHttpServletRequest request() {
+    return new MockHttpServletRequest("GET", "/api/v1/devices");
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.exception.DeviceStateConflictException;
+import com.example.devices.exception.DeviceVersionMismatchException;
+import com.example.devices.service.DeviceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+/** Many writers racing on the same devices. */
+@SpringBootTest
+@ActiveProfiles("test")
+public class DeviceConcurrencyIntegrationTest {
+
+  private static final int THREADS = 16;
+  private static final int ATTEMPTS_PER_THREAD = 25;
+
+  @Autowired private DeviceService deviceService;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void concurrentPatches_shouldApplyEachAcceptedWriteExactlyOnce() throws Exception {
+    DeviceDTO device = deviceService.createDevice(new CreateDeviceDTO("Contended", "Race Brand", "AVAILABLE"));
+    UUID uuid = UUID.fromString(device.uuid());
+    AtomicInteger applied = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> writers = new ArrayList<>();
+
+    for (int t = 0; t < THREADS; t++) {
+      int writer = t;
+      writers.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+          DeviceDTO current = deviceService.getDeviceByUuid(uuid);
+          try {
+            deviceService.patchDevice(uuid, rename("Writer " + writer + "-" + i), current.version());
+            applied.incrementAndGet();
+          } catch (DeviceVersionMismatchException | ObjectOptimisticLockingFailureException e) {
+            rejected.incrementAndGet();
+          }
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : writers) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Every accepted write bumped the version exactly once: none was silently overwritten.
+    assertThat(applied.get() + rejected.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+    assertThat(applied.get()).isPositive();
+    assertThat(rejected.get()).isPositive();
+    assertThat(deviceService.getDeviceByUuid(uuid).version()).isEqualTo(applied.get());
+  }
+
+  @Test
+  void concurrentCheckouts_shouldGiveEachDeviceToExactlyOneClaimer() throws Exception {
+    String brand = "Checkout " + UUID.randomUUID();
+    int devices = THREADS * 4;
+    deviceService.createDevices(
+        IntStream.range(0, devices).mapToObj(i -> new CreateDeviceDTO("Pooled " + i, brand, "AVAILABLE")).toList());
+    Set<String> claimed = ConcurrentHashMap.newKeySet();
+    AtomicInteger duplicates = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> claimers = new ArrayList<>();
+
+    for (int t = 0; t < THREADS; t++) {
+      claimers.add(executor.submit(() -> {
+        start.await();
+        // Claim until the pool is empty; each claimer keeps what it got.
+        while (true) {
+          DeviceDTO device;
+          try {
+            device = deviceService.checkoutDevice(brand);
+          } catch (DeviceStateConflictException e) {
+            return null;
+          }
+          if (!claimed.add(device.uuid())) {
+            duplicates.incrementAndGet();
+          }
+        }
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : claimers) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertThat(duplicates.get()).isZero();
+    assertThat(claimed).hasSize(devices);
+    assertThat(deviceService.getDevicesByBrand(brand, PageRequest.of(0, devices)).getContent())
+        .allSatisfy(device -> assertThat(device.state()).isEqualTo("IN_USE"));
+  }
+
+  private JsonNode rename(String name) {
+    return objectMapper.createArrayNode().add(
+        objectMapper.createObjectNode().put("op", "replace").put("path", "/name").put("value", name));
+  }
+}
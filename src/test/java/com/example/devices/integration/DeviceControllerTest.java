@@ -2,6 +2,10 @@ package com.example.devices.integration;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -10,14 +14,17 @@ import com.example.devices.dto.UpdateDeviceDTO;
 import com.example.devices.entity.Device;
 import com.example.devices.enumerate.DeviceState;
 import com.example.devices.repository.DeviceRepo;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -76,6 +83,41 @@ public class DeviceControllerTest {
                 .andExpect(jsonPath("$.state", is("AVAILABLE")));
     }
 
+    @Test
+    void createDevicesInBulk() throws Exception {
+        List<CreateDeviceDTO> devices = List.of(
+                new CreateDeviceDTO("Bulk Device", "Bulk Brand", "AVAILABLE"),
+                new CreateDeviceDTO("", "Bulk Brand", "AVAILABLE"));
+
+        mockMvc.perform(post("/api/v1/devices/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(devices)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.items[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.items[1].status", is("REJECTED")));
+
+        mockMvc.perform(get("/api/v1/devices/brand/{brand}", "Bulk Brand"))
+                .andExpect(jsonPath("$.content", hasSize(1)));
+    }
+
+    @Test
+    void createDevicesInBulkFromNdjsonIsLeftToImport() throws Exception {
+        String ndjson = "{\"name\":\"Line 1\",\"brand\":\"Nd Brand\"}\n"
+                + "{\"name\":\"Line 2\",\"brand\":\"Nd Brand\",\"state\":\"IN_USE\"}\n";
+
+        mockMvc.perform(post("/api/v1/devices/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isUnsupportedMediaType());
+        mockMvc.perform(post("/api/v1/devices/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)));
+    }
+
     @Test
     void updateDevice() throws Exception {
         UpdateDeviceDTO updateDeviceDTO = new UpdateDeviceDTO(device1.getUuid().toString(), "Updated Name", "Updated Brand", "IN_USE");
@@ -100,15 +142,149 @@ public class DeviceControllerTest {
                 .andExpect(jsonPath("$.name", is("Patched Device Name")));
     }
     
+    @Test
+    void patchDeviceWithGenericOperations() throws Exception {
+        String patchInJson = "[{ \"op\": \"test\", \"path\": \"/brand\", \"value\": \"Samsung\" },"
+                + " { \"op\": \"replace\", \"path\": \"/state\", \"value\": \"INACTIVE\" }]";
+
+        mockMvc.perform(patch("/api/v1/devices/{uuid}", device1.getUuid())
+                        .contentType("application/json-patch+json")
+                        .content(patchInJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("INACTIVE")));
+    }
+
+    @Test
+    void patchDeviceWithMalformedPatch() throws Exception {
+        mockMvc.perform(patch("/api/v1/devices/{uuid}", device1.getUuid())
+                        .contentType("application/json-patch+json")
+                        .content("{ \"op\": \"replace\" }"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateDeviceWithMatchingIfMatch() throws Exception {
+        UpdateDeviceDTO updateDeviceDTO = new UpdateDeviceDTO(device1.getUuid().toString(), "Updated Name", "Samsung", "AVAILABLE");
+
+        mockMvc.perform(put("/api/v1/devices")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDeviceDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    @Test
+    void updateDeviceWithStaleIfMatch() throws Exception {
+        UpdateDeviceDTO updateDeviceDTO = new UpdateDeviceDTO(device1.getUuid().toString(), "Updated Name", "Samsung", "AVAILABLE");
+
+        mockMvc.perform(put("/api/v1/devices")
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDeviceDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchDeviceWithWildcardIfMatch() throws Exception {
+        mockMvc.perform(patch("/api/v1/devices/{uuid}", device1.getUuid())
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType("application/json-patch+json")
+                        .content("[{ \"op\": \"replace\", \"path\": \"/name\", \"value\": \"Any Version\" }]"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    void patchDeviceWithWeakIfMatch() throws Exception {
+        mockMvc.perform(patch("/api/v1/devices/{uuid}", device1.getUuid())
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                        .contentType("application/json-patch+json")
+                        .content("[{ \"op\": \"replace\", \"path\": \"/name\", \"value\": \"Weak\" }]"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void getDeviceByUuid() throws Exception {
         mockMvc.perform(get("/api/v1/devices/{uuid}", device1.getUuid()))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.uuid", is(device1.getUuid().toString())))
+                .andExpect(jsonPath("$.name", is("Samsung Galaxy S23")))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    void getDeviceByUuidNotModified() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/{uuid}", device1.getUuid()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getDeviceByUuidWithStaleIfNoneMatch() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/{uuid}", device1.getUuid()).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is("Samsung Galaxy S23")));
     }
 
+    @Test
+    void getDevicesByStateNotModifiedUntilADeviceChanges() throws Exception {
+        String eTag = mockMvc.perform(get("/api/v1/devices/state/{state}", "IN_USE"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/devices/state/{state}", "IN_USE").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/v1/devices/state/{state}", "IN_USE").param("page", "1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/v1/devices/{uuid}", device1.getUuid())
+                        .contentType("application/json-patch+json")
+                        .content("[{ \"op\": \"replace\", \"path\": \"/state\", \"value\": \"IN_USE\" }]"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/devices/state/{state}", "IN_USE").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    void getAllDevicesWithCursorNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/api/v1/devices").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/devices").param("limit", "10").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void listNotModifiedHandsOutTheWatermarkETag() throws Exception {
+        String pageETag = mockMvc.perform(get("/api/v1/devices").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String watermarkETag = mockMvc.perform(get("/api/v1/devices").param("limit", "10").header(HttpHeaders.IF_NONE_MATCH, pageETag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(pageETag, watermarkETag);
+        mockMvc.perform(get("/api/v1/devices").param("limit", "10").header(HttpHeaders.IF_NONE_MATCH, watermarkETag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/v1/devices/{uuid}", device1.getUuid())
+                        .contentType("application/json-patch+json")
+                        .content("[{ \"op\": \"replace\", \"path\": \"/name\", \"value\": \"Renamed\" }]"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/devices").param("limit", "10").header(HttpHeaders.IF_NONE_MATCH, watermarkETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(watermarkETag)));
+    }
+
     @Test
     void getAllDevices() throws Exception {
         mockMvc.perform(get("/api/v1/devices"))
@@ -118,6 +294,31 @@ public class DeviceControllerTest {
                 .andExpect(jsonPath("$.totalElements", is(2)));
     }
 
+    @Test
+    void getAllDevicesWithCursor() throws Exception {
+        String firstSlice = mockMvc.perform(get("/api/v1/devices").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Samsung Galaxy S23")))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode firstPage = objectMapper.readTree(firstSlice);
+
+        mockMvc.perform(get("/api/v1/devices")
+                        .param("after", firstPage.get("nextCursor").asText())
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name", is("iPhone 15")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void getAllDevicesWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/devices").param("after", "%%%").param("limit", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getDevicesByBrand() throws Exception {
         mockMvc.perform(get("/api/v1/devices/brand/{brand}", "Samsung"))
@@ -136,9 +337,99 @@ public class DeviceControllerTest {
                 .andExpect(jsonPath("$.content[0].name", is("iPhone 15")));
     }
 
+    @Test
+    void getDevicesByStateWithCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/state/{state}", "IN_USE").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name", is("iPhone 15")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
     @Test
     void deleteDevice() throws Exception {
         mockMvc.perform(delete("/api/v1/devices/{uuid}", device1.getUuid().toString()))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    void deleteDeviceInUse() throws Exception {
+        mockMvc.perform(delete("/api/v1/devices/{uuid}", device2.getUuid().toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.messages[0]", is("Device cannot be deleted if in use")));
+    }
+
+    @Test
+    void deleteDeviceNotFound() throws Exception {
+        mockMvc.perform(delete("/api/v1/devices/{uuid}", UUID.randomUUID().toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getDevicesByUuids() throws Exception {
+        UUID unknown = UUID.randomUUID();
+        List<UUID> uuids = List.of(device2.getUuid(), unknown, device1.getUuid());
+
+        mockMvc.perform(post("/api/v1/devices/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(uuids)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.devices", hasSize(2)))
+                .andExpect(jsonPath("$.devices[0].name", is("iPhone 15")))
+                .andExpect(jsonPath("$.devices[1].name", is("Samsung Galaxy S23")))
+                .andExpect(jsonPath("$.missing", is(List.of(unknown.toString()))));
+    }
+
+    @Test
+    void getDevicesByUuidsInvalidUuid() throws Exception {
+        mockMvc.perform(post("/api/v1/devices/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"not-a-uuid\"]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void checkoutDevice() throws Exception {
+        mockMvc.perform(post("/api/v1/devices/checkout").param("brand", "Samsung"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.uuid", is(device1.getUuid().toString())))
+                .andExpect(jsonPath("$.state", is("IN_USE")))
+                .andExpect(jsonPath("$.leaseExpiresAt", notNullValue()));
+    }
+
+    @Test
+    void checkoutDeviceNoneAvailable() throws Exception {
+        mockMvc.perform(post("/api/v1/devices/checkout").param("brand", "Apple"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", is("No AVAILABLE device of brand Apple")));
+    }
+
+    @Test
+    void checkinDevice() throws Exception {
+        mockMvc.perform(post("/api/v1/devices/{uuid}/checkin", device2.getUuid()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("AVAILABLE")))
+                .andExpect(jsonPath("$.leaseExpiresAt", nullValue()));
+    }
+
+    @Test
+    void checkinDeviceNotCheckedOut() throws Exception {
+        mockMvc.perform(post("/api/v1/devices/{uuid}/checkin", device1.getUuid()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void renewLease() throws Exception {
+        mockMvc.perform(post("/api/v1/devices/{uuid}/renew", device2.getUuid()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("IN_USE")))
+                .andExpect(jsonPath("$.leaseExpiresAt", notNullValue()));
+    }
+
+    @Test
+    void renewLeaseOfAvailableDevice() throws Exception {
+        mockMvc.perform(post("/api/v1/devices/{uuid}/renew", device1.getUuid()))
+                .andExpect(status().isConflict());
+    }
 }
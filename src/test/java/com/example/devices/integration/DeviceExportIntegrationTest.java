@@ -0,0 +1,101 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.devices.dto.BulkCreateResultDTO;
+import com.example.devices.dto.BulkItemResultDTO;
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.service.DeviceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/** Not {@code @Transactional}: the export runs on an async thread that must see committed rows. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class DeviceExportIntegrationTest {
+
+  private static final int DEVICES = 2500;
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private DeviceService deviceService;
+  @Autowired private ObjectMapper objectMapper;
+
+  private List<String> uuids;
+
+  @BeforeEach
+  void setUp() {
+    List<CreateDeviceDTO> devices = new ArrayList<>(DEVICES);
+    for (int i = 0; i < DEVICES; i++) {
+      devices.add(new CreateDeviceDTO("Exported " + i, "Export Brand", "AVAILABLE"));
+    }
+    BulkCreateResultDTO result = deviceService.createDevices(devices);
+    uuids = result.items().stream().map(BulkItemResultDTO::uuid).toList();
+  }
+
+  @Test
+  void exportDevices_shouldStreamEveryDeviceAsOneJsonLine() throws Exception {
+    MvcResult started =
+        mockMvc.perform(get("/api/v1/devices/export")).andExpect(request().asyncStarted()).andReturn();
+
+    MvcResult result = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+
+    assertThat(result.getResponse().getContentType()).isEqualTo("application/x-ndjson");
+    assertThat(exportedUuids(result.getResponse().getContentAsString(StandardCharsets.UTF_8)))
+        .containsSubsequence(uuids);
+  }
+
+  @Test
+  void exportDevices_shouldGzipWhenAccepted() throws Exception {
+    MvcResult started =
+        mockMvc
+            .perform(get("/api/v1/devices/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    MvcResult result =
+        mockMvc
+            .perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn();
+
+    assertThat(exportedUuids(gunzip(result.getResponse().getContentAsByteArray())))
+        .containsSubsequence(uuids);
+  }
+
+  private List<String> exportedUuids(String ndjson) throws IOException {
+    assertThat(ndjson).endsWith("\n");
+    List<String> exported = new ArrayList<>();
+    for (String line : ndjson.split("\n")) {
+      exported.add(objectMapper.readValue(line, DeviceDTO.class).uuid());
+    }
+    return exported;
+  }
+
+  private static String gunzip(byte[] body) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.CursorPageDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.service.DeviceService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs every combination of the {@code /filter} conditions, with and without a cursor, and checks
+ * with H2's EXPLAIN that the query seeks on an index covering each filtered column, rather than
+ * scanning the table or seeking on one column and filtering the rest.
+ *
+ * <p>Criteria values are rendered inline so the recorded SQL can be explained as it is. The table
+ * is seeded and analyzed first: on an empty table H2 has no selectivity to choose indexes by.
+ */
+@SpringBootTest(
+    properties = {
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "com.example.devices.integration.SqlStatementRecorder",
+      "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline"
+    })
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DeviceFilterIndexTest {
+
+  private static final String BRAND = "Indexed 7";
+  private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 1, 0, 0);
+  /** The comment H2 puts after the table: the index used and the conditions it seeks on. */
+  private static final Pattern INDEX_COMMENT = Pattern.compile("/\\* PUBLIC\\.(\\w+)(?:: ([^*]*))? \\*/");
+
+  @Autowired private DeviceService deviceService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  void seed() {
+    List<CreateDeviceDTO> devices = new ArrayList<>();
+    DeviceState[] states = DeviceState.values();
+    for (int i = 0; i < 3000; i++) {
+      devices.add(new CreateDeviceDTO("Device " + i, "Indexed " + i % 50, states[i % states.length].name()));
+    }
+    deviceService.createDevices(devices);
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  @AfterAll
+  void cleanUp() {
+    jdbcTemplate.update("delete from devices where brand like 'Indexed %'");
+  }
+
+  /** Bits: brand, state, createdFrom, createdTo, cursor. */
+  static Stream<Integer> combinations() {
+    return IntStream.range(0, 32).boxed();
+  }
+
+  @ParameterizedTest(name = "combination {0}")
+  @MethodSource("combinations")
+  void everyCombinationSeeksOnAnIndex(int combination) {
+    boolean brand = (combination & 1) != 0;
+    boolean state = (combination & 2) != 0;
+    boolean createdFrom = (combination & 4) != 0;
+    boolean createdTo = (combination & 8) != 0;
+    boolean cursor = (combination & 16) != 0;
+
+    String after = cursor ? firstCursor() : null;
+    SqlStatementRecorder.start();
+    CursorPageDTO<DeviceDTO> page =
+        deviceService.filterDevices(
+            brand ? BRAND : null,
+            state ? "AVAILABLE" : null,
+            createdFrom ? FROM : null,
+            createdTo ? FROM.plusYears(100) : null,
+            after,
+            20);
+    List<String> statements = SqlStatementRecorder.stop();
+    assertThat(page.content()).isNotEmpty();
+    assertThat(statements).hasSize(1);
+
+    String plan = explain(statements.getFirst());
+    Matcher index = INDEX_COMMENT.matcher(plan);
+    assertThat(index.find()).as("index comment in %s", plan).isTrue();
+    assertThat(index.group(1)).as(plan).startsWith("IDX_");
+    String seek = index.group(2) != null ? index.group(2) : "";
+    if (brand) {
+      assertThat(seek).as(plan).contains("BRAND =");
+    }
+    if (state) {
+      assertThat(seek).as(plan).contains("STATE =");
+    }
+    if (createdFrom || createdTo || cursor) {
+      assertThat(seek).as(plan).contains("CREATION_TIME");
+    }
+  }
+
+  /** A cursor from a real first slice, so the keyset condition is rendered as the endpoint does. */
+  private String firstCursor() {
+    return deviceService.filterDevices(null, null, null, null, null, 1).nextCursor();
+  }
+
+  /** The limit is the one value Hibernate still binds. */
+  private String explain(String sql) {
+    Object[] limits = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+    Arrays.fill(limits, 21);
+    return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, limits);
+  }
+}
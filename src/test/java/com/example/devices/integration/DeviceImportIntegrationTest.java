@@ -0,0 +1,112 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.devices.dto.ImportErrorDTO;
+import com.example.devices.dto.ImportReportDTO;
+import com.example.devices.service.DeviceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/** Not {@code @Transactional}: every chunk commits in its own transaction on a writer thread. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(
+    properties = {
+      "devices.imports.chunk-size=10",
+      "devices.imports.parallelism=2",
+      "devices.imports.max-reported-errors=2"
+    })
+public class DeviceImportIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private DeviceService deviceService;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void importNdjson_shouldCreateValidRecordsAcrossChunksAndReportRejected() throws Exception {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < 95; i++) {
+      if (i == 17 || i == 42 || i == 80) {
+        body.append("{\"name\":\"\",\"brand\":\"NDJSON Import\"}\n");
+      } else {
+        body.append("{\"name\":\"Imported ").append(i).append("\",\"brand\":\"NDJSON Import\"}\n");
+      }
+    }
+
+    ImportReportDTO report = importDevices("application/x-ndjson", body.toString(), 200);
+
+    assertThat(report.processed()).isEqualTo(95);
+    assertThat(report.imported()).isEqualTo(92);
+    assertThat(report.rejected()).isEqualTo(3);
+    assertThat(report.errors()).extracting(ImportErrorDTO::record).containsExactly(17L, 42L);
+    assertThat(report.errors().get(0).errors()).containsExactly("Name is required.");
+    assertThat(report.errorsTruncated()).isTrue();
+    assertThat(report.failure()).isNull();
+    assertThat(countByBrand("NDJSON Import")).isEqualTo(92);
+  }
+
+  @Test
+  void importCsv_shouldMapColumnsByHeaderAndValidateStates() throws Exception {
+    String body =
+        "brand,name,state\n"
+            + "CSV Import,Router,IN_USE\n"
+            + "CSV Import,Switch,\n"
+            + "CSV Import,Modem,BROKEN\n";
+
+    ImportReportDTO report = importDevices("text/csv", body, 200);
+
+    assertThat(report.imported()).isEqualTo(2);
+    assertThat(report.errors()).containsExactly(new ImportErrorDTO(2, List.of("Unknown state: BROKEN")));
+    assertThat(countByBrand("CSV Import")).isEqualTo(2);
+    assertThat(deviceService.getDevicesByState("IN_USE", PageRequest.of(0, 100)).getContent())
+        .anyMatch(device -> device.name().equals("Router"));
+  }
+
+  @Test
+  void importNdjson_shouldStopAtMalformedLineAndKeepCommittedChunks() throws Exception {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < 25; i++) {
+      body.append("{\"name\":\"Partial ").append(i).append("\",\"brand\":\"Partial Import\"}\n");
+    }
+    body.append("{\"name\": oops}\n");
+    body.append("{\"name\":\"Never read\",\"brand\":\"Partial Import\"}\n");
+
+    ImportReportDTO report = importDevices("application/x-ndjson", body.toString(), 400);
+
+    assertThat(report.failure()).startsWith("Malformed record at line 26");
+    assertThat(report.processed()).isEqualTo(25);
+    assertThat(report.imported()).isEqualTo(25);
+    assertThat(countByBrand("Partial Import")).isEqualTo(25);
+  }
+
+  private ImportReportDTO importDevices(String contentType, String body, int expectedStatus)
+      throws Exception {
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/api/v1/devices/import")
+                    .contentType(contentType)
+                    .content(body.getBytes(StandardCharsets.UTF_8)))
+            .andExpect(status().is(expectedStatus))
+            .andReturn();
+    return objectMapper.readValue(result.getResponse().getContentAsByteArray(), ImportReportDTO.class);
+  }
+
+  private long countByBrand(String brand) {
+    return deviceService.getDevicesByBrand(brand, PageRequest.of(0, 1)).getTotalElements();
+  }
+}
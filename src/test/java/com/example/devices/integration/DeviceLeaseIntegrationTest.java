@@ -0,0 +1,150 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.UpdateDeviceDTO;
+import com.example.devices.service.DeviceService;
+import com.example.devices.service.impl.DeviceLeaseExpirer;
+import java.nio.ByteBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Lease expiry end to end, with a short lease and a fine timer. Deadlines are moved with plain SQL
+ * where a test needs a lease to be overdue, as they would be after a restart or a crashed instance.
+ */
+@SpringBootTest(properties = {"devices.leases.ttl=1s", "devices.leases.tick=100ms"})
+@ActiveProfiles("test")
+public class DeviceLeaseIntegrationTest {
+
+  @Autowired private DeviceService deviceService;
+  @Autowired private DeviceLeaseExpirer leaseExpirer;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void expiredLease_shouldReturnTheDeviceToAvailable() throws Exception {
+    String brand = "Lease " + UUID.randomUUID();
+    deviceService.createDevice(new CreateDeviceDTO("Leased", brand, "AVAILABLE"));
+    DeviceDTO checkedOut = deviceService.checkoutDevice(brand);
+    long idleAvailable = deviceService.getDeviceStats().byState().get("AVAILABLE");
+
+    Thread.sleep(1500);
+    leaseExpirer.expireDue();
+
+    DeviceDTO released = deviceService.getDeviceByUuid(UUID.fromString(checkedOut.uuid()));
+    assertThat(released.state()).isEqualTo("AVAILABLE");
+    assertThat(released.leaseExpiresAt()).isNull();
+    assertThat(released.version()).isEqualTo(checkedOut.version() + 1);
+    assertThat(deviceService.getDeviceStats().byState().get("AVAILABLE")).isEqualTo(idleAvailable + 1);
+    assertThat(deviceService.checkoutDevice(brand).uuid()).isEqualTo(checkedOut.uuid());
+    deviceService.checkinDevice(UUID.fromString(checkedOut.uuid()));
+  }
+
+  @Test
+  void renewedLease_shouldOutliveItsFirstDeadline() throws Exception {
+    String brand = "Lease " + UUID.randomUUID();
+    deviceService.createDevice(new CreateDeviceDTO("Renewed", brand, "AVAILABLE"));
+    UUID uuid = UUID.fromString(deviceService.checkoutDevice(brand).uuid());
+    // A renewal far enough out that only the first, superseded deadline comes due here.
+    jdbcTemplate.update("update devices set lease_expires_at = ? where uuid = ?",
+        LocalDateTime.now().plusHours(1), uuidBytes(uuid));
+
+    Thread.sleep(1500);
+    assertThat(leaseExpirer.expireDue()).isZero();
+
+    assertThat(jdbcTemplate.queryForObject("select state from devices where uuid = ?", String.class, uuidBytes(uuid)))
+        .isEqualTo("IN_USE");
+  }
+
+  @Test
+  void overdueLeaseUnknownToTheTimer_shouldBeReleasedBySweepAndRecovery() {
+    String brand = "Lease " + UUID.randomUUID();
+    DeviceDTO swept = deviceService.createDevice(new CreateDeviceDTO("Swept", brand, "IN_USE"));
+    DeviceDTO recovered = deviceService.createDevice(new CreateDeviceDTO("Recovered", brand, "IN_USE"));
+    // As left by another instance, or by this one before a restart.
+    jdbcTemplate.update("update devices set lease_expires_at = ? where uuid = ?",
+        LocalDateTime.now().minusMinutes(1), uuidBytes(UUID.fromString(swept.uuid())));
+
+    assertThat(leaseExpirer.sweep()).isEqualTo(1);
+    assertThat(deviceService.getDeviceByUuid(UUID.fromString(swept.uuid())).state()).isEqualTo("AVAILABLE");
+
+    jdbcTemplate.update("update devices set lease_expires_at = ? where uuid = ?",
+        LocalDateTime.now().minusMinutes(1), uuidBytes(UUID.fromString(recovered.uuid())));
+    leaseExpirer.recover();
+    assertThat(deviceService.getDeviceByUuid(UUID.fromString(recovered.uuid())).state()).isEqualTo("AVAILABLE");
+  }
+
+  @Test
+  void deviceTakenOutOfUse_shouldLoseItsLease() {
+    String brand = "Lease " + UUID.randomUUID();
+    deviceService.createDevice(new CreateDeviceDTO("Updated", brand, "AVAILABLE"));
+    DeviceDTO checkedOut = deviceService.checkoutDevice(brand);
+    assertThat(checkedOut.leaseExpiresAt()).isNotNull();
+
+    DeviceDTO updated = deviceService.updateDevice(
+        new UpdateDeviceDTO(checkedOut.uuid(), "Updated", brand, "INACTIVE"), null);
+
+    assertThat(updated.leaseExpiresAt()).isNull();
+  }
+
+  @Test
+  void everyWriteIntoUse_shouldLeaseTheDevice() throws Exception {
+    String brand = "Lease " + UUID.randomUUID();
+    DeviceDTO created = deviceService.createDevice(new CreateDeviceDTO("Created", brand, "IN_USE"));
+    String bulkCreated = deviceService.createDevices(List.of(new CreateDeviceDTO("Bulk", brand, "IN_USE")))
+        .items().get(0).uuid();
+    DeviceDTO put = deviceService.createDevice(new CreateDeviceDTO("Put", brand, "AVAILABLE"));
+    put = deviceService.updateDevice(new UpdateDeviceDTO(put.uuid(), "Put", brand, "IN_USE"), null);
+    DeviceDTO patched = deviceService.createDevice(new CreateDeviceDTO("Patched", brand, "AVAILABLE"));
+    patched = deviceService.patchDevice(UUID.fromString(patched.uuid()),
+        objectMapper.readTree("[{\"op\":\"replace\",\"path\":\"/state\",\"value\":\"IN_USE\"}]"), null);
+
+    assertThat(created.leaseExpiresAt()).isNotNull();
+    assertThat(deviceService.getDeviceByUuid(UUID.fromString(bulkCreated)).leaseExpiresAt()).isNotNull();
+    assertThat(put.leaseExpiresAt()).isNotNull();
+    assertThat(patched.leaseExpiresAt()).isNotNull();
+
+    Thread.sleep(1500);
+    leaseExpirer.expireDue();
+
+    for (String uuid : List.of(created.uuid(), bulkCreated, put.uuid(), patched.uuid())) {
+      assertThat(deviceService.getDeviceByUuid(UUID.fromString(uuid)).state()).isEqualTo("AVAILABLE");
+    }
+  }
+
+  @Test
+  void writeToADeviceInUse_shouldKeepItsLease() {
+    String brand = "Lease " + UUID.randomUUID();
+    deviceService.createDevice(new CreateDeviceDTO("Kept", brand, "AVAILABLE"));
+    DeviceDTO checkedOut = deviceService.checkoutDevice(brand);
+    // As stored: the checkout answers with the deadline it computed, before the column rounds it.
+    LocalDateTime lease = jdbcTemplate.queryForObject("select lease_expires_at from devices where uuid = ?",
+        LocalDateTime.class, uuidBytes(UUID.fromString(checkedOut.uuid())));
+
+    try {
+      DeviceDTO updated = deviceService.updateDevice(
+          new UpdateDeviceDTO(checkedOut.uuid(), "Kept", brand, "IN_USE"), null);
+
+      assertThat(LocalDateTime.parse(updated.leaseExpiresAt())).isEqualTo(lease);
+    } finally {
+      deviceService.checkinDevice(UUID.fromString(checkedOut.uuid()));
+    }
+  }
+
+  private static byte[] uuidBytes(UUID uuid) {
+    return ByteBuffer.allocate(16)
+        .putLong(uuid.getMostSignificantBits())
+        .putLong(uuid.getLeastSignificantBits())
+        .array();
+  }
+}
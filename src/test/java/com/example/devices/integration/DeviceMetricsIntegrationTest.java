@@ -0,0 +1,100 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.devices.dto.DeviceDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Uses the in-process Prometheus registry; nothing is scraped or pushed. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class DeviceMetricsIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void requests_shouldBeTimedPerEndpointServiceMethodAndRepositoryMethod() throws Exception {
+    String body =
+        mockMvc
+            .perform(
+                post("/api/v1/devices")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"Metered\",\"brand\":\"Micrometer\"}"))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    DeviceDTO device = objectMapper.readValue(body, DeviceDTO.class);
+    mockMvc.perform(get("/api/v1/devices/brand/Micrometer")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/v1/devices/" + device.uuid())).andExpect(status().isOk());
+
+    Timer endpoint =
+        meterRegistry
+            .get("http.server.requests")
+            .tag("method", "GET")
+            .tag("uri", "/api/v1/devices/brand/{brand}")
+            .tag("status", "200")
+            .timer();
+    assertThat(endpoint.count()).isEqualTo(1);
+    assertThat(endpoint.takeSnapshot().histogramCounts()).isNotEmpty();
+
+    Timer service =
+        meterRegistry
+            .get("devices.service")
+            .tag("class", "com.example.devices.service.impl.DeviceServiceImpl")
+            .tag("method", "createDevice")
+            .tag("exception", "none")
+            .timer();
+    assertThat(service.count()).isEqualTo(1);
+    assertThat(service.takeSnapshot().histogramCounts()).isNotEmpty();
+
+    Timer repository =
+        meterRegistry
+            .get("spring.data.repository.invocations")
+            .tag("repository", "DeviceRepo")
+            .tag("method", "findRowsByBrand")
+            .tag("state", "SUCCESS")
+            .timer();
+    assertThat(repository.count()).isEqualTo(1);
+    assertThat(repository.takeSnapshot().histogramCounts()).isNotEmpty();
+
+    assertThat(meterRegistry.get("hikaricp.connections.max").gauge().value()).isPositive();
+  }
+
+  @Test
+  void prometheusEndpoint_shouldExposeHistogramsAndPoolGauges() throws Exception {
+    mockMvc.perform(get("/api/v1/devices")).andExpect(status().isOk());
+
+    String scrape =
+        mockMvc
+            .perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    assertThat(scrape)
+        .contains("http_server_requests_seconds_bucket{")
+        .contains("devices_service_seconds_bucket{")
+        .contains("spring_data_repository_invocations_seconds_bucket{")
+        .contains("hikaricp_connections_pending{")
+        .contains("devices_requests_rejected_total{");
+  }
+}
@@ -0,0 +1,114 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceSearchHitDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.repository.DeviceRepo;
+import com.example.devices.service.DeviceService;
+import com.example.devices.service.impl.DeviceSearchIndexUpdater;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Not {@code @Transactional}: the index only sees committed changes. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class DeviceSearchIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private DeviceService deviceService;
+  @Autowired private DeviceRepo deviceRepo;
+  @Autowired private DeviceSearchIndexUpdater indexUpdater;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void search_shouldFollowCreatesUpdatesPatchesAndDeletes() throws Exception {
+    DeviceDTO created = deviceService.createDevice(new CreateDeviceDTO("Zephyrus G14", "Asus", null));
+    assertThat(search("zephyrus")).extracting(DeviceSearchHitDTO::uuid).containsExactly(created.uuid());
+
+    deviceService.patchDevice(
+        UUID.fromString(created.uuid()),
+        objectMapper.readTree("[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"Zenbook 14\"}]"),
+        null);
+    assertThat(search("zephyrus")).isEmpty();
+    assertThat(search("zenbook 14")).extracting(DeviceSearchHitDTO::name).containsExactly("Zenbook 14");
+
+    deviceService.deleteDevice(created.uuid());
+    assertThat(search("zenbook")).isEmpty();
+  }
+
+  @Test
+  void search_shouldSeeBulkCreatedDevices() throws Exception {
+    deviceService.createDevices(
+        List.of(
+            new CreateDeviceDTO("Quokka Hub", "Searchable", null),
+            new CreateDeviceDTO("Quokka Hub Mini", "Searchable", null)));
+
+    assertThat(search("quokka hub"))
+        .extracting(DeviceSearchHitDTO::name)
+        .containsExactly("Quokka Hub", "Quokka Hub Mini");
+  }
+
+  @Test
+  void search_shouldNotSeeRolledBackWrites() throws Exception {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.executeWithoutResult(
+        status -> {
+          deviceService.createDevice(new CreateDeviceDTO("Xylophone Controller", "Rollback", null));
+          status.setRollbackOnly();
+        });
+
+    assertThat(search("xylophone")).isEmpty();
+  }
+
+  @Test
+  void rebuild_shouldPickUpRowsWrittenBehindTheServicesBack() throws Exception {
+    deviceRepo.save(
+        Device.builder()
+            .name("Wombat Sensor")
+            .brand("Direct")
+            .state(DeviceState.AVAILABLE)
+            .creationTime(LocalDateTime.now())
+            .build());
+    assertThat(search("wombat")).isEmpty();
+
+    indexUpdater.rebuild();
+
+    assertThat(search("wombat")).extracting(DeviceSearchHitDTO::name).containsExactly("Wombat Sensor");
+  }
+
+  @Test
+  void search_shouldAcceptQueriesWithoutUsableWords() throws Exception {
+    assertThat(search("a ! ?")).isEmpty();
+    mockMvc.perform(get("/api/v1/devices/search")).andExpect(status().isBadRequest());
+  }
+
+  private List<DeviceSearchHitDTO> search(String query) throws Exception {
+    String body =
+        mockMvc
+            .perform(get("/api/v1/devices/search").param("q", query))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(body, new TypeReference<>() {});
+  }
+}
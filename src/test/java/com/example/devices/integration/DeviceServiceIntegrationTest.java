@@ -3,15 +3,28 @@ package com.example.devices.integration;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
+import static com.example.devices.config.CacheConfig.DEVICES_CACHE;
+
+import com.example.devices.dto.BulkCreateResultDTO;
 import com.example.devices.dto.CreateDeviceDTO;
 import com.example.devices.dto.DeviceDTO;
 import com.example.devices.dto.UpdateDeviceDTO;
+import com.example.devices.exception.DeviceInUseException;
 import com.example.devices.service.DeviceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
+import java.util.List;
 import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest()
@@ -19,6 +32,10 @@ import org.springframework.test.context.ActiveProfiles;
 public class DeviceServiceIntegrationTest {
 
   @Autowired private DeviceService deviceService;
+  @Autowired private CacheManager cacheManager;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private ObjectMapper objectMapper;
 
   @Test
   void createDevice_shouldReturnSavedDevice() {
@@ -33,6 +50,24 @@ public class DeviceServiceIntegrationTest {
     assertNotNull(savedDevice.creationTime());
   }
 
+  @Test
+  void createDevices_shouldPersistEveryValidDevice() {
+    List<CreateDeviceDTO> devices =
+        List.of(
+            new CreateDeviceDTO("Bulk 1", "Bulk Brand", "AVAILABLE"),
+            new CreateDeviceDTO("Bulk 2", "Bulk Brand", null),
+            new CreateDeviceDTO(null, "Bulk Brand", "AVAILABLE"));
+
+    BulkCreateResultDTO result = deviceService.createDevices(devices);
+
+    assertThat(result.created()).isEqualTo(2);
+    assertThat(result.rejected()).isEqualTo(1);
+    DeviceDTO second = deviceService.getDeviceByUuid(UUID.fromString(result.items().get(1).uuid()));
+    assertThat(second.name()).isEqualTo("Bulk 2");
+    assertThat(second.state()).isEqualTo("AVAILABLE");
+    assertNotNull(second.creationTime());
+  }
+
   @Test
   void updateDevice_shouldReturnUpdatedDevice() {
     CreateDeviceDTO initialDeviceDTO = new CreateDeviceDTO("Old Name", "Old Brand", "AVAILABLE");
@@ -40,7 +75,7 @@ public class DeviceServiceIntegrationTest {
 
     UpdateDeviceDTO updateDeviceDTO =
         new UpdateDeviceDTO(savedDevice.uuid(), "New Name", "New Brand", "IN_USE");
-    DeviceDTO updatedDevice = deviceService.updateDevice(updateDeviceDTO);
+    DeviceDTO updatedDevice = deviceService.updateDevice(updateDeviceDTO, null);
 
     assertThat(updatedDevice).isNotNull();
     assertThat(updatedDevice.uuid()).isEqualTo(savedDevice.uuid());
@@ -49,6 +84,33 @@ public class DeviceServiceIntegrationTest {
     assertThat(updatedDevice.state()).isEqualTo("IN_USE");
   }
 
+  @Test
+  void updateDevice_shouldValidateAndApplyWithOneSelectAndOneUpdate() {
+    DeviceDTO savedDevice = deviceService.createDevice(new CreateDeviceDTO("Counted", "Count Brand", "IN_USE"));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    deviceService.updateDevice(new UpdateDeviceDTO(savedDevice.uuid(), "Counted", "Count Brand", "AVAILABLE"), null);
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+  }
+
+  @Test
+  void patchDevice_shouldUpdateManagedDeviceWithoutMerge() throws Exception {
+    DeviceDTO savedDevice = deviceService.createDevice(new CreateDeviceDTO("Patched", "Patch Brand", "AVAILABLE"));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    DeviceDTO patchedDevice = deviceService.patchDevice(UUID.fromString(savedDevice.uuid()),
+        objectMapper.readTree("[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"Renamed\"}]"), null);
+
+    assertThat(patchedDevice.name()).isEqualTo("Renamed");
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+  }
+
   @Test
   void updateDevice_shouldThrowExceptionWhenInUseAndNameIsChanged() {
     CreateDeviceDTO initialDeviceDTO = new CreateDeviceDTO("Valid Name", "Valid Brand", "IN_USE");
@@ -60,7 +122,7 @@ public class DeviceServiceIntegrationTest {
     ConstraintViolationException constraintViolationException =
         assertThrows(
             ConstraintViolationException.class,
-            () -> deviceService.updateDevice(invalidUpdateDeviceDTO));
+            () -> deviceService.updateDevice(invalidUpdateDeviceDTO, null));
 
     assertEquals(
         "updateDevice.device: Name and brand properties cannot be updated if the device is in use",
@@ -75,7 +137,7 @@ public class DeviceServiceIntegrationTest {
     ConstraintViolationException constraintViolationException =
         assertThrows(
             ConstraintViolationException.class,
-            () -> deviceService.updateDevice(invalidUpdateDeviceDTO));
+            () -> deviceService.updateDevice(invalidUpdateDeviceDTO, null));
 
     assertEquals(
         "updateDevice.device.uuid: Device not found", constraintViolationException.getMessage());
@@ -93,6 +155,41 @@ public class DeviceServiceIntegrationTest {
     assertThat(foundDevice.name()).isEqualTo("Find Me");
   }
 
+  @Test
+  void getDeviceByUuid_shouldServeFromCacheUntilUpdated() {
+    DeviceDTO savedDevice = deviceService.createDevice(new CreateDeviceDTO("Cached", "Cache Brand", "AVAILABLE"));
+    UUID uuid = UUID.fromString(savedDevice.uuid());
+    Cache cache = cacheManager.getCache(DEVICES_CACHE);
+    double hitsBefore = cacheGets("hit");
+
+    deviceService.getDeviceByUuid(uuid);
+    deviceService.getDeviceByUuid(uuid);
+
+    assertThat(cacheGets("hit")).isEqualTo(hitsBefore + 1);
+    assertThat(cache.get(uuid, DeviceDTO.class).name()).isEqualTo("Cached");
+
+    deviceService.updateDevice(new UpdateDeviceDTO(savedDevice.uuid(), "Renamed", "Cache Brand", "AVAILABLE"), null);
+
+    assertThat(cache.get(uuid, DeviceDTO.class).name()).isEqualTo("Renamed");
+    assertThat(cache.get(uuid, DeviceDTO.class).version()).isEqualTo(1L);
+    assertThat(deviceService.getDeviceByUuid(uuid).name()).isEqualTo("Renamed");
+  }
+
+  @Test
+  void getDeviceVersion_shouldNotLoadTheDevice() {
+    DeviceDTO savedDevice = deviceService.createDevice(new CreateDeviceDTO("Versioned", "Version Brand", "AVAILABLE"));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    assertThat(deviceService.getDeviceVersion(UUID.fromString(savedDevice.uuid()))).contains(0L);
+    assertThat(deviceService.getDeviceVersion(UUID.randomUUID())).isEmpty();
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+
+  private double cacheGets(String result) {
+    return meterRegistry.get("cache.gets").tag("cache", DEVICES_CACHE).tag("result", result).functionCounter().count();
+  }
+
   @Test
   void getDeviceByUuid_shouldThrowExceptionWhenNotFound() {
     UUID nonExistentUuid = UUID.randomUUID();
@@ -121,25 +218,49 @@ public class DeviceServiceIntegrationTest {
   @Test
   void deleteDevice_shouldThrowExceptionWhenNotFound() {
     UUID nonExistentUuid = UUID.randomUUID();
-    ConstraintViolationException constraintViolationException =
+    EntityNotFoundException entityNotFoundException =
         assertThrows(
-            ConstraintViolationException.class,
+            EntityNotFoundException.class,
             () -> deviceService.deleteDevice(nonExistentUuid.toString()));
 
     assertEquals(
-        "deleteDevice.deviceUuid: Device not found", constraintViolationException.getMessage());
+        "Device not found with UUID: " + nonExistentUuid, entityNotFoundException.getMessage());
   }
 
   @Test
   void deleteDevice_shouldThrowExceptionWhenDeviceIsInUse() {
       CreateDeviceDTO initialDeviceDTO = new CreateDeviceDTO("Delete Me", "Delete Brand", "IN_USE");
     DeviceDTO device = deviceService.createDevice(initialDeviceDTO);
-    ConstraintViolationException constraintViolationException =
+    DeviceInUseException deviceInUseException =
         assertThrows(
-            ConstraintViolationException.class, () -> deviceService.deleteDevice(device.uuid()));
+            DeviceInUseException.class, () -> deviceService.deleteDevice(device.uuid()));
 
-    assertEquals(
-        "deleteDevice.deviceUuid: Device cannot be deleted if in use",
-        constraintViolationException.getMessage());
+    assertEquals("Device cannot be deleted if in use", deviceInUseException.getMessage());
+    assertThat(deviceService.getDeviceByUuid(UUID.fromString(device.uuid()))).isNotNull();
+  }
+
+  @Test
+  void deleteDevice_shouldIssueTwoStatements() {
+    DeviceDTO savedDevice = deviceService.createDevice(new CreateDeviceDTO("Counted", "Delete Brand", "AVAILABLE"));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    deviceService.deleteDevice(savedDevice.uuid());
+
+    // The row is read under a lock first so change listeners know what was deleted.
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  @Test
+  void deleteDevice_shouldIssueOneStatementForACachedDevice() {
+    DeviceDTO savedDevice = deviceService.createDevice(new CreateDeviceDTO("Counted", "Delete Brand", "AVAILABLE"));
+    deviceService.getDeviceByUuid(UUID.fromString(savedDevice.uuid()));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    deviceService.deleteDevice(savedDevice.uuid());
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThrows(EntityNotFoundException.class, () -> deviceService.getDeviceByUuid(UUID.fromString(savedDevice.uuid())));
   }
 }
@@ -0,0 +1,133 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceStatsDTO;
+import com.example.devices.dto.UpdateDeviceDTO;
+import com.example.devices.entity.Device;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.exception.DeviceInUseException;
+import com.example.devices.repository.DeviceRepo;
+import com.example.devices.service.DeviceService;
+import com.example.devices.service.impl.DeviceStatsUpdater;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Not {@code @Transactional}: the counters only see committed changes. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class DeviceStatsIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private DeviceService deviceService;
+  @Autowired private DeviceRepo deviceRepo;
+  @Autowired private DeviceStatsUpdater statsUpdater;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void stats_shouldFollowCreatesUpdatesPatchesAndDeletes() throws Exception {
+    String brand = "Stats " + UUID.randomUUID();
+    String otherBrand = brand + " renamed";
+    DeviceStatsDTO initial = stats();
+
+    DeviceDTO created = deviceService.createDevice(new CreateDeviceDTO("Counted", brand, null));
+    DeviceStatsDTO afterCreate = stats();
+    assertThat(afterCreate.total()).isEqualTo(initial.total() + 1);
+    assertThat(afterCreate.byBrand()).containsEntry(brand, 1L);
+    assertThat(afterCreate.byState().get("AVAILABLE")).isEqualTo(initial.byState().get("AVAILABLE") + 1);
+
+    DeviceDTO updated = deviceService.updateDevice(new UpdateDeviceDTO(created.uuid(), "Counted", otherBrand, "AVAILABLE"), null);
+    assertThat(stats().byBrand()).doesNotContainKey(brand).containsEntry(otherBrand, 1L);
+
+    deviceService.patchDevice(
+        UUID.fromString(updated.uuid()),
+        objectMapper.readTree("[{\"op\":\"replace\",\"path\":\"/state\",\"value\":\"IN_USE\"}]"),
+        null);
+    DeviceStatsDTO afterPatch = stats();
+    assertThat(afterPatch.byState().get("AVAILABLE")).isEqualTo(initial.byState().get("AVAILABLE"));
+    assertThat(afterPatch.byState().get("IN_USE")).isEqualTo(initial.byState().get("IN_USE") + 1);
+
+    assertThrows(DeviceInUseException.class, () -> deviceService.deleteDevice(created.uuid()));
+    assertThat(stats()).isEqualTo(afterPatch);
+
+    deviceService.patchDevice(
+        UUID.fromString(created.uuid()),
+        objectMapper.readTree("[{\"op\":\"replace\",\"path\":\"/state\",\"value\":\"INACTIVE\"}]"),
+        null);
+    deviceService.deleteDevice(created.uuid());
+    DeviceStatsDTO afterDelete = stats();
+    assertThat(afterDelete.total()).isEqualTo(initial.total());
+    assertThat(afterDelete.byBrand()).doesNotContainKey(otherBrand);
+    assertThat(afterDelete.byState()).isEqualTo(initial.byState());
+  }
+
+  @Test
+  void stats_shouldCountBulkCreatedDevices() throws Exception {
+    String brand = "Stats " + UUID.randomUUID();
+    deviceService.createDevices(
+        List.of(new CreateDeviceDTO("One", brand, null), new CreateDeviceDTO("Two", brand, "IN_USE")));
+
+    assertThat(stats().byBrand()).containsEntry(brand, 2L);
+  }
+
+  @Test
+  void stats_shouldNotCountRolledBackWrites() throws Exception {
+    String brand = "Stats " + UUID.randomUUID();
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.executeWithoutResult(
+        status -> {
+          deviceService.createDevice(new CreateDeviceDTO("Rolled back", brand, null));
+          status.setRollbackOnly();
+        });
+
+    assertThat(stats().byBrand()).doesNotContainKey(brand);
+  }
+
+  @Test
+  void reconcile_shouldPickUpRowsWrittenBehindTheServicesBack() throws Exception {
+    String brand = "Stats " + UUID.randomUUID();
+    deviceRepo.save(
+        Device.builder()
+            .name("Direct")
+            .brand(brand)
+            .state(DeviceState.INACTIVE)
+            .creationTime(LocalDateTime.now())
+            .build());
+    assertThat(stats().byBrand()).doesNotContainKey(brand);
+
+    assertThat(statsUpdater.reconcile()).isTrue();
+
+    DeviceStatsDTO reconciled = stats();
+    assertThat(reconciled.byBrand()).containsEntry(brand, 1L);
+    assertThat(reconciled.total()).isEqualTo(deviceRepo.count());
+    assertThat(reconciled.reconciledAt()).isNotNull();
+  }
+
+  private DeviceStatsDTO stats() throws Exception {
+    String body =
+        mockMvc
+            .perform(get("/api/v1/devices/stats"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(body, DeviceStatsDTO.class);
+  }
+}
@@ -0,0 +1,150 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.devices.config.CacheConfig;
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.filter.ReadYourWritesFilter;
+import com.example.devices.repository.DeviceRepo;
+import com.example.devices.service.DeviceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Primary and replica are two separate in-memory databases with nothing replicating between them,
+ * so a row written to the primary is visible to reads only when they are routed there.
+ * {@link #replicate()} plays the replication stream. Not {@code @Transactional}: a test transaction
+ * would pin everything to the primary.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(
+    properties = {
+      "spring.datasource.url=" + ReadWriteRoutingIntegrationTest.PRIMARY_URL,
+      "devices.datasource.replicas[0].url=" + ReadWriteRoutingIntegrationTest.REPLICA_URL,
+      "devices.datasource.replicas[0].username=sa",
+      "devices.datasource.replicas[0].password=password",
+      "devices.datasource.read-your-writes-window=1m"
+    })
+public class ReadWriteRoutingIntegrationTest {
+
+  static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+  static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private DeviceService deviceService;
+  @Autowired private DeviceRepo deviceRepo;
+  @Autowired private CacheManager cacheManager;
+  @Autowired private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    deviceRepo.deleteAll();
+    cacheManager.getCache(CacheConfig.DEVICES_CACHE).clear();
+    replicate();
+  }
+
+  @Test
+  void readOnlyTransactions_shouldReadFromTheReplica() throws Exception {
+    deviceService.createDevice(new CreateDeviceDTO("Pixel 9", "Google", "AVAILABLE"));
+
+    assertThat(deviceService.getAllDevices(null, 10).content()).isEmpty();
+    assertThat(deviceService.getDevicesWatermark().count()).isZero();
+
+    replicate();
+
+    assertThat(deviceService.getAllDevices(null, 10).content())
+        .extracting(DeviceDTO::name)
+        .containsExactly("Pixel 9");
+  }
+
+  @Test
+  void readsWithoutTheCookie_shouldSeeReplicationLag() throws Exception {
+    DeviceDTO created = create("Lagging");
+
+    mockMvc.perform(get("/api/v1/devices/" + created.uuid())).andExpect(status().isNotFound());
+
+    replicate();
+
+    mockMvc.perform(get("/api/v1/devices/" + created.uuid())).andExpect(status().isOk());
+  }
+
+  @Test
+  void readsWithTheCookie_shouldSeeTheClientsOwnWrites() throws Exception {
+    MvcResult write = createRequest("Read your writes");
+    DeviceDTO created = objectMapper.readValue(write.getResponse().getContentAsString(), DeviceDTO.class);
+    Cookie pin = write.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+    assertThat(pin).isNotNull();
+    assertThat(pin.getMaxAge()).isEqualTo(60);
+
+    mockMvc.perform(get("/api/v1/devices/" + created.uuid()).cookie(pin)).andExpect(status().isOk());
+    mockMvc.perform(get("/api/v1/devices/brand/Routing?limit=10").cookie(pin))
+        .andExpect(status().isOk())
+        .andExpect(result -> assertThat(result.getResponse().getContentAsString()).contains(created.uuid()));
+  }
+
+  @Test
+  void readsWithAnExpiredCookie_shouldGoToTheReplica() throws Exception {
+    DeviceDTO created = create("Expired pin");
+    Cookie expired =
+        new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() - 1));
+
+    mockMvc.perform(get("/api/v1/devices/" + created.uuid()).cookie(expired))
+        .andExpect(status().isNotFound());
+  }
+
+  private DeviceDTO create(String name) throws Exception {
+    return objectMapper.readValue(createRequest(name).getResponse().getContentAsString(), DeviceDTO.class);
+  }
+
+  private MvcResult createRequest(String name) throws Exception {
+    return mockMvc
+        .perform(
+            post("/api/v1/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CreateDeviceDTO(name, "Routing", null))))
+        .andExpect(status().isCreated())
+        .andReturn();
+  }
+
+  /** Replaces the replica with a copy of the primary, schema and rows. */
+  private static void replicate() throws Exception {
+    Path script = Files.createTempFile("routing-primary", ".sql");
+    try {
+      execute(PRIMARY_URL, "SCRIPT TO '" + script + "'");
+      execute(REPLICA_URL, "DROP ALL OBJECTS");
+      execute(REPLICA_URL, "RUNSCRIPT FROM '" + script + "'");
+    } finally {
+      Files.delete(script);
+    }
+  }
+
+  private static void execute(String url, String sql) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(url, "sa", "password");
+        Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+}
@@ -0,0 +1,286 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.devices.config.CacheConfig;
+import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.UpdateDeviceDTO;
+import com.example.devices.support.UuidV7;
+import com.example.devices.service.DeviceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Exact number of SQL statements each endpoint issues, with a cold device cache. A change that adds
+ * a round trip (an extra validator lookup, a COUNT behind a page, a lazy load) fails here with the
+ * statements listed; if the extra statement is intended, raise the budget in the same change.
+ *
+ * <p>Runs on H2. Pass {@code -Ddevices.test.mysql=true} to run it on MySQL in Testcontainers
+ * instead (needs Docker).
+ *
+ * <p>Not {@code @Transactional}: the UPDATEs and DELETEs a test transaction would roll back before
+ * flushing have to be counted too.
+ */
+@SpringBootTest(
+    properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.example.devices.integration.SqlStatementRecorder")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class SqlStatementBudgetTest {
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private DeviceService deviceService;
+  @Autowired private CacheManager cacheManager;
+  @Autowired private ObjectMapper objectMapper;
+
+  private DeviceDTO available;
+  private DeviceDTO inUse;
+
+  @DynamicPropertySource
+  static void database(DynamicPropertyRegistry registry) {
+    TestDatabase.register(registry);
+  }
+
+  @BeforeEach
+  void setUp() {
+    String brand = "Budget " + UUID.randomUUID();
+    available = deviceService.createDevice(new CreateDeviceDTO("Available", brand, "AVAILABLE"));
+    inUse = deviceService.createDevice(new CreateDeviceDTO("In use", brand, "IN_USE"));
+    cacheManager.getCache(CacheConfig.DEVICES_CACHE).clear();
+  }
+
+  @Test
+  void createDevice() throws Exception {
+    assertStatements(1, post("/api/v1/devices").contentType(MediaType.APPLICATION_JSON)
+        .content(json(new CreateDeviceDTO("New", "Budget", null))), status().isCreated());
+  }
+
+  @Test
+  void createDevices_oneInsertPerBatch() throws Exception {
+    List<CreateDeviceDTO> devices = new ArrayList<>();
+    for (int i = 0; i < 1200; i++) {
+      devices.add(new CreateDeviceDTO("Bulk " + i, "Budget", null));
+    }
+    // batch-size 500
+    assertStatements(3, post("/api/v1/devices/bulk").contentType(MediaType.APPLICATION_JSON)
+        .content(json(devices)), status().isOk());
+  }
+
+  @Test
+  void updateDevice() throws Exception {
+    UpdateDeviceDTO update = new UpdateDeviceDTO(available.uuid(), "Renamed", available.brand(), "AVAILABLE");
+    assertStatements(2, put("/api/v1/devices").contentType(MediaType.APPLICATION_JSON)
+        .content(json(update)), status().isOk());
+  }
+
+  @Test
+  void patchDevice() throws Exception {
+    assertStatements(2, patch("/api/v1/devices/" + available.uuid())
+        .contentType("application/json-patch+json")
+        .content("[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"Patched\"}]"), status().isOk());
+  }
+
+  @Test
+  void getDeviceByUuid() throws Exception {
+    assertStatements(1, get("/api/v1/devices/" + available.uuid()), status().isOk());
+  }
+
+  @Test
+  void getDeviceByUuid_unknown() throws Exception {
+    // Ruled out by the uuid filter.
+    assertStatements(0, get("/api/v1/devices/" + UUID.randomUUID()), status().isNotFound());
+  }
+
+  @Test
+  void getDevicesByUuids_oneQueryPerChunk() throws Exception {
+    List<String> uuids = new ArrayList<>(List.of(available.uuid(), inUse.uuid()));
+    for (int i = 0; i < 600; i++) {
+      // Not ruled out by the uuid filter: version 7 and recent, as if created by another instance.
+      uuids.add(UuidV7.next().toString());
+    }
+    // chunk-size 500
+    assertStatements(2, post("/api/v1/devices/batch-get").contentType(MediaType.APPLICATION_JSON)
+        .content(json(uuids)), status().isOk());
+  }
+
+  @Test
+  void getDevicesByUuids_cached() throws Exception {
+    deviceService.getDeviceByUuid(UUID.fromString(available.uuid()));
+    assertStatements(0, post("/api/v1/devices/batch-get").contentType(MediaType.APPLICATION_JSON)
+        .content(json(List.of(available.uuid(), UUID.randomUUID()))), status().isOk());
+  }
+
+  @Test
+  void getDeviceByUuid_cached() throws Exception {
+    deviceService.getDeviceByUuid(UUID.fromString(available.uuid()));
+    assertStatements(0, get("/api/v1/devices/" + available.uuid()), status().isOk());
+  }
+
+  @Test
+  void getDeviceByUuid_notModified() throws Exception {
+    assertStatements(1, get("/api/v1/devices/" + available.uuid())
+        .header(HttpHeaders.IF_NONE_MATCH, "\"" + available.version() + "\""), status().isNotModified());
+  }
+
+  @Test
+  void getAllDevices_page() throws Exception {
+    // page, COUNT (a full first page needs the total); the ETag comes from the page
+    assertStatements(2, get("/api/v1/devices?page=0&size=1"), status().isOk());
+  }
+
+  @Test
+  void getAllDevices_cursor() throws Exception {
+    assertStatements(1, get("/api/v1/devices?limit=10"), status().isOk());
+  }
+
+  @Test
+  void getDevicesByBrand_page() throws Exception {
+    // the brand has two devices: a short first page needs no COUNT
+    assertStatements(1, get("/api/v1/devices/brand/" + available.brand()), status().isOk());
+  }
+
+  @Test
+  void getDevicesByBrand_cursor() throws Exception {
+    assertStatements(1, get("/api/v1/devices/brand/" + available.brand() + "?limit=10"), status().isOk());
+  }
+
+  @Test
+  void getDevicesByState_page() throws Exception {
+    assertStatements(2, get("/api/v1/devices/state/AVAILABLE?size=1"), status().isOk());
+  }
+
+  @Test
+  void getDevicesByState_cursor() throws Exception {
+    assertStatements(1, get("/api/v1/devices/state/AVAILABLE?limit=10"), status().isOk());
+  }
+
+  @Test
+  void filterDevices() throws Exception {
+    assertStatements(1, get("/api/v1/devices/filter?brand=" + available.brand()
+        + "&state=AVAILABLE&createdFrom=2000-01-01T00:00:00&limit=10"), status().isOk());
+  }
+
+  @Test
+  void getAllDevices_notModified() throws Exception {
+    // the watermark only: a conditional request is answered with the tag to poll with
+    String eTag = mockMvc.perform(get("/api/v1/devices?limit=10").header(HttpHeaders.IF_NONE_MATCH, "\"none\""))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertStatements(1, get("/api/v1/devices?limit=10").header(HttpHeaders.IF_NONE_MATCH, eTag),
+        status().isNotModified());
+  }
+
+  @Test
+  void getAllDevices_notModifiedSinceAnUnconditionalRequest() throws Exception {
+    // the watermark, which does not match a tag taken from the page, then the page
+    String eTag = mockMvc.perform(get("/api/v1/devices?limit=10")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertStatements(2, get("/api/v1/devices?limit=10").header(HttpHeaders.IF_NONE_MATCH, eTag),
+        status().isNotModified());
+  }
+
+  @Test
+  void deleteDevice() throws Exception {
+    // the row (its brand and state feed the stats counters), then the DELETE at its version
+    assertStatements(2, delete("/api/v1/devices/" + available.uuid()), status().isNoContent());
+  }
+
+  @Test
+  void deleteDevice_cached() throws Exception {
+    // the DELETE at the cached version, which is then what was deleted
+    deviceService.getDeviceByUuid(UUID.fromString(available.uuid()));
+    assertStatements(1, delete("/api/v1/devices/" + available.uuid()), status().isNoContent());
+  }
+
+  @Test
+  void deleteDevice_missing() throws Exception {
+    assertStatements(1, delete("/api/v1/devices/" + UUID.randomUUID()), status().isNotFound());
+  }
+
+  @Test
+  void deleteDevice_inUse() throws Exception {
+    assertStatements(1, delete("/api/v1/devices/" + inUse.uuid()), status().isBadRequest());
+  }
+
+  @Test
+  void checkoutDevice() throws Exception {
+    // the locking SELECT, then the UPDATE
+    assertStatements(2, post("/api/v1/devices/checkout").param("brand", available.brand()), status().isOk());
+  }
+
+  @Test
+  void checkinDevice() throws Exception {
+    assertStatements(2, post("/api/v1/devices/" + inUse.uuid() + "/checkin"), status().isOk());
+  }
+
+  @Test
+  void renewLease() throws Exception {
+    assertStatements(2, post("/api/v1/devices/" + inUse.uuid() + "/renew"), status().isOk());
+  }
+
+  @Test
+  void getDeviceStats() throws Exception {
+    assertStatements(0, get("/api/v1/devices/stats"), status().isOk());
+  }
+
+  @Test
+  void exportDevices() throws Exception {
+    SqlStatementRecorder.start();
+    MvcResult started = mockMvc.perform(get("/api/v1/devices/export")).andExpect(request().asyncStarted()).andReturn();
+    mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+    assertThat(SqlStatementRecorder.stop()).hasSize(1);
+  }
+
+  @Test
+  void importDevices() throws Exception {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < 1200; i++) {
+      body.append("{\"name\":\"Imported ").append(i).append("\",\"brand\":\"Budget\"}\n");
+    }
+    // one chunk of 5000, written with batch-size 500
+    assertStatements(3, post("/api/v1/devices/import").contentType("application/x-ndjson")
+        .content(body.toString()), status().isOk());
+  }
+
+  private void assertStatements(int budget, RequestBuilder request, ResultMatcher expectedStatus)
+      throws Exception {
+    SqlStatementRecorder.start();
+    try {
+      mockMvc.perform(request).andExpect(expectedStatus);
+    } finally {
+      List<String> statements = SqlStatementRecorder.stop();
+      assertThat(statements)
+          .as("SQL statements issued (budget %d)", budget)
+          .hasSize(budget);
+    }
+  }
+
+  private String json(Object value) throws Exception {
+    return objectMapper.writeValueAsString(value);
+  }
+}
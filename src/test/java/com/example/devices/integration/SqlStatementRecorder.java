@@ -0,0 +1,40 @@
+package com.example.devices.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook that sees every SQL statement before it is prepared, including the bulk inserts
+ * and conditional deletes issued as HQL mutations. Hibernate instantiates it by class name, hence
+ * the static state; it records only between {@link #start()} and {@link #stop()}.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+  private static final List<String> STATEMENTS = new ArrayList<>();
+  private static volatile boolean recording;
+
+  public static void start() {
+    synchronized (STATEMENTS) {
+      STATEMENTS.clear();
+    }
+    recording = true;
+  }
+
+  public static List<String> stop() {
+    recording = false;
+    synchronized (STATEMENTS) {
+      return List.copyOf(STATEMENTS);
+    }
+  }
+
+  @Override
+  public String inspect(String sql) {
+    if (recording) {
+      synchronized (STATEMENTS) {
+        STATEMENTS.add(sql);
+      }
+    }
+    return sql;
+  }
+}
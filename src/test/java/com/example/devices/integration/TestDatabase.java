@@ -0,0 +1,35 @@
+package com.example.devices.integration;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * Database of the integration tests that opt in: the test profile's in-memory H2 by default, or a
+ * MySQL 8 container started once per JVM when {@code -Ddevices.test.mysql=true} is set.
+ */
+final class TestDatabase {
+
+  private static MySQLContainer<?> mysql;
+
+  private TestDatabase() {}
+
+  static void register(DynamicPropertyRegistry registry) {
+    if (!Boolean.getBoolean("devices.test.mysql")) {
+      return;
+    }
+    MySQLContainer<?> container = mysql();
+    registry.add("spring.datasource.url", () -> container.getJdbcUrl() + "?useCursorFetch=true");
+    registry.add("spring.datasource.username", container::getUsername);
+    registry.add("spring.datasource.password", container::getPassword);
+    registry.add("spring.datasource.driver-class-name", container::getDriverClassName);
+    registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.MySQLDialect");
+  }
+
+  private static synchronized MySQLContainer<?> mysql() {
+    if (mysql == null) {
+      mysql = new MySQLContainer<>("mysql:8.0");
+      mysql.start();
+    }
+    return mysql;
+  }
+}
@@ -0,0 +1,114 @@
+package com.example.devices.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.devices.dto.DeviceDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Drives the real Tomcat connector with virtual threads enabled and watches JFR for virtual threads
+ * that block while pinned to their carrier inside our code.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"spring.threads.virtual.enabled=true", "devices.requests.queue-timeout=10s"})
+@ActiveProfiles("test")
+public class VirtualThreadsIntegrationTest {
+
+  private static final int CLIENTS = 100;
+  private static final Set<Boolean> HANDLED_ON_VIRTUAL_THREAD = ConcurrentHashMap.newKeySet();
+
+  @LocalServerPort private int port;
+  @Autowired private ObjectMapper objectMapper;
+
+  @TestConfiguration
+  static class ThreadRecording {
+    @Bean
+    FilterRegistrationBean<Filter> threadRecordingFilter() {
+      return new FilterRegistrationBean<>(
+          (request, response, chain) -> {
+            HANDLED_ON_VIRTUAL_THREAD.add(Thread.currentThread().isVirtual());
+            chain.doFilter(request, response);
+          });
+    }
+  }
+
+  @Test
+  void concurrentRequests_shouldRunOnVirtualThreadsWithoutPinningInOurCode() throws Exception {
+    List<RecordedEvent> pinned = new ArrayList<>();
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    try (RecordingStream recording = new RecordingStream()) {
+      recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+      recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+      recording.startAsync();
+
+      List<Future<Integer>> statuses = new ArrayList<>();
+      try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (int i = 0; i < CLIENTS; i++) {
+          int n = i;
+          statuses.add(clients.submit(() -> createAndRead(client, n)));
+        }
+      }
+      for (Future<Integer> status : statuses) {
+        assertThat(status.get()).isEqualTo(200);
+      }
+      recording.stop();
+    }
+
+    assertThat(HANDLED_ON_VIRTUAL_THREAD).containsExactly(true);
+    assertThat(pinned).noneMatch(VirtualThreadsIntegrationTest::inOurCode);
+  }
+
+  private int createAndRead(HttpClient client, int n) throws Exception {
+    HttpResponse<String> created =
+        client.send(
+            HttpRequest.newBuilder(uri("/api/v1/devices"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                    "{\"name\":\"Virtual " + n + "\",\"brand\":\"Loom\"}"))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    assertThat(created.statusCode()).isEqualTo(201);
+    DeviceDTO device = objectMapper.readValue(created.body(), DeviceDTO.class);
+    return client
+        .send(
+            HttpRequest.newBuilder(uri("/api/v1/devices/" + device.uuid())).GET().build(),
+            HttpResponse.BodyHandlers.discarding())
+        .statusCode();
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private static boolean inOurCode(RecordedEvent event) {
+    return event.getStackTrace() != null
+        && event.getStackTrace().getFrames().stream()
+            .map(RecordedFrame::getMethod)
+            .anyMatch(method -> method.getType().getName().startsWith("com.example.devices"));
+  }
+}
@@ -2,18 +2,22 @@ package com.example.devices.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.example.devices.dto.DeviceRowDTO;
 import com.example.devices.entity.Device;
 import com.example.devices.enumerate.DeviceState;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -179,9 +183,99 @@ class DeviceRepoTest {
         assertTrue(inactiveDevices.getContent().stream().allMatch(device -> device.getState().equals(DeviceState.INACTIVE)));
     }
 
+    @Test
+    void testFindRowsAfterId() {
+        deviceRepo.deleteAll();
+        String brandName = "BrandForSeek";
+        Device[] saved = new Device[3];
+        for (int i = 0; i < saved.length; i++) {
+            Device device = new Device();
+            device.setUuid(UUID.randomUUID());
+            device.setName("Device " + i);
+            device.setBrand(brandName);
+            device.setState(i == 1 ? DeviceState.INACTIVE : DeviceState.AVAILABLE);
+            device.setCreationTime(LocalDateTime.now());
+            saved[i] = deviceRepo.save(device);
+        }
+
+        List<DeviceRowDTO> firstSlice = deviceRepo.findRowsAfter(0L, Limit.of(2));
+        assertEquals(2, firstSlice.size());
+        assertEquals(saved[0].getId(), firstSlice.get(0).id());
+
+        List<DeviceRowDTO> secondSlice = deviceRepo.findRowsAfter(firstSlice.get(1).id(), Limit.of(2));
+        assertEquals(1, secondSlice.size());
+        assertEquals(saved[2].getId(), secondSlice.get(0).id());
+
+        List<DeviceRowDTO> available = deviceRepo.findRowsByStateAfter(DeviceState.AVAILABLE, saved[0].getId(), Limit.of(2));
+        assertEquals(List.of(saved[2].getId()), available.stream().map(DeviceRowDTO::id).toList());
+    }
+
+    @Test
+    void testFindRowsByBrandAfterCursorAndPage() {
+        String brandName = "BrandForRows";
+        Device[] saved = new Device[3];
+        for (int i = 0; i < saved.length; i++) {
+            Device device = new Device();
+            device.setUuid(UUID.randomUUID());
+            device.setName("Row " + i);
+            device.setBrand(brandName);
+            device.setState(DeviceState.IN_USE);
+            device.setCreationTime(LocalDateTime.now());
+            saved[i] = deviceRepo.save(device);
+        }
+
+        List<DeviceRowDTO> firstSlice = deviceRepo.findRowsByBrandAfter(brandName, 0L, Limit.of(2));
+        assertEquals(2, firstSlice.size());
+        DeviceRowDTO first = firstSlice.get(0);
+        assertEquals(saved[0].getId(), first.id());
+        assertEquals(saved[0].getUuid(), first.uuid());
+        assertEquals("Row 0", first.name());
+        assertEquals(DeviceState.IN_USE, first.state());
+        assertEquals(saved[0].getVersion(), first.version());
+        assertNotNull(first.creationTime());
+
+        List<DeviceRowDTO> secondSlice = deviceRepo.findRowsByBrandAfter(brandName, firstSlice.get(1).id(), Limit.of(2));
+        assertEquals(1, secondSlice.size());
+        assertEquals(saved[2].getId(), secondSlice.get(0).id());
+
+        Page<DeviceRowDTO> page = deviceRepo.findRowsByBrand(brandName, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "name")));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("Row 2", "Row 1"), page.getContent().stream().map(DeviceRowDTO::name).toList());
+    }
+
+    @Test
+    @Transactional
+    void testFindRowsByFilter() {
+        String brandName = "BrandForFilter";
+        LocalDateTime start = LocalDateTime.of(2024, 6, 1, 12, 0);
+        DeviceState[] states = {DeviceState.AVAILABLE, DeviceState.IN_USE, DeviceState.AVAILABLE, DeviceState.AVAILABLE};
+        // The last two share a creation time, so the keyset has to fall back to the id.
+        LocalDateTime[] created = {start, start.plusDays(1), start.plusDays(2), start.plusDays(2)};
+        List<Device> devices = new ArrayList<>();
+        for (int i = 0; i < states.length; i++) {
+            devices.add(Device.builder().uuid(UUID.randomUUID()).name("Filtered " + i).brand(brandName)
+                .state(states[i]).creationTime(created[i]).build());
+        }
+        // Unlike save(), the multi-row insert keeps the given creation times instead of auditing them.
+        deviceRepo.insertAll(devices);
+
+        DeviceFilter available = new DeviceFilter(brandName, DeviceState.AVAILABLE, start.plusHours(1), start.plusDays(3));
+        List<DeviceRowDTO> firstSlice = deviceRepo.findRowsByFilter(available, null, null, 1);
+        assertEquals(List.of("Filtered 2"), firstSlice.stream().map(DeviceRowDTO::name).toList());
+
+        DeviceRowDTO last = firstSlice.getLast();
+        List<DeviceRowDTO> secondSlice = deviceRepo.findRowsByFilter(available, last.creationTime(), last.id(), 2);
+        assertEquals(List.of("Filtered 3"), secondSlice.stream().map(DeviceRowDTO::name).toList());
+
+        List<DeviceRowDTO> brandOnly = deviceRepo.findRowsByFilter(new DeviceFilter(brandName, null, null, null), null, null, 10);
+        assertEquals(
+            List.of("Filtered 0", "Filtered 1", "Filtered 2", "Filtered 3"),
+            brandOnly.stream().map(DeviceRowDTO::name).toList());
+    }
+
     @Test
     @Transactional
-    void testDeleteDeviceByUuid() {
+    void testDeleteDeviceByUuidAtVersionIfNotInUse() {
         UUID deviceUuidToDelete = UUID.randomUUID();
         Device device = new Device();
         device.setUuid(deviceUuidToDelete);
@@ -193,7 +287,8 @@ class DeviceRepoTest {
         Optional<Device> foundBeforeDelete = deviceRepo.findDeviceByUuid(deviceUuidToDelete);
         assertTrue(foundBeforeDelete.isPresent());
 
-        deviceRepo.deleteDeviceByUuid(deviceUuidToDelete);
+        assertEquals(0, deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(deviceUuidToDelete, device.getVersion() + 1));
+        assertEquals(1, deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(deviceUuidToDelete, device.getVersion()));
 
         Optional<Device> foundAfterDelete = deviceRepo.findDeviceByUuid(deviceUuidToDelete);
         assertFalse(foundAfterDelete.isPresent());
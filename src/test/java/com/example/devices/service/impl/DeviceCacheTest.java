@@ -0,0 +1,79 @@
+package com.example.devices.service.impl;
+
+import static com.example.devices.config.CacheConfig.DEVICES_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.devices.dto.DeviceDTO;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class DeviceCacheTest {
+
+  private final DeviceCache deviceCache = new DeviceCache(new CaffeineCacheManager(DEVICES_CACHE));
+
+  @Test
+  void olderVersionDoesNotReplaceNewerOne() {
+    UUID uuid = UUID.randomUUID();
+
+    deviceCache.offer(device(uuid, "Written", 2L));
+    deviceCache.offer(device(uuid, "Read before the write", 1L));
+
+    assertEquals("Written", deviceCache.get(uuid).name());
+  }
+
+  @Test
+  void newerVersionReplacesOlderOne() {
+    UUID uuid = UUID.randomUUID();
+
+    deviceCache.offer(device(uuid, "First", 0L));
+    deviceCache.offer(device(uuid, "Second", 1L));
+
+    assertEquals("Second", deviceCache.get(uuid).name());
+  }
+
+  @Test
+  void evictOutsideTransactionAppliesImmediately() {
+    UUID uuid = UUID.randomUUID();
+    deviceCache.offer(device(uuid, "Gone", 0L));
+
+    deviceCache.evictAfterCommit(uuid);
+
+    assertNull(deviceCache.get(uuid));
+  }
+
+  @Test
+  void writesInsideTransactionWaitForCommitAndRollbackDropsThem() {
+    UUID committed = UUID.randomUUID();
+    UUID rolledBack = UUID.randomUUID();
+    deviceCache.offer(device(rolledBack, "Kept", 0L));
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      deviceCache.offerAfterCommit(device(committed, "Committed", 0L));
+      assertNull(deviceCache.get(committed));
+      TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      deviceCache.evictAfterCommit(rolledBack);
+      // A rollback runs afterCompletion only.
+      TransactionSynchronizationUtils.invokeAfterCompletion(
+          TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertEquals("Committed", deviceCache.get(committed).name());
+    assertEquals("Kept", deviceCache.get(rolledBack).name());
+  }
+
+  private static DeviceDTO device(UUID uuid, String name, Long version) {
+    return new DeviceDTO(uuid.toString(), name, "Brand", "AVAILABLE", "2024-07-22T10:30:00", version, null);
+  }
+}
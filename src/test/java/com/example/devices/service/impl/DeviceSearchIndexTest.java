@@ -0,0 +1,170 @@
+package com.example.devices.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.devices.dto.DeviceRowDTO;
+import com.example.devices.dto.DeviceSearchHitDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class DeviceSearchIndexTest {
+
+  private final DeviceSearchIndex index = new DeviceSearchIndex();
+
+  @Test
+  void ranksWholeWordsAboveParts() {
+    UUID pro = add("iPhone 15 Pro", "Apple");
+    UUID plain = add("iPhone 15", "Apple");
+    UUID other = add("iPhone 150 Case", "Generic");
+    add("Galaxy S24", "Samsung");
+
+    assertEquals(List.of(plain, pro, other), uuids(index.search("iphone 15", 10)));
+  }
+
+  @Test
+  void matchesInsideWordsAndAcrossNameAndBrand() {
+    UUID iphone = add("iPhone 15", "Apple");
+    add("Pixel 9", "Google");
+
+    assertEquals(List.of(iphone), uuids(index.search("phone", 10)));
+    assertEquals(List.of(iphone), uuids(index.search("APPLE iphone", 10)));
+    assertTrue(index.search("phone google", 10).isEmpty());
+  }
+
+  @Test
+  void twoLetterWordsMatchWordPrefixesOnly() {
+    UUID s24 = add("Galaxy S24", "Samsung");
+    add("Mouse", "Logitech");
+
+    assertEquals(List.of(s24), uuids(index.search("s2", 10)));
+    assertTrue(index.search("24", 10).isEmpty());
+    assertTrue(index.search("x", 10).isEmpty());
+  }
+
+  @Test
+  void sharedTrigramsAreNotAMatch() {
+    add("abc bcd", "Brand");
+
+    assertTrue(index.search("abcd", 10).isEmpty());
+  }
+
+  @Test
+  void updatesReplaceTheIndexedTextAndOlderVersionsAreIgnored() {
+    UUID uuid = UUID.randomUUID();
+    index.upsert(uuid, "Old name", "Brand", 0L);
+    index.upsert(uuid, "New name", "Brand", 1L);
+    index.upsert(uuid, "Stale name", "Brand", 0L);
+
+    assertTrue(index.search("old", 10).isEmpty());
+    assertTrue(index.search("stale", 10).isEmpty());
+    assertEquals(List.of(uuid), uuids(index.search("new", 10)));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void removedDevicesAreNotFound() {
+    UUID uuid = add("Kindle", "Amazon");
+
+    index.remove(uuid, 0L);
+
+    assertTrue(index.search("kindle", 10).isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  void changesArrivingAfterARemovalAreIgnored() {
+    UUID uuid = UUID.randomUUID();
+    index.upsert(uuid, "Kindle", "Amazon", 0L);
+
+    index.remove(uuid, 1L);
+    index.upsert(uuid, "Kindle Paperwhite", "Amazon", 1L);
+
+    assertTrue(index.search("kindle", 10).isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  void rebuildDoesNotRestoreDevicesRemovedAfterTheirRowsWereRead() {
+    UUID kept = UUID.randomUUID();
+    UUID removed = UUID.randomUUID();
+    index.remove(removed, 2L);
+
+    index.rebuild(Stream.of(
+        new DeviceRowDTO(1L, removed, "Kindle", "Amazon", null, null, 2L, null),
+        new DeviceRowDTO(2L, kept, "Kindle Scribe", "Amazon", null, null, 0L, null)));
+    assertEquals(List.of(kept), uuids(index.search("kindle", 10)));
+
+    // The next rebuild forgets the tombstone, so they cannot pile up.
+    index.rebuild(Stream.empty());
+    index.upsert(removed, "Kindle", "Amazon", 2L);
+    assertEquals(List.of(removed), uuids(index.search("kindle", 10)));
+  }
+
+  @Test
+  void rebuildKeepsChangesAppliedWhileTheRowsAreRead() {
+    UUID renamed = UUID.randomUUID();
+    UUID removed = UUID.randomUUID();
+    UUID created = UUID.randomUUID();
+    index.upsert(renamed, "Kindle", "Amazon", 0L);
+    index.upsert(removed, "Kindle Scribe", "Amazon", 0L);
+
+    index.startRebuild();
+    // Committed before the rows were read, but they still hold the old version.
+    index.upsert(renamed, "Kindle Oasis", "Amazon", 1L);
+    Stream<DeviceRowDTO> rows = Stream.of(
+            new DeviceRowDTO(1L, renamed, "Kindle", "Amazon", null, null, 0L, null),
+            new DeviceRowDTO(2L, removed, "Kindle Scribe", "Amazon", null, null, 0L, null))
+        .peek(row -> {
+          if (row.uuid().equals(removed)) {
+            // The rows are indexed without the lock: searches and changes go on meanwhile.
+            assertEquals(2, index.search("kindle", 10).size());
+            index.remove(removed, 0L);
+            index.upsert(created, "Kindle Kids", "Amazon", 0L);
+          }
+        });
+    index.rebuild(rows);
+
+    assertEquals(List.of(renamed), uuids(index.search("oasis", 10)));
+    assertEquals(List.of(created), uuids(index.search("kids", 10)));
+    assertTrue(index.search("scribe", 10).isEmpty());
+    assertEquals(2, index.size());
+  }
+
+  @Test
+  void compactionKeepsLiveDevicesSearchable() {
+    List<UUID> added = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      added.add(add("Sensor " + i, "Bosch"));
+    }
+    for (int i = 0; i < 2000; i++) {
+      index.remove(added.get(i), 0L);
+    }
+
+    assertEquals(1000, index.size());
+    assertEquals(List.of(added.get(2500)), uuids(index.search("sensor 2500", 1)));
+    assertTrue(index.search("sensor 1500", 10).stream().noneMatch(hit -> hit.name().equals("Sensor 1500")));
+  }
+
+  @Test
+  void limitIsClamped() {
+    for (int i = 0; i < DeviceSearchIndex.MAX_LIMIT + 10; i++) {
+      add("Cable " + i, "Anker");
+    }
+
+    assertEquals(DeviceSearchIndex.MAX_LIMIT, index.search("cable", 1000).size());
+    assertEquals(1, index.search("cable", 0).size());
+  }
+
+  private UUID add(String name, String brand) {
+    UUID uuid = UUID.randomUUID();
+    index.upsert(uuid, name, brand, 0L);
+    return uuid;
+  }
+
+  private static List<UUID> uuids(List<DeviceSearchHitDTO> hits) {
+    return hits.stream().map(hit -> UUID.fromString(hit.uuid())).toList();
+  }
+}
@@ -2,25 +2,50 @@ package com.example.devices.service.impl;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import com.example.devices.config.DevicesProperties;
+import com.example.devices.dto.BatchGetResultDTO;
+import com.example.devices.dto.BulkCreateResultDTO;
 import com.example.devices.dto.CreateDeviceDTO;
+import com.example.devices.dto.CursorPageDTO;
 import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceRowDTO;
 import com.example.devices.dto.UpdateDeviceDTO;
 import com.example.devices.entity.Device;
+import com.example.devices.event.DeviceChangedEvent;
+import com.example.devices.exception.DeviceInUseException;
+import com.example.devices.exception.DeviceStateConflictException;
+import com.example.devices.exception.DeviceVersionMismatchException;
+import com.example.devices.exception.InvalidCursorException;
+import com.example.devices.exception.InvalidRequestException;
 import com.example.devices.enumerate.DeviceState;
+import com.example.devices.enumerate.RequestLogMode;
 import com.example.devices.mapper.DeviceMapper;
+import com.example.devices.repository.DeviceFilter;
 import com.example.devices.repository.DeviceRepo;
+import com.example.devices.support.DeviceUuidFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -32,12 +57,33 @@ class DeviceServiceImplTest {
 
   @Mock private DeviceRepo deviceRepo;
   @Mock private DeviceMapper deviceMapperMock;
+  @Mock private DeviceCache deviceCache;
+  @Mock private DeviceSearchIndex searchIndex;
+  @Mock private DeviceStats stats;
+  @Mock private DeviceUuidFilter uuidFilter;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Spy private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+  @Spy private DevicesProperties properties = 
+      new DevicesProperties(new DevicesProperties.Bulk(2, 10), new DevicesProperties.BatchGet(2, 10),
+          new DevicesProperties.Imports(10, 1, 10),
+          new DevicesProperties.Cache("maximumSize=10"),
+          new DevicesProperties.Concurrency(false),
+          new DevicesProperties.Requests(0, Duration.ZERO),
+          new DevicesProperties.RequestLog(RequestLogMode.OFF, 0, Duration.ZERO),
+          new DevicesProperties.Datasource(List.of(), Duration.ZERO),
+          new DevicesProperties.Stats(Duration.ZERO),
+          new DevicesProperties.Leases(Duration.ofMinutes(30), Duration.ofSeconds(1), 10, Duration.ZERO),
+          new DevicesProperties.UuidFilter(10, 0.01, Duration.ZERO),
+          new DevicesProperties.Search(Duration.ZERO));
+
+  @Spy private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
   @InjectMocks private DeviceServiceImpl deviceService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    when(uuidFilter.mightExist(any())).thenReturn(true);
   }
 
   @Test
@@ -84,10 +130,10 @@ class DeviceServiceImplTest {
     DeviceDTO changedDeviceDTO = deviceMapper.toDto(changedDevice);
 
     when(deviceRepo.findDeviceByUuid(deviceUuid)).thenReturn(Optional.of(existingDevice));
-    when(deviceRepo.save(any(Device.class))).thenReturn(changedDevice);
+    when(deviceRepo.saveAndFlush(any(Device.class))).thenReturn(changedDevice);
     when(deviceMapperMock.toDto(changedDevice)).thenReturn(changedDeviceDTO);
 
-    DeviceDTO result = deviceService.updateDevice(updatedDeviceDTO);
+    DeviceDTO result = deviceService.updateDevice(updatedDeviceDTO, null);
 
     assertNotNull(result);
     assertEquals(deviceUuid.toString(), result.uuid());
@@ -95,7 +141,23 @@ class DeviceServiceImplTest {
     assertEquals("New Brand", result.brand());
 
     verify(deviceRepo, times(1)).findDeviceByUuid(deviceUuid);
-    verify(deviceRepo, times(1)).save(any(Device.class));
+    verify(deviceRepo, times(1)).saveAndFlush(any(Device.class));
+  }
+
+  @Test
+  void updateDeviceWithStaleVersion() {
+    UUID deviceUuid = UUID.randomUUID();
+    Device existingDevice = new Device();
+    existingDevice.setUuid(deviceUuid);
+    existingDevice.setVersion(4L);
+    when(deviceRepo.findDeviceByUuid(deviceUuid)).thenReturn(Optional.of(existingDevice));
+    UpdateDeviceDTO updatedDeviceDTO =
+        new UpdateDeviceDTO(deviceUuid.toString(), "New Name", "New Brand", "AVAILABLE");
+
+    assertThrows(DeviceVersionMismatchException.class, () -> deviceService.updateDevice(updatedDeviceDTO, 3L));
+
+    assertNull(existingDevice.getName());
+    verify(deviceRepo, never()).saveAndFlush(any(Device.class));
   }
 
   @Test
@@ -111,10 +173,10 @@ class DeviceServiceImplTest {
 
     UpdateDeviceDTO updatedDeviceDTO = deviceMapper.toUpdateDto(updatedDeviceDetails);
 
-    assertThrows(EntityNotFoundException.class, () -> deviceService.updateDevice(updatedDeviceDTO));
+    assertThrows(EntityNotFoundException.class, () -> deviceService.updateDevice(updatedDeviceDTO, null));
 
     verify(deviceRepo, times(1)).findDeviceByUuid(deviceUuid);
-    verify(deviceRepo, never()).save(any(Device.class));
+    verify(deviceRepo, never()).saveAndFlush(any(Device.class));
   }
 
   @Test
@@ -151,42 +213,278 @@ class DeviceServiceImplTest {
     assertThrows(EntityNotFoundException.class, () -> deviceService.getDeviceByUuid(deviceUuid));
 
     verify(deviceRepo, times(1)).findDeviceByUuid(deviceUuid);
+    verify(uuidFilter).falsePositive();
   }
 
   @Test
-  void deleteDevice() {
+  void getDeviceByUuidRuledOutByFilterSkipsTheRepository() {
     UUID deviceUuid = UUID.randomUUID();
-    Device device = new Device();
-    device.setId(1L);
-    device.setUuid(deviceUuid);
+    when(uuidFilter.mightExist(deviceUuid)).thenReturn(false);
 
-    doNothing().when(deviceRepo).delete(device);
+    assertThrows(EntityNotFoundException.class, () -> deviceService.getDeviceByUuid(deviceUuid));
+    assertEquals(Optional.empty(), deviceService.getDeviceVersion(deviceUuid));
+
+    verifyNoInteractions(deviceRepo);
+  }
+
+  @Test
+  void patchDeviceAppliesSimpleReplacesInPlace() throws Exception {
+    UUID deviceUuid = UUID.randomUUID();
+    Device existingDevice = new Device();
+    existingDevice.setUuid(deviceUuid);
+    existingDevice.setName("Old Name");
+    existingDevice.setState(DeviceState.AVAILABLE);
+    when(deviceRepo.findDeviceByUuid(deviceUuid)).thenReturn(Optional.of(existingDevice));
+
+    deviceService.patchDevice(deviceUuid, objectMapper.readTree(
+        "[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"New Name\"},"
+            + "{\"op\":\"replace\",\"path\":\"/state\",\"value\":\"IN_USE\"}]"), null);
+
+    assertEquals("New Name", existingDevice.getName());
+    assertEquals(DeviceState.IN_USE, existingDevice.getState());
+    verify(objectMapper, never()).convertValue(any(), eq(JsonNode.class));
+    verify(deviceRepo, never()).save(any(Device.class));
+  }
+
+  @Test
+  void patchDeviceFallsBackToJsonPatchForOtherOperations() throws Exception {
+    UUID deviceUuid = UUID.randomUUID();
+    Device existingDevice = new Device();
+    existingDevice.setUuid(deviceUuid);
+    existingDevice.setBrand("Old Brand");
+    when(deviceRepo.findDeviceByUuid(deviceUuid)).thenReturn(Optional.of(existingDevice));
+
+    deviceService.patchDevice(deviceUuid, objectMapper.readTree(
+        "[{\"op\":\"test\",\"path\":\"/brand\",\"value\":\"Old Brand\"},"
+            + "{\"op\":\"replace\",\"path\":\"/brand\",\"value\":\"New Brand\"}]"), null);
+
+    assertEquals("New Brand", existingDevice.getBrand());
+    assertEquals(deviceUuid, existingDevice.getUuid());
+    verify(deviceRepo, never()).save(any(Device.class));
+  }
+
+  @Test
+  void patchDeviceRejectsMalformedPatch() throws Exception {
+    UUID deviceUuid = UUID.randomUUID();
+    when(deviceRepo.findDeviceByUuid(deviceUuid)).thenReturn(Optional.of(new Device()));
+    JsonNode patch = objectMapper.readTree("{\"op\":\"replace\",\"path\":\"/name\"}");
+
+    assertThrows(InvalidRequestException.class, () -> deviceService.patchDevice(deviceUuid, patch, null));
+  }
+
+  @Test
+  void deleteDevice() {
+    DeviceRowDTO row = row(1L, "Device 1", "Brand", DeviceState.AVAILABLE);
+    UUID deviceUuid = row.uuid();
+    DeviceDTO deleted = deviceMapper.toDto(row);
+
+    when(deviceRepo.findRowByUuid(deviceUuid)).thenReturn(Optional.of(row));
+    when(deviceMapperMock.toDto(row)).thenReturn(deleted);
+    when(deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(deviceUuid, row.version())).thenReturn(1);
 
     deviceService.deleteDevice(deviceUuid.toString());
 
-    verify(deviceRepo, times(1)).deleteDeviceByUuid(device.getUuid());
+    verify(deviceRepo, never()).lockDeviceByUuid(any());
+    verify(deviceRepo, never()).delete(any(Device.class));
+    verify(eventPublisher).publishEvent(new DeviceChangedEvent(deviceUuid, deleted, null));
   }
 
- @Test
-  void getAllDevices() {
-    Pageable pageable = PageRequest.of(0, 10);
-    Device device1 = new Device();
-    device1.setId(1L);
-    device1.setName("Device 1");
+  @Test
+  void deleteCachedDeviceAtItsVersion() {
+    DeviceDTO cached = deviceMapper.toDto(device(DeviceState.AVAILABLE));
+    UUID deviceUuid = UUID.fromString(cached.uuid());
+    when(deviceCache.get(deviceUuid)).thenReturn(cached);
+    when(deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(deviceUuid, cached.version())).thenReturn(1);
+
+    deviceService.deleteDevice(deviceUuid.toString());
+
+    verify(deviceRepo, never()).findRowByUuid(any());
+    verify(deviceRepo, never()).lockDeviceByUuid(any());
+    verify(eventPublisher).publishEvent(new DeviceChangedEvent(deviceUuid, cached, null));
+  }
+
+  @Test
+  void deleteDeviceWithStaleCachedCopyReadsTheRow() {
+    DeviceDTO stale = deviceMapper.toDto(device(DeviceState.AVAILABLE));
+    UUID deviceUuid = UUID.fromString(stale.uuid());
+    DeviceRowDTO row = new DeviceRowDTO(1L, deviceUuid, "Device 1", "Brand", DeviceState.INACTIVE, null, 1L, null);
+    DeviceDTO deleted = deviceMapper.toDto(row);
+    when(deviceCache.get(deviceUuid)).thenReturn(stale);
+    when(deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(deviceUuid, stale.version())).thenReturn(0);
+    when(deviceRepo.findRowByUuid(deviceUuid)).thenReturn(Optional.of(row));
+    when(deviceMapperMock.toDto(row)).thenReturn(deleted);
+    when(deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(deviceUuid, 1L)).thenReturn(1);
+
+    deviceService.deleteDevice(deviceUuid.toString());
+
+    verify(deviceRepo, never()).lockDeviceByUuid(any());
+    verify(eventPublisher).publishEvent(new DeviceChangedEvent(deviceUuid, deleted, null));
+  }
+
+  @Test
+  void deleteDeviceChangedAfterItsRowWasReadLocksTheRow() {
+    DeviceRowDTO row = row(1L, "Device 1", "Brand", DeviceState.AVAILABLE);
+    UUID deviceUuid = row.uuid();
+    Device existing = device(DeviceState.INACTIVE);
+    existing.setUuid(deviceUuid);
+    existing.setVersion(1L);
+    DeviceDTO deleted = deviceMapper.toDto(existing);
+    when(deviceRepo.findRowByUuid(deviceUuid)).thenReturn(Optional.of(row));
+    when(deviceMapperMock.toDto(row)).thenReturn(deviceMapper.toDto(row));
+    when(deviceRepo.deleteDeviceByUuidAtVersionIfNotInUse(deviceUuid, row.version())).thenReturn(0);
+    when(deviceRepo.lockDeviceByUuid(deviceUuid)).thenReturn(Optional.of(existing));
+    when(deviceMapperMock.toDto(existing)).thenReturn(deleted);
 
-    Device device2 = new Device();
-    device2.setId(2L);
-    device2.setName("Device 2");
+    deviceService.deleteDevice(deviceUuid.toString());
 
-    List<Device> deviceList = Arrays.asList(device1, device2);
-    Page<Device> devicePage = new PageImpl<>(deviceList, pageable, deviceList.size());
+    verify(deviceRepo).delete(existing);
+    verify(eventPublisher).publishEvent(new DeviceChangedEvent(deviceUuid, deleted, null));
+  }
 
-    DeviceDTO device1DTO = deviceMapper.toDto(device1);
-    DeviceDTO device2DTO = deviceMapper.toDto(device2);
+  @Test
+  void deleteDeviceInUse() {
+    DeviceRowDTO row = row(1L, "Device 1", "Brand", DeviceState.IN_USE);
+    when(deviceRepo.findRowByUuid(row.uuid())).thenReturn(Optional.of(row));
+    when(deviceMapperMock.toDto(row)).thenReturn(deviceMapper.toDto(row));
+
+    assertThrows(DeviceInUseException.class, () -> deviceService.deleteDevice(row.uuid().toString()));
+    verify(deviceRepo, never()).deleteDeviceByUuidAtVersionIfNotInUse(any(), any());
+    verify(deviceRepo, never()).delete(any(Device.class));
+    verify(eventPublisher, never()).publishEvent(any());
+  }
 
-    when(deviceRepo.findAll(pageable)).thenReturn(devicePage);
-    when(deviceMapperMock.toDto(device1)).thenReturn(device1DTO);
-    when(deviceMapperMock.toDto(device2)).thenReturn(device2DTO);
+  @Test
+  void deleteDeviceNotFound() {
+    UUID deviceUuid = UUID.randomUUID();
+    when(deviceRepo.findRowByUuid(deviceUuid)).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class, () -> deviceService.deleteDevice(deviceUuid.toString()));
+    verify(deviceRepo, never()).deleteDeviceByUuidAtVersionIfNotInUse(any(), any());
+    verify(deviceRepo, never()).delete(any(Device.class));
+  }
+
+  @Test
+  void checkoutDevice() {
+    Device device = device(DeviceState.AVAILABLE);
+    when(deviceRepo.lockAvailableByBrand("Brand", Limit.of(1))).thenReturn(List.of(device));
+    when(deviceMapperMock.toDto(any(Device.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<Device>getArgument(0)));
+
+    DeviceDTO result = deviceService.checkoutDevice("Brand");
+
+    assertEquals("IN_USE", result.state());
+    assertEquals(DeviceState.IN_USE, device.getState());
+    assertTrue(device.getLeaseExpiresAt().isAfter(LocalDateTime.now().plusMinutes(29)));
+    verify(deviceRepo).flush();
+    verify(deviceRepo, never()).lockAvailable(any());
+    verify(deviceCache).offerAfterCommit(result);
+    ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+    verify(eventPublisher).publishEvent(event.capture());
+    assertEquals("AVAILABLE", event.getValue().before().state());
+    assertEquals(result, event.getValue().after());
+  }
+
+  @Test
+  void checkoutDeviceOfAnyBrand() {
+    Device device = device(DeviceState.AVAILABLE);
+    when(deviceRepo.lockAvailable(Limit.of(1))).thenReturn(List.of(device));
+    when(deviceMapperMock.toDto(any(Device.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<Device>getArgument(0)));
+
+    assertEquals("IN_USE", deviceService.checkoutDevice(null).state());
+    verify(deviceRepo, never()).lockAvailableByBrand(any(), any());
+  }
+
+  @Test
+  void checkoutDeviceNoneAvailable() {
+    when(deviceRepo.lockAvailableByBrand("Brand", Limit.of(1))).thenReturn(List.of());
+
+    assertThrows(DeviceStateConflictException.class, () -> deviceService.checkoutDevice("Brand"));
+    verify(deviceRepo, never()).flush();
+    verify(eventPublisher, never()).publishEvent(any());
+  }
+
+  @Test
+  void checkinDevice() {
+    Device device = device(DeviceState.IN_USE);
+    when(deviceRepo.findDeviceByUuid(device.getUuid())).thenReturn(Optional.of(device));
+    when(deviceMapperMock.toDto(any(Device.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<Device>getArgument(0)));
+
+    DeviceDTO result = deviceService.checkinDevice(device.getUuid());
+
+    assertEquals("AVAILABLE", result.state());
+    verify(deviceRepo).flush();
+    verify(deviceCache).offerAfterCommit(result);
+    verify(eventPublisher).publishEvent(any(DeviceChangedEvent.class));
+  }
+
+  @Test
+  void checkinDeviceDropsTheLease() {
+    Device device = device(DeviceState.IN_USE);
+    device.setLeaseExpiresAt(LocalDateTime.now());
+    when(deviceRepo.findDeviceByUuid(device.getUuid())).thenReturn(Optional.of(device));
+
+    deviceService.checkinDevice(device.getUuid());
+
+    assertNull(device.getLeaseExpiresAt());
+  }
+
+  @Test
+  void renewLease() {
+    Device device = device(DeviceState.IN_USE);
+    LocalDateTime expiring = LocalDateTime.now().plusSeconds(5);
+    device.setLeaseExpiresAt(expiring);
+    when(deviceRepo.findDeviceByUuid(device.getUuid())).thenReturn(Optional.of(device));
+    when(deviceMapperMock.toDto(any(Device.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<Device>getArgument(0)));
+
+    DeviceDTO result = deviceService.renewLease(device.getUuid());
+
+    assertTrue(device.getLeaseExpiresAt().isAfter(expiring.plusMinutes(29)));
+    assertEquals(device.getLeaseExpiresAt(), LocalDateTime.parse(result.leaseExpiresAt()));
+    verify(deviceRepo).flush();
+    verify(eventPublisher).publishEvent(any(DeviceChangedEvent.class));
+  }
+
+  @Test
+  void renewLeaseOfAvailableDevice() {
+    Device device = device(DeviceState.AVAILABLE);
+    when(deviceRepo.findDeviceByUuid(device.getUuid())).thenReturn(Optional.of(device));
+
+    assertThrows(DeviceStateConflictException.class, () -> deviceService.renewLease(device.getUuid()));
+    assertNull(device.getLeaseExpiresAt());
+    verify(deviceRepo, never()).flush();
+  }
+
+  @Test
+  void checkinDeviceNotCheckedOut() {
+    Device device = device(DeviceState.AVAILABLE);
+    when(deviceRepo.findDeviceByUuid(device.getUuid())).thenReturn(Optional.of(device));
+
+    assertThrows(DeviceStateConflictException.class, () -> deviceService.checkinDevice(device.getUuid()));
+    assertEquals(DeviceState.AVAILABLE, device.getState());
+    verify(deviceRepo, never()).flush();
+  }
+
+  @Test
+  void checkinDeviceNotFound() {
+    UUID deviceUuid = UUID.randomUUID();
+    when(deviceRepo.findDeviceByUuid(deviceUuid)).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class, () -> deviceService.checkinDevice(deviceUuid));
+  }
+
+  @Test
+  void getAllDevices() {
+    Pageable pageable = PageRequest.of(0, 10);
+    DeviceRowDTO row1 = row(1L, "Device 1", null, null);
+    DeviceRowDTO row2 = row(2L, "Device 2", null, null);
+    Page<DeviceRowDTO> rowPage = new PageImpl<>(List.of(row1, row2), pageable, 2);
+
+    when(deviceRepo.findAllRows(pageable)).thenReturn(rowPage);
+    when(deviceMapperMock.toDto(any(DeviceRowDTO.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<DeviceRowDTO>getArgument(0)));
 
     Page<DeviceDTO> result = deviceService.getAllDevices(pageable);
 
@@ -195,32 +493,21 @@ class DeviceServiceImplTest {
     assertEquals("Device 1", result.getContent().get(0).name());
     assertEquals("Device 2", result.getContent().get(1).name());
 
-    verify(deviceRepo, times(1)).findAll(pageable);
+    verify(deviceRepo, times(1)).findAllRows(pageable);
+    verify(deviceRepo, never()).findAll(any(Pageable.class));
   }
 
   @Test
   void getDevicesByBrand() {
     String brand = "Test Brand";
     Pageable pageable = PageRequest.of(0, 10);
-    Device device1 = new Device();
-    device1.setId(1L);
-    device1.setName("Device 1");
-    device1.setBrand(brand);
-
-    Device device2 = new Device();
-    device2.setId(2L);
-    device2.setName("Device 2");
-    device2.setBrand(brand);
-
-    List<Device> deviceList = Arrays.asList(device1, device2);
-    Page<Device> devicePage = new PageImpl<>(deviceList, pageable, deviceList.size());
+    DeviceRowDTO row1 = row(1L, "Device 1", brand, null);
+    DeviceRowDTO row2 = row(2L, "Device 2", brand, null);
+    Page<DeviceRowDTO> rowPage = new PageImpl<>(List.of(row1, row2), pageable, 2);
 
-    DeviceDTO device1DTO = deviceMapper.toDto(device1);
-    DeviceDTO device2DTO = deviceMapper.toDto(device2);
-
-    when(deviceRepo.findByBrand(brand, pageable)).thenReturn(devicePage);
-    when(deviceMapperMock.toDto(device1)).thenReturn(device1DTO);
-    when(deviceMapperMock.toDto(device2)).thenReturn(device2DTO);
+    when(deviceRepo.findRowsByBrand(brand, pageable)).thenReturn(rowPage);
+    when(deviceMapperMock.toDto(any(DeviceRowDTO.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<DeviceRowDTO>getArgument(0)));
 
     Page<DeviceDTO> result = deviceService.getDevicesByBrand(brand, pageable);
 
@@ -231,26 +518,18 @@ class DeviceServiceImplTest {
     assertEquals("Device 2", result.getContent().get(1).name());
     assertEquals("Test Brand", result.getContent().get(1).brand());
 
-    verify(deviceRepo, times(1)).findByBrand(brand, pageable);
+    verify(deviceRepo, times(1)).findRowsByBrand(brand, pageable);
   }
 
   @Test
   void getDevicesByState() {
     DeviceState state = DeviceState.IN_USE;
     Pageable pageable = PageRequest.of(0, 10);
+    DeviceRowDTO row = row(2L, "Device 2", null, state);
+    Page<DeviceRowDTO> rowPage = new PageImpl<>(List.of(row), pageable, 1);
 
-    Device device = new Device();
-    device.setId(2L);
-    device.setName("Device 2");
-    device.setState(state);
-
-    List<Device> deviceList = List.of(device);
-    Page<Device> devicePage = new PageImpl<>(deviceList, pageable, deviceList.size());
-
-    DeviceDTO deviceDTO = deviceMapper.toDto(device);
-
-    when(deviceRepo.findByState(state, pageable)).thenReturn(devicePage);
-    when(deviceMapperMock.toDto(device)).thenReturn(deviceDTO);
+    when(deviceRepo.findRowsByState(state, pageable)).thenReturn(rowPage);
+    when(deviceMapperMock.toDto(row)).thenReturn(deviceMapper.toDto(row));
 
     Page<DeviceDTO> result = deviceService.getDevicesByState(state.toString(), pageable);
 
@@ -259,6 +538,172 @@ class DeviceServiceImplTest {
     assertEquals("Device 2", result.getContent().getFirst().name());
     assertEquals(state.toString(), result.getContent().getFirst().state());
 
-    verify(deviceRepo, times(1)).findByState(state, pageable);
+    verify(deviceRepo, times(1)).findRowsByState(state, pageable);
+  }
+
+  @Test
+  void getAllDevicesAfterCursor() {
+    String after = DeviceCursors.encode(10L);
+    when(deviceRepo.findRowsAfter(10L, Limit.of(3)))
+        .thenReturn(
+            List.of(
+                row(11L, "Device 11", null, null),
+                row(12L, "Device 12", null, null),
+                row(13L, "Device 13", null, null)));
+    when(deviceMapperMock.toDto(any(DeviceRowDTO.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<DeviceRowDTO>getArgument(0)));
+
+    CursorPageDTO<DeviceDTO> result = deviceService.getAllDevices(after, 2);
+
+    assertEquals(2, result.content().size());
+    assertEquals("Device 12", result.content().get(1).name());
+    assertEquals(12L, DeviceCursors.decode(result.nextCursor()));
+
+    verify(deviceRepo, never()).findAllRows(any(Pageable.class));
+  }
+
+  @Test
+  void getDevicesByStateAfterCursorLastSlice() {
+    DeviceRowDTO row = row(7L, "Device 7", null, DeviceState.IN_USE);
+
+    when(deviceRepo.findRowsByStateAfter(DeviceState.IN_USE, 0L, Limit.of(21)))
+        .thenReturn(List.of(row));
+    when(deviceMapperMock.toDto(row)).thenReturn(deviceMapper.toDto(row));
+
+    CursorPageDTO<DeviceDTO> result = deviceService.getDevicesByState("in_use", null, 20);
+
+    assertEquals(1, result.content().size());
+    assertNull(result.nextCursor());
+  }
+
+  @Test
+  void filterDevicesAfterCursor() {
+    LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+    LocalDateTime seen = LocalDateTime.of(2025, 1, 2, 0, 0);
+    DeviceFilter filter = new DeviceFilter("Brand", DeviceState.AVAILABLE, from, null);
+    DeviceRowDTO sameTime = new DeviceRowDTO(8L, UUID.randomUUID(), "Device 8", "Brand", DeviceState.AVAILABLE, seen, 0L, null);
+    DeviceRowDTO later = new DeviceRowDTO(3L, UUID.randomUUID(), "Device 3", "Brand", DeviceState.AVAILABLE, seen.plusHours(1), 0L, null);
+    DeviceRowDTO beyond = new DeviceRowDTO(4L, UUID.randomUUID(), "Device 4", "Brand", DeviceState.AVAILABLE, seen.plusHours(2), 0L, null);
+
+    when(deviceRepo.findRowsByFilter(filter, seen, 5L, 3)).thenReturn(List.of(sameTime, later, beyond));
+    when(deviceMapperMock.toDto(any(DeviceRowDTO.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<DeviceRowDTO>getArgument(0)));
+
+    CursorPageDTO<DeviceDTO> result =
+        deviceService.filterDevices("Brand", "available", from, null, DeviceCursors.encode(seen, 5L), 2);
+
+    assertEquals(List.of("Device 8", "Device 3"), result.content().stream().map(DeviceDTO::name).toList());
+    assertEquals(new DeviceCursors.Position(seen.plusHours(1), 3L), DeviceCursors.decodePosition(result.nextCursor()));
+  }
+
+  @Test
+  void filterDevicesWithoutConditionsStartsFromTheOldest() {
+    when(deviceRepo.findRowsByFilter(new DeviceFilter(null, null, null, null), null, null, 21)).thenReturn(List.of());
+
+    CursorPageDTO<DeviceDTO> result = deviceService.filterDevices(null, null, null, null, null, 20);
+
+    assertTrue(result.content().isEmpty());
+    assertNull(result.nextCursor());
+  }
+
+  @Test
+  void filterDevicesWithIdCursor() {
+    assertThrows(
+        InvalidCursorException.class,
+        () -> deviceService.filterDevices(null, null, null, null, DeviceCursors.encode(10L), 10));
+  }
+
+  @Test
+  void getAllDevicesWithInvalidCursor() {
+    assertThrows(InvalidCursorException.class, () -> deviceService.getAllDevices("not a cursor", 10));
+  }
+
+  @Test
+  void createDevicesInsertsValidItemsInBatches() {
+    List<CreateDeviceDTO> request =
+        List.of(
+            new CreateDeviceDTO("Device 1", "Brand", "AVAILABLE"),
+            new CreateDeviceDTO("", "Brand", "AVAILABLE"),
+            new CreateDeviceDTO("Device 3", "Brand", null),
+            new CreateDeviceDTO("Device 4", "Brand", "BROKEN"),
+            new CreateDeviceDTO("Device 5", "Brand", "IN_USE"));
+    when(deviceMapperMock.toEntity(any(CreateDeviceDTO.class)))
+        .thenAnswer(invocation -> deviceMapper.toEntity(invocation.getArgument(0)));
+
+    BulkCreateResultDTO result = deviceService.createDevices(request);
+
+    assertEquals(3, result.created());
+    assertEquals(2, result.rejected());
+    assertEquals("CREATED", result.items().get(0).status());
+    assertNotNull(result.items().get(0).uuid());
+    assertEquals(List.of("Name is required."), result.items().get(1).errors());
+    assertEquals(List.of("Unknown state: BROKEN"), result.items().get(3).errors());
+    // batch size 2: three accepted devices are written with two multi-row inserts
+    verify(deviceRepo, times(2)).insertAll(any());
+    verify(deviceRepo, never()).save(any(Device.class));
+  }
+
+  @Test
+  void createDevicesRejectsOversizedRequests() {
+    List<CreateDeviceDTO> request =
+        java.util.Collections.nCopies(11, new CreateDeviceDTO("Device", "Brand", null));
+
+    assertThrows(InvalidRequestException.class, () -> deviceService.createDevices(request));
+    verify(deviceRepo, never()).insertAll(any());
+  }
+
+  @Test
+  void getDevicesByUuidsServesTheCacheAndLoadsTheRestInChunks() {
+    DeviceRowDTO cached = row(1L, "Cached", "Brand", DeviceState.AVAILABLE);
+    DeviceRowDTO first = row(2L, "First", "Brand", DeviceState.AVAILABLE);
+    DeviceRowDTO second = row(3L, "Second", "Brand", DeviceState.IN_USE);
+    DeviceRowDTO third = row(4L, "Third", "Brand", DeviceState.AVAILABLE);
+    UUID unknown = UUID.randomUUID();
+    UUID ruledOut = UUID.randomUUID();
+    when(deviceCache.get(cached.uuid())).thenReturn(deviceMapper.toDto(cached));
+    when(uuidFilter.mightExist(ruledOut)).thenReturn(false);
+    when(deviceRepo.findRowsByUuidIn(List.of(first.uuid(), unknown))).thenReturn(List.of(first));
+    when(deviceRepo.findRowsByUuidIn(List.of(third.uuid(), second.uuid()))).thenReturn(List.of(second, third));
+    when(deviceMapperMock.toDto(any(DeviceRowDTO.class)))
+        .thenAnswer(invocation -> deviceMapper.toDto(invocation.<DeviceRowDTO>getArgument(0)));
+
+    BatchGetResultDTO result = deviceService.getDevicesByUuids(List.of(
+        first.uuid(), cached.uuid(), unknown, ruledOut, third.uuid(), first.uuid(), second.uuid()));
+
+    assertEquals(List.of("First", "Cached", "Third", "Second"),
+        result.devices().stream().map(DeviceDTO::name).toList());
+    assertEquals(List.of(unknown.toString(), ruledOut.toString()), result.missing());
+    // chunk-size 2
+    verify(deviceRepo, times(2)).findRowsByUuidIn(any());
+    verify(deviceCache, times(3)).offer(any());
+    verify(uuidFilter).falsePositive();
+  }
+
+  @Test
+  void getDevicesByUuidsAnsweredFromTheCacheSkipsTheRepository() {
+    DeviceRowDTO cached = row(1L, "Cached", "Brand", DeviceState.AVAILABLE);
+    when(deviceCache.get(cached.uuid())).thenReturn(deviceMapper.toDto(cached));
+
+    BatchGetResultDTO result = deviceService.getDevicesByUuids(List.of(cached.uuid()));
+
+    assertEquals(1, result.devices().size());
+    assertEquals(List.of(), result.missing());
+    verifyNoInteractions(deviceRepo);
+  }
+
+  @Test
+  void getDevicesByUuidsRejectsOversizedRequests() {
+    List<UUID> request = java.util.Collections.nCopies(11, UUID.randomUUID());
+
+    assertThrows(InvalidRequestException.class, () -> deviceService.getDevicesByUuids(request));
+    verifyNoInteractions(deviceRepo);
+  }
+
+  private static Device device(DeviceState state) {
+    return Device.builder().id(1L).uuid(UUID.randomUUID()).name("Device").brand("Brand").state(state).version(0L).build();
+  }
+
+  private static DeviceRowDTO row(Long id, String name, String brand, DeviceState state) {
+    return new DeviceRowDTO(id, UUID.randomUUID(), name, brand, state, null, 0L, null);
   }
 }
@@ -0,0 +1,148 @@
+package com.example.devices.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.devices.dto.DeviceCountDTO;
+import com.example.devices.dto.DeviceDTO;
+import com.example.devices.dto.DeviceStatsDTO;
+import com.example.devices.enumerate.DeviceState;
+import com.example.devices.repository.DeviceRepo;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class DeviceStatsTest {
+
+  private final DeviceStats stats = new DeviceStats();
+
+  @Test
+  void appliesCreatesUpdatesAndDeletes() {
+    DeviceDTO phone = device("Apple", "AVAILABLE");
+    DeviceDTO phoneInUse = device("Apple", "IN_USE");
+    DeviceDTO tablet = device("Samsung", "AVAILABLE");
+
+    stats.apply(null, phone);
+    stats.apply(null, tablet);
+    stats.apply(phone, phoneInUse);
+    stats.apply(tablet, null);
+
+    DeviceStatsDTO snapshot = stats.snapshot();
+    assertEquals(1, snapshot.total());
+    assertEquals(Map.of("AVAILABLE", 0L, "IN_USE", 1L, "INACTIVE", 0L), snapshot.byState());
+    // Brands without devices are left out.
+    assertEquals(Map.of("Apple", 1L), snapshot.byBrand());
+    assertNull(snapshot.reconciledAt());
+  }
+
+  @Test
+  void resetReplacesTheCounters() {
+    stats.apply(null, device("Stale", "AVAILABLE"));
+    Map<String, Map<DeviceState, Long>> counts = new HashMap<>();
+    counts.put("Apple", Map.of(DeviceState.AVAILABLE, 3L, DeviceState.IN_USE, 2L));
+    counts.put("Google", Map.of(DeviceState.INACTIVE, 1L));
+
+    stats.startRecount();
+    stats.reset(counts);
+
+    DeviceStatsDTO snapshot = stats.snapshot();
+    assertEquals(6, snapshot.total());
+    assertEquals(Map.of("AVAILABLE", 3L, "IN_USE", 2L, "INACTIVE", 1L), snapshot.byState());
+    assertEquals(Map.of("Apple", 5L, "Google", 1L), snapshot.byBrand());
+    assertNotNull(snapshot.reconciledAt());
+  }
+
+  @Test
+  void resetReplaysChangesAppliedWhileCounting() {
+    DeviceDTO phone = device("Apple", "AVAILABLE");
+    stats.apply(null, phone);
+    stats.startRecount();
+    // Committed after the count read its rows.
+    stats.apply(phone, device("Apple", "IN_USE"));
+    stats.apply(null, device("Google", "AVAILABLE"));
+
+    stats.reset(Map.of("Apple", Map.of(DeviceState.AVAILABLE, 1L)));
+
+    DeviceStatsDTO snapshot = stats.snapshot();
+    assertEquals(2, snapshot.total());
+    assertEquals(Map.of("AVAILABLE", 1L, "IN_USE", 1L, "INACTIVE", 0L), snapshot.byState());
+    assertEquals(Map.of("Apple", 1L, "Google", 1L), snapshot.byBrand());
+  }
+
+  @Test
+  void reconcileSucceedsWhileWritesKeepLanding() {
+    DeviceRepo deviceRepo = mock(DeviceRepo.class);
+    DeviceStatsUpdater updater = new DeviceStatsUpdater(stats, deviceRepo, mock(PlatformTransactionManager.class));
+    DeviceDTO phone = device("Apple", "AVAILABLE");
+    // Every count is overtaken by a write, as under steady load.
+    when(deviceRepo.countByBrandAndState())
+        .thenAnswer(invocation -> {
+          stats.apply(null, phone);
+          return List.of(new DeviceCountDTO("Apple", DeviceState.AVAILABLE, 5L));
+        });
+
+    assertTrue(updater.reconcile());
+    assertTrue(updater.reconcile());
+
+    DeviceStatsDTO snapshot = stats.snapshot();
+    assertEquals(6, snapshot.total());
+    assertEquals(Map.of("Apple", 6L), snapshot.byBrand());
+    assertNotNull(snapshot.reconciledAt());
+  }
+
+  @Test
+  void writeCommittedBeforeTheSnapshotIsCountedOnce() {
+    DeviceRepo deviceRepo = mock(DeviceRepo.class);
+    DeviceStatsUpdater updater = new DeviceStatsUpdater(stats, deviceRepo, mock(PlatformTransactionManager.class));
+    // Lands while the recount waits for a connection, so the COUNT already includes it.
+    when(deviceRepo.openSnapshot())
+        .thenAnswer(invocation -> {
+          stats.apply(null, device("Apple", "AVAILABLE"));
+          return 0L;
+        });
+    when(deviceRepo.countByBrandAndState())
+        .thenReturn(List.of(new DeviceCountDTO("Apple", DeviceState.AVAILABLE, 1L)));
+
+    assertTrue(updater.reconcile());
+
+    assertEquals(1, stats.snapshot().total());
+  }
+
+  @Test
+  void failedRecountStopsBuffering() {
+    DeviceRepo deviceRepo = mock(DeviceRepo.class);
+    DeviceStatsUpdater updater = new DeviceStatsUpdater(stats, deviceRepo, mock(PlatformTransactionManager.class));
+    when(deviceRepo.countByBrandAndState()).thenThrow(new IllegalStateException("Connection lost"));
+
+    assertThrows(IllegalStateException.class, updater::reconcile);
+    stats.apply(null, device("Apple", "AVAILABLE"));
+    stats.reset(Map.of());
+
+    // Nothing buffered for the reset that never came is replayed by a later one.
+    assertEquals(0, stats.snapshot().total());
+  }
+
+  @Test
+  void nullBrandsAndStatesOnlyCountTowardsTheTotal() {
+    Map<String, Map<DeviceState, Long>> counts = new HashMap<>();
+    Map<DeviceState, Long> noState = new HashMap<>();
+    noState.put(null, 2L);
+    counts.put(null, noState);
+
+    stats.startRecount();
+    stats.reset(counts);
+    stats.apply(null, device(null, null));
+
+    DeviceStatsDTO snapshot = stats.snapshot();
+    assertEquals(3, snapshot.total());
+    assertTrue(snapshot.byBrand().isEmpty());
+    assertEquals(0L, snapshot.byState().values().stream().mapToLong(Long::longValue).sum());
+  }
+
+  private static DeviceDTO device(String brand, String state) {
+    return new DeviceDTO(null, "Device", brand, state, null, 0L, null);
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.devices.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class LeaseTimingWheelTest {
+
+  private static final long TICK = 1000;
+
+  @Test
+  void leaseComesDueAtItsDeadline() {
+    LeaseTimingWheel wheel = new LeaseTimingWheel(TICK, 0);
+    UUID lease = UUID.randomUUID();
+    wheel.schedule(lease, 5_500);
+
+    assertEquals(List.of(), wheel.advance(5_999));
+    assertEquals(List.of(lease), wheel.advance(6_000));
+    assertEquals(List.of(), wheel.advance(7_000));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void overdueLeaseComesDueOnTheNextAdvance() {
+    LeaseTimingWheel wheel = new LeaseTimingWheel(TICK, 10_000);
+    UUID lease = UUID.randomUUID();
+    wheel.schedule(lease, 3_000);
+
+    assertEquals(1, wheel.size());
+    assertEquals(List.of(lease), wheel.advance(10_000));
+  }
+
+  @Test
+  void distantLeasesMoveDownEveryLevel() {
+    LeaseTimingWheel wheel = new LeaseTimingWheel(TICK, 0);
+    // Deadlines on each level of 64 slots, and one past all four in the overflow list.
+    long[] ticks = {63, 64 * 3 + 7, 64L * 64 * 5 + 64 * 2 + 1, 64L * 64 * 64 * 2 + 13, 64L * 64 * 64 * 64 + 99};
+    Map<Long, UUID> leases = new HashMap<>();
+    for (long tick : ticks) {
+      UUID lease = UUID.randomUUID();
+      leases.put(tick, lease);
+      wheel.schedule(lease, tick * TICK);
+    }
+
+    for (long tick : ticks) {
+      assertEquals(List.of(), wheel.advance((tick - 1) * TICK), "before tick " + tick);
+      assertEquals(List.of(leases.get(tick)), wheel.advance(tick * TICK), "at tick " + tick);
+    }
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void everyLeaseComesDueOnceAndNotEarly() {
+    Random random = new Random(42);
+    long start = 1_700_000_000_000L;
+    LeaseTimingWheel wheel = new LeaseTimingWheel(TICK, start);
+    Map<UUID, Long> deadlines = new HashMap<>();
+    for (int i = 0; i < 50_000; i++) {
+      UUID lease = UUID.randomUUID();
+      long deadline = start + random.nextLong(3 * 3600_000L);
+      deadlines.put(lease, deadline);
+      wheel.schedule(lease, deadline);
+    }
+    assertEquals(deadlines.size(), wheel.size());
+
+    List<UUID> released = new ArrayList<>();
+    long now = start;
+    while (now < start + 3 * 3600_000L + TICK) {
+      now += random.nextLong(1, 30_000);
+      for (UUID lease : wheel.advance(now)) {
+        long deadline = deadlines.get(lease);
+        assertTrue(deadline <= now, "released before its deadline");
+        assertTrue(deadline > now - 30_000 - TICK, "released late");
+        released.add(lease);
+      }
+    }
+    assertEquals(deadlines.size(), released.size());
+    assertEquals(deadlines.keySet(), new HashSet<>(released));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void rejectsNonPositiveTick() {
+    assertThrows(IllegalArgumentException.class, () -> new LeaseTimingWheel(0, 0));
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.devices.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.devices.config.DevicesProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class DeviceUuidFilterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final DeviceUuidFilter filter =
+      new DeviceUuidFilter(
+          new DevicesProperties(
+              null, null, null, null, null, null, null, null, null, null,
+              new DevicesProperties.UuidFilter(1_000, 0.01, Duration.ofHours(1)), null),
+          meterRegistry);
+
+  @Test
+  void everyUuidMightExistUntilTheFirstBuild() {
+    assertTrue(filter.mightExist(UUID.randomUUID()));
+  }
+
+  @Test
+  void rebuildKeepsOnlyTheGivenUuids() {
+    UUID kept = UUID.randomUUID();
+    UUID dropped = UUID.randomUUID();
+    filter.add(dropped);
+
+    filter.rebuild(1, List.of(kept).iterator());
+
+    assertTrue(filter.mightExist(kept));
+    assertFalse(filter.mightExist(dropped));
+    assertEquals(1, meterRegistry.get("devices.uuid.filter.rejected").counter().count());
+  }
+
+  @Test
+  void addedUuidsMightExist() {
+    filter.rebuild(0, Collections.emptyIterator());
+    UUID added = UUID.randomUUID();
+
+    filter.add(added);
+
+    assertTrue(filter.mightExist(added));
+  }
+
+  @Test
+  void uuidAddedDuringARebuildSurvivesIt() {
+    filter.rebuild(0, Collections.emptyIterator());
+    UUID added = UUID.randomUUID();
+
+    filter.rebuild(0, new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        filter.add(added);
+        return false;
+      }
+
+      @Override
+      public UUID next() {
+        throw new NoSuchElementException();
+      }
+    });
+
+    assertTrue(filter.mightExist(added));
+  }
+
+  @Test
+  void recentVersion7UuidsMightExistWithoutBeingAdded() {
+    filter.rebuild(0, Collections.emptyIterator());
+
+    assertTrue(filter.mightExist(UuidV7.next()));
+    UUID old = new UUID((System.currentTimeMillis() - Duration.ofHours(1).toMillis()) << 16 | 0x7000L,
+        0x8000_0000_0000_0000L);
+    assertFalse(filter.mightExist(old));
+  }
+
+  @Test
+  void exposesSizeAndEstimatedFalsePositiveRate() {
+    filter.rebuild(0, Collections.emptyIterator());
+
+    assertEquals(0, meterRegistry.get("devices.uuid.filter.false.positive.rate").gauge().value());
+    assertTrue(meterRegistry.get("devices.uuid.filter.memory").gauge().value() > 0);
+  }
+}
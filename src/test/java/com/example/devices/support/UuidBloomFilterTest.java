@@ -0,0 +1,63 @@
+package com.example.devices.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UuidBloomFilterTest {
+
+  @Test
+  void containsEveryAddedUuid() {
+    UuidBloomFilter filter = UuidBloomFilter.create(10_000, 0.01);
+    List<UUID> added = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      UUID uuid = UUID.randomUUID();
+      added.add(uuid);
+      filter.put(uuid);
+    }
+
+    for (UUID uuid : added) {
+      assertTrue(filter.mightContain(uuid));
+    }
+  }
+
+  @Test
+  void falsePositivesStayNearTheTargetRate() {
+    UuidBloomFilter filter = UuidBloomFilter.create(100_000, 0.01);
+    for (int i = 0; i < 100_000; i++) {
+      filter.put(UUID.randomUUID());
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 100_000; i++) {
+      if (filter.mightContain(UUID.randomUUID())) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 1_500, falsePositives + " false positives");
+    assertEquals(0.01, filter.falsePositiveRate(), 0.003);
+  }
+
+  @Test
+  void emptyFilterContainsNothing() {
+    UuidBloomFilter filter = UuidBloomFilter.create(1_000, 0.01);
+
+    assertFalse(filter.mightContain(UUID.randomUUID()));
+    assertEquals(0, filter.falsePositiveRate());
+  }
+
+  @Test
+  void sizedFromElementsAndRate() {
+    // 1.2 MB at 1% for a million uuids, rounded up to whole words.
+    assertEquals(1_198_080, UuidBloomFilter.create(1_000_000, 0.01).sizeInBytes(), 1_000);
+  }
+
+  @Test
+  void rejectsInvalidSizes() {
+    assertThrows(IllegalArgumentException.class, () -> UuidBloomFilter.create(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> UuidBloomFilter.create(1_000, 1));
+  }
+}
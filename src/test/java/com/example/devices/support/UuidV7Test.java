@@ -0,0 +1,39 @@
+package com.example.devices.support;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UuidV7Test {
+
+    @Test
+    void testVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        // The counter may have borrowed a few milliseconds ahead in another test.
+        assertTrue(UuidV7.timestamp(uuid) >= before && UuidV7.timestamp(uuid) < after + 1000);
+    }
+
+    @Test
+    void testValuesWithinOneMillisecondAreMonotonic() {
+        long now = System.currentTimeMillis();
+        UUID previous = UuidV7.next(now);
+        // More than the 12-bit counter holds, so the last values borrow the next millisecond.
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = UuidV7.next(now);
+            assertTrue(compareUnsigned(previous, next) < 0, previous + " !< " + next);
+            previous = next;
+        }
+    }
+
+    /** Byte order of the BINARY(16) column, which is what the index sorts on. */
+    private static int compareUnsigned(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -4,9 +4,15 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.example.devices.entity.Device;
 import com.example.devices.repository.DeviceRepo;
+import com.example.devices.support.DeviceUuidFilter;
+import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 
@@ -16,23 +22,54 @@ public class DeviceExistsValidatorTest {
     void isValid_deviceExists_returnsTrue() {
         // Mock the repository to return an empty list, indicating the device is not in use
         DeviceRepo deviceRepository = mock(DeviceRepo.class);
-        when(deviceRepository.existsDeviceByUuid(any())).thenReturn(true);
+        when(deviceRepository.findDeviceByUuid(any())).thenReturn(Optional.of(new Device()));
 
         // Create an instance of the validator with the mocked repository
-        DeviceExistsValidator validator = new DeviceExistsValidator(deviceRepository);
+        DeviceUuidFilter uuidFilter = uuidFilter();
+        DeviceExistsValidator validator = new DeviceExistsValidator(deviceRepository, uuidFilter);
 
         // Call isValid and assert that it returns true
         assertTrue(validator.isValid(UUID.randomUUID().toString(), null));
+        verify(uuidFilter, never()).falsePositive();
     }
 
     @Test
     void isValid_deviceDoesntExist_returnsFalse() {
         DeviceRepo deviceRepository = mock(DeviceRepo.class);
-        when(deviceRepository.existsDeviceByUuid(any())).thenReturn(false);
+        when(deviceRepository.findDeviceByUuid(any())).thenReturn(Optional.empty());
 
-        DeviceExistsValidator validator = new DeviceExistsValidator(deviceRepository);
+        DeviceExistsValidator validator = new DeviceExistsValidator(deviceRepository, uuidFilter());
 
         assertFalse(validator.isValid(UUID.randomUUID().toString(), null));
     }
 
+    @Test
+    void isValid_uuidLetThroughByFilterButUnknown_countsFalsePositive() {
+        DeviceRepo deviceRepository = mock(DeviceRepo.class);
+        when(deviceRepository.findDeviceByUuid(any())).thenReturn(Optional.empty());
+        DeviceUuidFilter uuidFilter = uuidFilter();
+
+        DeviceExistsValidator validator = new DeviceExistsValidator(deviceRepository, uuidFilter);
+
+        assertFalse(validator.isValid(UUID.randomUUID().toString(), null));
+        verify(uuidFilter).falsePositive();
+    }
+
+    @Test
+    void isValid_uuidRuledOutByFilter_returnsFalseWithoutQuery() {
+        DeviceRepo deviceRepository = mock(DeviceRepo.class);
+        DeviceUuidFilter uuidFilter = mock(DeviceUuidFilter.class);
+        when(uuidFilter.mightExist(any())).thenReturn(false);
+
+        DeviceExistsValidator validator = new DeviceExistsValidator(deviceRepository, uuidFilter);
+
+        assertFalse(validator.isValid(UUID.randomUUID().toString(), null));
+        verifyNoInteractions(deviceRepository);
+    }
+
+    private static DeviceUuidFilter uuidFilter() {
+        DeviceUuidFilter uuidFilter = mock(DeviceUuidFilter.class);
+        when(uuidFilter.mightExist(any())).thenReturn(true);
+        return uuidFilter;
+    }
 }